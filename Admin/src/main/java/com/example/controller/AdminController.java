@@ -1,14 +1,20 @@
 package com.example.controller;
 
+import com.example.service.ApiClient;
 import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 @Named
@@ -17,6 +23,13 @@ public class AdminController implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = Logger.getLogger(AdminController.class.getName());
 
+    private static final String PROFILE_URL  = "https://admin-api.prjsdr.xyz/api/admin/me";
+    private static final String CATEGORY_URL = "https://tickets-api.prjsdr.xyz/api/category";
+    private static final long DASHBOARD_TIMEOUT_SECONDS = 10;
+
+    @Inject
+    private ApiClient apiClient;
+
     /* ───────── Profile fields ───────── */
     private String email;
     private String password;
@@ -33,6 +46,7 @@ public class AdminController implements Serializable {
 
     /* ───────── Add-category field ───────── */
     private String categoryName;
+    private List<String> categories = new ArrayList<>();
 
     private String jwt;
     private String errorMessage;
@@ -44,51 +58,105 @@ public class AdminController implements Serializable {
 
     public void loadProfile() {
         LOGGER.info("Loading admin profile");
-        if (jwt == null || jwt.isBlank()) {
+        if (jwtBlank()) {
             errorMessage = "Authentication token missing";
             LOGGER.warning(errorMessage);
             return;
         }
 
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://admin-api.prjsdr.xyz/api/admin/me"))
-                    .header("Authorization", "Bearer " + jwt)
-                    .header("Content-Type", "application/json")
-                    .GET()
-                    .build();
-
-            HttpResponse<String> res = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-
-            int code = res.statusCode();
-            String body = res.body();
-            LOGGER.info("loadProfile → status=" + code + " body=" + body);
-
-            if (code == 200) {
-                JSONObject json = new JSONObject(body);
-                if ("SUCCESS".equals(json.optString("status"))) {
-                    JSONObject admin = json.getJSONObject("admin");
-                    email     = admin.optString("email");
-                    firstName = admin.optString("firstname",  "");
-                    lastName  = admin.optString("lastname",   "");
-                    username  = admin.optString("username",   "");
-                    errorMessage = null;
-                    LOGGER.info("Profile loaded OK: " + email);
-                } else {
-                    errorMessage = json.optString("message", "Unknown error");
-                }
-            } else if (code == 404) {
-                errorMessage = "Admin not found";
-            } else {
-                errorMessage = "Error loading profile (status " + code + ")";
-            }
+            applyProfile(apiClient.send(getRequest(PROFILE_URL)));
         } catch (IOException | InterruptedException ex) {
             LOGGER.severe("loadProfile failed: " + ex.getMessage());
             errorMessage = "Error loading profile";
         }
     }
 
+    /**
+     * Loads everything the dashboard shows. The calls are independent, so they are issued
+     * together and the page waits only as long as the slowest one.
+     */
+    public void loadDashboard() {
+        LOGGER.info("Loading admin dashboard");
+        if (jwtBlank()) {
+            errorMessage = "Authentication token missing";
+            LOGGER.warning(errorMessage);
+            return;
+        }
+
+        CompletableFuture<HttpResponse<String>> profile    = apiClient.sendAsync(getRequest(PROFILE_URL));
+        CompletableFuture<HttpResponse<String>> categoryRs = apiClient.sendAsync(getRequest(CATEGORY_URL));
+        CompletableFuture.allOf(profile, categoryRs)
+                .orTimeout(DASHBOARD_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(ex -> null)     // each part is checked on its own below
+                .join();
+
+        if (isOk(profile)) {
+            applyProfile(profile.join());
+        } else {
+            LOGGER.severe("Dashboard profile call failed");
+            errorMessage = "Error loading profile";
+        }
+        if (isOk(categoryRs)) {
+            applyCategories(categoryRs.join());
+        } else {
+            LOGGER.warning("Dashboard category call failed");
+        }
+    }
+
+    private void applyProfile(HttpResponse<String> res) {
+        int code = res.statusCode();
+        String body = res.body();
+        LOGGER.info("loadProfile → status=" + code);
+
+        if (code == 200) {
+            JSONObject json = new JSONObject(body);
+            if ("SUCCESS".equals(json.optString("status"))) {
+                JSONObject admin = json.getJSONObject("admin");
+                email     = admin.optString("email");
+                firstName = admin.optString("firstname",  "");
+                lastName  = admin.optString("lastname",   "");
+                username  = admin.optString("username",   "");
+                errorMessage = null;
+                LOGGER.info("Profile loaded OK: " + email);
+            } else {
+                errorMessage = json.optString("message", "Unknown error");
+            }
+        } else if (code == 404) {
+            errorMessage = "Admin not found";
+        } else {
+            errorMessage = "Error loading profile (status " + code + ")";
+        }
+    }
+
+    private void applyCategories(HttpResponse<String> res) {
+        if (res.statusCode() != 200) {
+            LOGGER.warning("Category list → status=" + res.statusCode());
+            return;
+        }
+        JSONArray arr = new JSONObject(res.body()).optJSONArray("categories");
+        List<String> names = new ArrayList<>();
+        if (arr != null) {
+            for (int i = 0; i < arr.length(); i++) {
+                names.add(arr.getJSONObject(i).optString("name"));
+            }
+        }
+        categories = names;
+    }
+
+    private HttpRequest getRequest(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", "Bearer " + jwt)
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static boolean isOk(CompletableFuture<?> f) {
+        return f.isDone() && !f.isCompletedExceptionally();
+    }
+
     public String updateProfile() {
         LOGGER.info("Updating admin profile [" + email + "]");
         if (jwtBlank() || blank(email)) { errorMessage = "Required data missing"; return null; }
@@ -108,8 +176,7 @@ public class AdminController implements Serializable {
                     .PUT(HttpRequest.BodyPublishers.ofString(p.toString()))
                     .build();
 
-            HttpResponse<String> res = HttpClient.newHttpClient()
-                    .send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> res = apiClient.send(req);
 
             if (res.statusCode() == 200 && "SUCCESS".equals(new JSONObject(res.body()).optString("status"))) {
                 successMessage = "Profile updated successfully";
@@ -154,8 +221,7 @@ public class AdminController implements Serializable {
                     .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                     .build();
 
-            HttpResponse<String> res = HttpClient.newHttpClient()
-                    .send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> res = apiClient.send(req);
 
             if (res.statusCode() == 201 || res.statusCode() == 200) {
                 successMessage = "Admin created successfully";
@@ -187,8 +253,7 @@ public class AdminController implements Serializable {
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                     .build();
-            HttpResponse<String> res = HttpClient.newHttpClient()
-                    .send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> res = apiClient.send(req);
 
             if (res.statusCode() == 201 || res.statusCode() == 200) {
                 successMessage = "Category added successfully";
@@ -223,6 +288,7 @@ public class AdminController implements Serializable {
     public String getNewUsername()        { return newUsername; }  public void setNewUsername(String v){ newUsername=v; }
 
     public String getCategoryName()       { return categoryName; }  public void setCategoryName(String v){ categoryName=v; }
+    public List<String> getCategories()   { return categories; }
     public String getJwt()                { return jwt; }          public void setJwt(String v){ jwt=v; }
     public String getErrorMessage()       { return errorMessage; } public void setErrorMessage(String v){ errorMessage=v; }
     public String getSuccessMessage()     { return successMessage; }public void setSuccessMessage(String v){ successMessage=v; }
@@ -1,5 +1,6 @@
 package com.example.controller;
 
+import com.example.service.ApiClient;
 import com.example.service.AuthService;
 import javax.enterprise.context.RequestScoped;
 import javax.faces.context.ExternalContext;
@@ -8,9 +9,10 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Logger;
 import org.json.JSONObject;
 
@@ -23,6 +25,9 @@ public class LoginController {
     @Inject
     private AuthService authService;           
 
+    @Inject
+    private ApiClient apiClient;
+
     // ─────────────────────────────────────────────────────────
     //  Form fields
     // ─────────────────────────────────────────────────────────
@@ -56,15 +61,14 @@ public class LoginController {
                     .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
                     .build();
 
-            HttpResponse<String> response = HttpClient
-                    .newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = apiClient.send(request);
 
             int statusCode = response.statusCode();
 
             if (statusCode == 200) {
                 JSONObject responseJson = new JSONObject(response.body());
                 String jwt    = responseJson.optString("jwt", null);
+                String refreshToken = responseJson.optString("refreshToken", "");
                 String status = responseJson.optString("status", "ERROR");
 
                 if ("SUCCESS".equals(status) && jwt != null) {
@@ -73,7 +77,8 @@ public class LoginController {
                     ExternalContext ext = FacesContext.getCurrentInstance().getExternalContext();
                     /* You can adjust the landing route below to your SPA / JSF page */
                     String js = "localStorage.setItem('jwt','" + jwt + "');"
-                              + "window.location.href='https://app.prjsdr.xyz/admin?token=" + jwt + "';";
+                              + "window.location.href='https://app.prjsdr.xyz/admin?token=" + jwt
+                              + refreshFragment(refreshToken) + "';";
 
                     ext.addResponseHeader("Content-Type", "text/html; charset=UTF-8");
                     ext.getResponseOutputWriter().write("<script>" + js + "</script>");
@@ -95,6 +100,15 @@ public class LoginController {
         return null;
     }
 
+    /* Refresh token travels in the URL fragment, which browsers never send to servers or logs.
+       The SPA has each portal's refresh endpoint built in, so the URL does not carry one */
+    private static String refreshFragment(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return "";
+        }
+        return "#refreshToken=" + URLEncoder.encode(refreshToken, StandardCharsets.UTF_8);
+    }
+
     /* ───────── Getters / Setters ───────── */
     public String getEmail()            { return email; }
     public void   setEmail(String email){ this.email = email; }
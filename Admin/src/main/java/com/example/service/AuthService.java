@@ -4,7 +4,9 @@ import com.example.model.Admin;
 import com.example.util.JwtUtil;
 
 import javax.enterprise.context.ApplicationScoped;
-import javax.persistence.*;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -13,12 +15,10 @@ import java.util.logging.Logger;
 public class AuthService {
 
     private static final Logger LOGGER = Logger.getLogger(AuthService.class.getName());
-    private final EntityManager em;
 
-    public AuthService() {
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("UsersPU");
-        em = emf.createEntityManager();
-    }
+    // Request-scoped proxy: each request gets its own EntityManager and pooled connection
+    @Inject
+    private EntityManager em;
 
     public String authenticate(String email, String password) {
         LOGGER.info("Authenticating admin: " + email);
@@ -31,7 +31,7 @@ public class AuthService {
                 .setParameter("email", email.trim())
                 .getSingleResult();
 
-            if (admin != null && password.equals(admin.getPassword())) {
+            if (password.equals(admin.getPassword())) {
                 /* generate ADMIN token */
                 return JwtUtil.generateToken(admin.getId(), "ADMIN");
             }
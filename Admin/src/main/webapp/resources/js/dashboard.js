@@ -34,17 +34,17 @@ document.addEventListener('DOMContentLoaded', function() {
         }, 3000);
     }
 
-    // Set JWT in hidden field and trigger loadProfile
-    const jwtInput = document.getElementById('supportDashboard:jwt');
-    const emailInput = document.getElementById('supportDashboard:email');
-    const firstNameInput = document.getElementById('supportDashboard:firstName');
-    const lastNameInput = document.getElementById('supportDashboard:lastName');
+    // Set JWT in hidden field and trigger loadDashboard
+    const jwtInput = document.getElementById('adminDashboard:jwt');
+    const emailInput = document.getElementById('adminDashboard:email');
+    const firstNameInput = document.getElementById('adminDashboard:firstName');
+    const lastNameInput = document.getElementById('adminDashboard:lastName');
     if (jwtInput) {
         const jwt = localStorage.getItem('jwt') || '';
         jwtInput.value = jwt;
         if (jwt && (!emailInput.value || !firstNameInput.value || !lastNameInput.value)) {
-            console.log('Triggering loadProfile due to missing field values');
-            document.getElementById('supportDashboard:loadButton').click();
+            console.log('Triggering loadDashboard due to missing field values');
+            document.getElementById('adminDashboard:loadButton').click();
         } else if (!jwt) {
             showToast('Authentication token missing');
         }
@@ -1,11 +1,12 @@
 package com.example.controller;
 
+import com.example.service.ApiClient;
 import javax.enterprise.context.RequestScoped;
 import javax.faces.context.FacesContext;
+import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.logging.Logger;
@@ -24,6 +25,9 @@ public class SupportController {
     private String successMessage;
     private String jwt;
 
+    @Inject
+    private ApiClient apiClient;
+
     public void loadProfile() {
         LOGGER.info("Loading support user profile");
         if (jwt == null || jwt.trim().isEmpty()) {
@@ -33,7 +37,6 @@ public class SupportController {
         }
 
         try {
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create("https://support-api.prjsdr.xyz/api/supports/me"))
                     .header("Authorization", "Bearer " + jwt)
@@ -41,7 +44,7 @@ public class SupportController {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = apiClient.send(request);
             int statusCode = response.statusCode();
             String responseBody = response.body();
 
@@ -102,7 +105,6 @@ public class SupportController {
             payload.put("firstname", firstName);
             payload.put("lastname", lastName);
 
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create("https://support-api.prjsdr.xyz/api/supports/me"))
                     .header("Authorization", "Bearer " + jwt)
@@ -110,7 +112,7 @@ public class SupportController {
                     .PUT(HttpRequest.BodyPublishers.ofString(payload.toString()))
                     .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = apiClient.send(request);
             int statusCode = response.statusCode();
             String responseBody = response.body();
 
@@ -4,10 +4,11 @@ import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.service.ApiClient;
+import javax.enterprise.inject.spi.CDI;
 
 @ManagedBean
 @ViewScoped
@@ -38,8 +39,6 @@ public class TicketController {
                 new TicketPayload(title, description, category, content)
             );
 
-            // Create HTTP client
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create("http://localhost/tisk.php"))
                 .header("Content-Type", "application/json")
@@ -47,7 +46,7 @@ public class TicketController {
                 .build();
 
             // Send request and get response
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = apiClient().send(request);
 
             // Handle response
             if (response.statusCode() == 200 || response.statusCode() == 201) {
@@ -65,6 +64,11 @@ public class TicketController {
         }
     }
 
+    // JSF-managed bean, so the shared CDI client is looked up rather than injected
+    private static ApiClient apiClient() {
+        return CDI.current().select(ApiClient.class).get();
+    }
+
     // Helper class for JSON payload
     private static class TicketPayload {
         private String title;
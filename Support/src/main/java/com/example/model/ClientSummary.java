@@ -0,0 +1,43 @@
+package com.example.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row for the user list. Selected through a JPQL constructor expression so the
+ * listing never loads (or renders) password hashes.
+ */
+public class ClientSummary {
+    private final Long id;
+    private final String email;
+    private final String phone;
+    private final Client.Status status;
+    private final LocalDateTime lastLogin;
+
+    public ClientSummary(Long id, String email, String phone, Client.Status status, LocalDateTime lastLogin) {
+        this.id = id;
+        this.email = email;
+        this.phone = phone;
+        this.status = status;
+        this.lastLogin = lastLogin;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public Client.Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getLastLogin() {
+        return lastLogin;
+    }
+}
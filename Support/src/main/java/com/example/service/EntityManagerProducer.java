@@ -0,0 +1,53 @@
+package com.example.service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.Disposes;
+import javax.enterprise.inject.Produces;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.logging.Logger;
+
+/**
+ * Owns the single {@link EntityManagerFactory} for UsersPU and hands out one
+ * {@link EntityManager} per request. Connections come from the container pool
+ * ({@code jdbc/UsersDB}), so concurrent requests no longer share a connection.
+ */
+@ApplicationScoped
+public class EntityManagerProducer {
+
+    private static final Logger LOGGER = Logger.getLogger(EntityManagerProducer.class.getName());
+
+    private EntityManagerFactory emf;
+
+    @PostConstruct
+    void init() {
+        emf = Persistence.createEntityManagerFactory("UsersPU");
+        LOGGER.info("EntityManagerFactory for UsersPU initialised");
+    }
+
+    @Produces
+    @RequestScoped
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    public void closeEntityManager(@Disposes EntityManager em) {
+        if (em.isOpen()) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.mycompany.config;
 
-import com.mycompany.util.JwtUtil;
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.TokenDenylist;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,11 +20,16 @@ import java.util.Collections;
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         String path = request.getRequestURI();
-        if (path.equals("/api/auth/login") || path.equals("/error")) {
+        if (path.equals("/api/auth/login") || path.equals("/error")
+                || path.equals("/api/auth/refresh") || path.equals("/api/auth/logout")
+                || path.equals("/api/auth/revocations")) {
             chain.doFilter(request, response);
             return;
         }
@@ -37,6 +44,11 @@ public class JwtFilter extends OncePerRequestFilter {
             jwt = authorizationHeader.substring(7);
             try {
                 userId = JwtUtil.getUserIdFromToken(jwt);
+                if (tokenDenylist.isRevoked(JwtUtil.getTokenId(jwt))) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("{\"error\": \"JWT token has been revoked\"}");
+                    return;
+                }
                 role = JwtUtil.getRoleFromToken(jwt);
                 if (!"ADMIN".equals(role)) {
                     response.setStatus(HttpServletResponse.SC_FORBIDDEN);
@@ -1,7 +1,7 @@
 
 package com.mycompany.config;
 
-import com.mycompany.util.JwtUtil;
+import com.mycompany.auth.JwtUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,6 +12,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
@@ -23,11 +29,13 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
+            .cors().and() // The SPA refreshes and logs out from https://app.prjsdr.xyz
             .csrf().disable()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .authorizeRequests()
-                .antMatchers("/api/auth/login", "/error").permitAll()
+                .antMatchers(HttpMethod.OPTIONS, "/api/auth/**").permitAll()
+                .antMatchers("/api/auth/login", "/api/auth/refresh", "/api/auth/logout", "/api/auth/revocations", "/error").permitAll()
                 .antMatchers("/api/admin", "/api/admin/me").hasRole("ADMIN")
                 .anyRequest().authenticated()
             .and()
@@ -36,6 +44,18 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Only the token endpoints are called from the browser; the rest stay same-origin
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(Arrays.asList("https://app.prjsdr.xyz"));
+        configuration.setAllowedMethods(Arrays.asList("POST", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/auth/**", configuration);
+        return source;
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -1,7 +1,12 @@
 package com.mycompany.controller;
 
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenDenylist;
+import com.mycompany.auth.TokenPair;
 import com.mycompany.entity.Admin;
 import com.mycompany.service.AuthService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +20,9 @@ import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,17 +33,24 @@ import org.slf4j.LoggerFactory;
 public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    private static final int REVOCATION_PAGE_SIZE = 1000;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @PostMapping("/auth/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody @Valid LoginRequest request) {
         logger.debug("Processing login request for email: {}", request.getEmail());
         Map<String, Object> response = new HashMap<>();
-        String jwt = authService.authenticate(request.getEmail(), request.getPassword());
-        if (jwt != null) {
-            response.put("status", "SUCCESS");
-            response.put("jwt", jwt);
+        TokenPair tokens = authService.authenticate(request.getEmail(), request.getPassword());
+        if (tokens != null) {
+            putTokens(response, tokens);
             logger.info("Login successful for email: {}", request.getEmail());
             return ResponseEntity.ok(response);
         } else {
@@ -47,6 +61,84 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            TokenPair tokens = refreshTokenService.rotate(request.getRefreshToken());
+            putTokens(response, tokens);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Refresh rejected: {}", e.getMessage());
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) RefreshRequest request,
+                                                      @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = JwtUtil.validateToken(authorization.substring(7));
+                tokenDenylist.revoke(claims.getId(), claims.getExpiration().getTime());
+            } catch (RuntimeException e) {
+                // Already invalid or expired; nothing left to revoke
+            }
+        }
+        response.put("status", "SUCCESS");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Revocations numbered after {@code after}, for ticket-service and chat-service to
+     * mirror. Only callers holding a service token may read them.
+     */
+    @GetMapping("/auth/revocations")
+    public ResponseEntity<Map<String, Object>> revocations(@RequestParam(defaultValue = "0") long after,
+                                                           @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (!isServiceToken(authorization)) {
+            response.put("status", "ERROR");
+            response.put("message", "Service token required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        Map<Long, TokenDenylist.Revocation> page = tokenDenylist.revokedAfter(after, REVOCATION_PAGE_SIZE);
+        List<TokenDenylist.Revocation> revocations = new ArrayList<>(page.values());
+        long next = after;
+        for (Long number : page.keySet()) {
+            next = number;
+        }
+        response.put("status", "SUCCESS");
+        response.put("epoch", tokenDenylist.getEpoch());
+        response.put("next", next);
+        response.put("revocations", revocations);
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean isServiceToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        try {
+            return JwtUtil.SERVICE_ROLE.equals(JwtUtil.getRoleFromToken(authorization.substring(7)));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void putTokens(Map<String, Object> response, TokenPair tokens) {
+        response.put("status", "SUCCESS");
+        response.put("jwt", tokens.getAccessToken());
+        response.put("refreshToken", tokens.getRefreshToken());
+        response.put("expiresIn", JwtUtil.EXPIRATION_TIME / 1000);
+    }
+
     @GetMapping("/admin/me")
     public ResponseEntity<Map<String, Object>> getCurrentAdmin() {
         logger.debug("Processing getCurrentAdmin request");
@@ -116,6 +208,13 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() { return refreshToken; }
+        public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    }
+
     public static class LoginRequest {
         @NotBlank(message = "Email is required")
         @Email(message = "Email must be valid")
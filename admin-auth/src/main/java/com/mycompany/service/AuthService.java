@@ -1,8 +1,10 @@
 package com.mycompany.service;
 
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenPair;
 import com.mycompany.entity.Admin;
 import com.mycompany.repository.AdminRepository;
-import com.mycompany.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,14 +22,17 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    public String authenticate(String email, String password) {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    public TokenPair authenticate(String email, String password) {
         if (email == null || password == null || email.isBlank() || password.isBlank()) {
             return null;
         }
         Optional<Admin> adminOpt = adminRepository.findByEmail(email);
         if (adminOpt.isPresent() && passwordEncoder.matches(password, adminOpt.get().getPassword())) {
             Admin admin = adminOpt.get();
-            return jwtUtil.generateToken(admin.getId(), "ADMIN");
+            return refreshTokenService.issue(admin.getId(), "ADMIN");
         }
         return null;
     }
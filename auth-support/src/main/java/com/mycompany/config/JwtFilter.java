@@ -1,10 +1,12 @@
 package com.mycompany.config;
 
-import com.mycompany.util.JwtUtil;
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.TokenDenylist;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -21,13 +23,18 @@ import java.util.Collections;
 public class JwtFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         String path = request.getRequestURI();
         logger.debug("Processing request for path: {}", path);
 
-        if (path.equals("/api/auth/login") || path.equals("/error")) {
+        if (path.equals("/api/auth/login") || path.equals("/error")
+                || path.equals("/api/auth/refresh") || path.equals("/api/auth/logout")
+                || path.equals("/api/auth/revocations")) {
             logger.debug("Skipping JWT validation for path: {}", path);
             chain.doFilter(request, response);
             return;
@@ -43,6 +50,11 @@ public class JwtFilter extends OncePerRequestFilter {
             jwt = authorizationHeader.substring(7);
             try {
                 userId = JwtUtil.getUserIdFromToken(jwt);
+                if (tokenDenylist.isRevoked(JwtUtil.getTokenId(jwt))) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("{\"error\": \"JWT token has been revoked\"}");
+                    return;
+                }
                 role = JwtUtil.getRoleFromToken(jwt);
                 logger.debug("JWT validated: userId={}, role={}", userId, role);
                 // Only enforce ADMIN role for paths other than /api/supports/me
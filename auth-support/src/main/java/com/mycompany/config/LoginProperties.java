@@ -0,0 +1,38 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tuning for the login path: the BCrypt worker pool, its admission queue, the
+ * per-email / per-IP attempt windows and the lastLogin flush interval.
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.login")
+public class LoginProperties {
+
+    /** BCrypt worker threads; defaults to one per core since the work is CPU bound. */
+    private int hashThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Verifications allowed to wait for a worker before new logins are turned away. */
+    private int queueCapacity = 64;
+
+    private int windowSeconds = 60;
+    private int maxAttemptsPerEmail = 10;
+    private int maxAttemptsPerIp = 50;
+
+    private long lastLoginFlushMillis = 5000;
+
+    public int getHashThreads() { return hashThreads; }
+    public void setHashThreads(int hashThreads) { this.hashThreads = hashThreads; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public int getWindowSeconds() { return windowSeconds; }
+    public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
+    public int getMaxAttemptsPerEmail() { return maxAttemptsPerEmail; }
+    public void setMaxAttemptsPerEmail(int maxAttemptsPerEmail) { this.maxAttemptsPerEmail = maxAttemptsPerEmail; }
+    public int getMaxAttemptsPerIp() { return maxAttemptsPerIp; }
+    public void setMaxAttemptsPerIp(int maxAttemptsPerIp) { this.maxAttemptsPerIp = maxAttemptsPerIp; }
+    public long getLastLoginFlushMillis() { return lastLoginFlushMillis; }
+    public void setLastLoginFlushMillis(long lastLoginFlushMillis) { this.lastLoginFlushMillis = lastLoginFlushMillis; }
+}
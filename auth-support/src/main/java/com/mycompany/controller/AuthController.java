@@ -1,9 +1,20 @@
 package com.mycompany.controller;
 
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenDenylist;
+import com.mycompany.auth.TokenPair;
+import com.mycompany.dto.SupportSummaryDTO;
 import com.mycompany.entity.Support;
 import com.mycompany.service.AuthService;
-import com.mycompany.util.JwtUtil;
+import com.mycompany.service.LoginRejectedException;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,6 +24,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -21,9 +33,13 @@ import javax.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api")
@@ -31,30 +47,145 @@ import java.util.Map;
 public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    private static final int REVOCATION_PAGE_SIZE = 1000;
+
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+    private static final Set<String> DIRECTORY_SORT_FIELDS =
+            Set.of("id", "email", "firstname", "lastname", "categoryId", "workload");
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @PostMapping("/auth/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody @Valid LoginRequest request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody @Valid LoginRequest request,
+                                                                        HttpServletRequest httpRequest) {
         logger.debug("Processing login request for email: {}", request.getEmail());
+        String email = request.getEmail();
+        CompletableFuture<TokenPair> result;
+        try {
+            result = authService.authenticate(email, request.getPassword(), httpRequest.getRemoteAddr());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // The request thread is released while the password is checked on the hashing pool
+        return result.handle((tokens, error) -> loginResponse(email, tokens, error));
+    }
+
+    private ResponseEntity<Map<String, Object>> loginResponse(String email, TokenPair tokens, Throwable error) {
         Map<String, Object> response = new HashMap<>();
-        String jwt = authService.authenticate(request.getEmail(), request.getPassword());
-        if (jwt != null) {
-            response.put("status", "SUCCESS");
-            response.put("jwt", jwt);
-            logger.info("Login successful for email: {}", request.getEmail());
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null && tokens != null) {
+            putTokens(response, tokens);
+            logger.info("Login successful for email: {}", email);
             return ResponseEntity.ok(response);
-        } else {
+        }
+        response.put("status", "ERROR");
+        if (cause instanceof LoginRejectedException) {
+            response.put("message", cause.getMessage());
+            logger.warn("Login rejected for email {}: {}", email, cause.getMessage());
+            if (((LoginRejectedException) cause).isOverloaded()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body(response);
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        }
+        if (cause != null) {
+            logger.error("Login failed for email {}: {}", email, cause.getMessage());
+            response.put("message", "Login failed");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+        response.put("message", "Invalid email or password");
+        logger.warn("Login failed for email: {}", email);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
+
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            TokenPair tokens = refreshTokenService.rotate(request.getRefreshToken());
+            putTokens(response, tokens);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Refresh rejected: {}", e.getMessage());
             response.put("status", "ERROR");
-            response.put("message", "Invalid email or password");
-            logger.warn("Login failed for email: {}", request.getEmail());
+            response.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
     }
 
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) RefreshRequest request,
+                                                      @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = JwtUtil.validateToken(authorization.substring(7));
+                tokenDenylist.revoke(claims.getId(), claims.getExpiration().getTime());
+            } catch (RuntimeException e) {
+                // Already invalid or expired; nothing left to revoke
+            }
+        }
+        response.put("status", "SUCCESS");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Revocations numbered after {@code after}, for ticket-service and chat-service to
+     * mirror. Only callers holding a service token may read them.
+     */
+    @GetMapping("/auth/revocations")
+    public ResponseEntity<Map<String, Object>> revocations(@RequestParam(defaultValue = "0") long after,
+                                                           @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (!isServiceToken(authorization)) {
+            response.put("status", "ERROR");
+            response.put("message", "Service token required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        Map<Long, TokenDenylist.Revocation> page = tokenDenylist.revokedAfter(after, REVOCATION_PAGE_SIZE);
+        List<TokenDenylist.Revocation> revocations = new ArrayList<>(page.values());
+        long next = after;
+        for (Long number : page.keySet()) {
+            next = number;
+        }
+        response.put("status", "SUCCESS");
+        response.put("epoch", tokenDenylist.getEpoch());
+        response.put("next", next);
+        response.put("revocations", revocations);
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean isServiceToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        try {
+            return JwtUtil.SERVICE_ROLE.equals(JwtUtil.getRoleFromToken(authorization.substring(7)));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void putTokens(Map<String, Object> response, TokenPair tokens) {
+        response.put("status", "SUCCESS");
+        response.put("jwt", tokens.getAccessToken());
+        response.put("refreshToken", tokens.getRefreshToken());
+        response.put("expiresIn", JwtUtil.EXPIRATION_TIME / 1000);
+    }
+
     @GetMapping("/supports/me")
     public ResponseEntity<Map<String, Object>> getCurrentSupport() {
         logger.debug("Processing getCurrentSupport request");
@@ -93,15 +224,42 @@ public class AuthController {
     }
 
     @GetMapping("/supports")
-    public ResponseEntity<Map<String, Object>> getAllSupports() {
-        logger.debug("Processing getAllSupports request");
+    public ResponseEntity<Map<String, Object>> getAllSupports(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer minWorkload,
+            @RequestParam(required = false) Integer maxWorkload) {
+        logger.debug("Processing getAllSupports request page={} size={} sort={}", page, size, sort);
         Map<String, Object> response = new HashMap<>();
+        if (!DIRECTORY_SORT_FIELDS.contains(sort)) {
+            response.put("status", "ERROR");
+            response.put("message", "Unsupported sort field: " + sort);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
         try {
-            List<Support> supports = authService.findAllSupports();
+            Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort order = Sort.by(dir, sort);
+            if (!"id".equals(sort)) {
+                order = order.and(Sort.by(Sort.Direction.ASC, "id"));
+            }
+            Pageable pageable = PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), MAX_DIRECTORY_PAGE_SIZE), order);
+            Page<SupportSummaryDTO> supports = authService.findSupportDirectory(categoryId, active, minWorkload, maxWorkload, pageable);
             response.put("status", "SUCCESS");
-            response.put("supports", supports);
-            logger.info("Retrieved {} support users", supports.size());
+            response.put("supports", supports.getContent());
+            response.put("page", supports.getNumber());
+            response.put("size", supports.getSize());
+            response.put("totalElements", supports.getTotalElements());
+            response.put("totalPages", supports.getTotalPages());
+            logger.info("Retrieved {} of {} support users", supports.getNumberOfElements(), supports.getTotalElements());
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
             response.put("status", "ERROR");
             response.put("message", "Failed to retrieve support users");
@@ -296,6 +454,13 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() { return refreshToken; }
+        public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    }
+
     public static class LoginRequest {
         @NotBlank(message = "Email is required")
         @Email(message = "Email must be valid")
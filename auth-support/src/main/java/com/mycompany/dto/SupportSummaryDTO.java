@@ -0,0 +1,34 @@
+package com.mycompany.dto;
+
+/**
+ * Slim directory row for a support agent, selected with a JPQL constructor expression so
+ * listing agents never loads credentials or unused columns.
+ */
+public class SupportSummaryDTO {
+    private final Long id;
+    private final String email;
+    private final String firstname;
+    private final String lastname;
+    private final Long categoryId;
+    private final boolean active;
+    private final int workload;
+
+    public SupportSummaryDTO(Long id, String email, String firstname, String lastname,
+                             Long categoryId, boolean active, int workload) {
+        this.id = id;
+        this.email = email;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.categoryId = categoryId;
+        this.active = active;
+        this.workload = workload;
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getFirstname() { return firstname; }
+    public String getLastname() { return lastname; }
+    public Long getCategoryId() { return categoryId; }
+    public boolean isActive() { return active; }
+    public int getWorkload() { return workload; }
+}
@@ -3,11 +3,19 @@ package com.mycompany.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "support")
+@Table(name = "support", indexes = {
+    // Serves the directory filters and the least-loaded-agent lookup per category
+    @Index(name = "idx_support_category_active_workload", columnList = "category_id, active, workload"),
+    @Index(name = "idx_support_active_workload", columnList = "active, workload")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "supports")
 public class Support {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
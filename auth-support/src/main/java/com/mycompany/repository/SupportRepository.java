@@ -1,7 +1,12 @@
 package com.mycompany.repository;
 
+import com.mycompany.dto.SupportSummaryDTO;
 import com.mycompany.entity.Support;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +15,20 @@ public interface SupportRepository extends JpaRepository<Support, Long> {
     Optional<Support> findByEmail(String email);
     boolean existsByEmail(String email);
     List<Support> findByCategoryIdAndActiveTrueOrderByWorkloadAsc(Long categoryId);
+
+    // Null filters are folded away by MySQL because Connector/J inlines the parameters
+    @Query(value = "SELECT new com.mycompany.dto.SupportSummaryDTO(s.id, s.email, s.firstname, s.lastname, "
+            + "s.categoryId, s.active, s.workload) FROM Support s "
+            + "WHERE (:categoryId IS NULL OR s.categoryId = :categoryId) "
+            + "AND (:active IS NULL OR s.active = :active) "
+            + "AND s.workload BETWEEN :minWorkload AND :maxWorkload",
+           countQuery = "SELECT COUNT(s) FROM Support s "
+            + "WHERE (:categoryId IS NULL OR s.categoryId = :categoryId) "
+            + "AND (:active IS NULL OR s.active = :active) "
+            + "AND s.workload BETWEEN :minWorkload AND :maxWorkload")
+    Page<SupportSummaryDTO> findDirectory(@Param("categoryId") Long categoryId,
+                                         @Param("active") Boolean active,
+                                         @Param("minWorkload") int minWorkload,
+                                         @Param("maxWorkload") int maxWorkload,
+                                         Pageable pageable);
 }
\ No newline at end of file
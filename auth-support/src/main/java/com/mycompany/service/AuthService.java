@@ -1,14 +1,23 @@
 package com.mycompany.service;
 
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenPair;
+import com.mycompany.dto.SupportSummaryDTO;
 import com.mycompany.entity.Support;
 import com.mycompany.repository.SupportRepository;
-import com.mycompany.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
@@ -21,25 +30,66 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    public String authenticate(String email, String password) {
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // Checked when the email is unknown so both outcomes cost one BCrypt verification
+    private String unknownUserHash;
+
+    @PostConstruct
+    public void init() {
+        unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Verifies the credentials on the hashing pool. Completes with the access and
+     * refresh tokens, or with
+     * {@code null} when the credentials do not match.
+     */
+    public CompletableFuture<TokenPair> authenticate(String email, String password, String clientIp) {
         if (email == null || password == null || email.isBlank() || password.isBlank()) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
+        loginThrottle.check(email, clientIp);
         Optional<Support> supportOpt = supportRepository.findByEmail(email);
-        if (supportOpt.isPresent() && passwordEncoder.matches(password, supportOpt.get().getPassword())) {
+        String hash = supportOpt.map(Support::getPassword).orElse(unknownUserHash);
+        return passwordVerifier.matches(password, hash).thenApply(matches -> {
+            if (!matches || supportOpt.isEmpty()) {
+                loginThrottle.recordFailure(email);
+                return null;
+            }
+            loginThrottle.recordSuccess(email);
             Support support = supportOpt.get();
-            return jwtUtil.generateToken(support.getId(), "SUPPORT");
-        }
-        return null;
+            lastLoginRecorder.record(support.getId());
+            return refreshTokenService.issue(support.getId(), "SUPPORT");
+        });
     }
 
+    @Transactional(readOnly = true)
     public Support findSupportById(Long id) {
         return supportRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Support user not found"));
     }
 
-    public List<Support> findAllSupports() {
-        return supportRepository.findAll();
+    @Transactional(readOnly = true)
+    public Page<SupportSummaryDTO> findSupportDirectory(Long categoryId, Boolean active,
+                                                        Integer minWorkload, Integer maxWorkload,
+                                                        Pageable pageable) {
+        int min = minWorkload != null ? minWorkload : 0;
+        int max = maxWorkload != null ? maxWorkload : Integer.MAX_VALUE;
+        if (min > max) {
+            throw new IllegalArgumentException("minWorkload must not exceed maxWorkload");
+        }
+        return supportRepository.findDirectory(categoryId, active, min, max, pageable);
     }
 
     public Support createSupport(Support support) {
@@ -50,6 +100,7 @@ public class AuthService {
         return supportRepository.save(support);
     }
 
+    @Transactional
     public Support updateSupport(Long id, Support updatedSupport) {
         Support existingSupport = supportRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Support user not found"));
@@ -72,6 +123,7 @@ public class AuthService {
         return supportRepository.save(existingSupport);
     }
 
+    @Transactional
     public void deleteSupport(Long id) {
         if (!supportRepository.existsById(id)) {
             throw new IllegalArgumentException("Support user not found");
@@ -88,6 +140,7 @@ public class AuthService {
         return selectedSupport.getId();
     }
 
+    @Transactional
     public void updateSupportWorkload(Long supportTeamId, Long activeTickets) {
         Support support = supportRepository.findById(supportTeamId)
                 .orElseThrow(() -> new IllegalArgumentException("Support team not found with ID: " + supportTeamId));
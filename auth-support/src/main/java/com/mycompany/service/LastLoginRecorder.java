@@ -0,0 +1,100 @@
+package com.mycompany.service;
+
+import com.mycompany.entity.Support;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects successful logins and writes their lastLogin in one UPDATE per flush instead of
+ * one save per request. The stored value is the flush time, so it can trail the actual
+ * login by up to {@code auth.login.last-login-flush-millis}. The UPDATE is native SQL
+ * registered against no cached table, so Hibernate leaves the supports cache region alone;
+ * only the flushed accounts are evicted from it afterwards.
+ */
+@Component
+public class LastLoginRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final int MAX_IDS_PER_UPDATE = 500;
+
+    // Query space of the lastLogin UPDATE; matches no entity, so no region is cleared wholesale
+    private static final String LAST_LOGIN_SPACE = "last_login_flush";
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public void record(Long id) {
+        if (id != null) {
+            pending.add(id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.last-login-flush-millis:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>();
+        Iterator<Long> it = pending.iterator();
+        while (it.hasNext()) {
+            batch.add(it.next());
+            it.remove();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (int from = 0; from < batch.size(); from += MAX_IDS_PER_UPDATE) {
+                List<Long> chunk = batch.subList(from, Math.min(batch.size(), from + MAX_IDS_PER_UPDATE));
+                updateLastLogin(chunk, now);
+            }
+            logger.debug("Flushed lastLogin for {} accounts", batch.size());
+        } catch (Exception e) {
+            // Keep the ids so the next flush retries them
+            pending.addAll(batch);
+            logger.warn("Failed to flush lastLogin updates: {}", e.getMessage());
+        }
+    }
+
+    private void updateLastLogin(List<Long> ids, LocalDateTime lastLogin) {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createNativeQuery("UPDATE support SET last_login = :lastLogin WHERE id IN (:ids)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(LAST_LOGIN_SPACE)
+                .setParameter("lastLogin", lastLogin)
+                .setParameterList("ids", ids)
+                .executeUpdate());
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Support.class, id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mycompany.service;
+
+/**
+ * Thrown when a login attempt is refused before its password is checked, either because
+ * the caller exceeded its attempt window or because the hashing pool is saturated.
+ */
+public class LoginRejectedException extends RuntimeException {
+    private final boolean overloaded;
+
+    public LoginRejectedException(String message, boolean overloaded) {
+        super(message);
+        this.overloaded = overloaded;
+    }
+
+    /** {@code true} when the service is busy, {@code false} when the caller is being throttled. */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mycompany.service;
+
+import com.mycompany.config.LoginProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding-window attempt limits per email and per client IP. Checked before any database
+ * or hashing work so a credential-stuffing burst is cut off cheaply. The per-IP window
+ * counts every attempt; the per-email window counts only failed ones, so knowing someone's
+ * email is not enough to lock them out, and a successful login clears it.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Map<String, Deque<Long>> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    private LoginProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void check(String email, String clientIp) {
+        long now = System.nanoTime();
+        if (email != null && countRecent(emailKey(email), now) >= properties.getMaxAttemptsPerEmail()) {
+            meterRegistry.counter("auth.login.rejected", "reason", "email").increment();
+            throw new LoginRejectedException("Too many login attempts for this account, please wait", false);
+        }
+        if (clientIp != null && !tryAcquire("ip:" + clientIp, properties.getMaxAttemptsPerIp(), now)) {
+            meterRegistry.counter("auth.login.rejected", "reason", "ip").increment();
+            throw new LoginRejectedException("Too many login attempts, please wait", false);
+        }
+    }
+
+    public void recordFailure(String email) {
+        if (email == null) {
+            return;
+        }
+        Deque<Long> failures = windows.computeIfAbsent(emailKey(email), k -> new ArrayDeque<>());
+        synchronized (failures) {
+            failures.addLast(System.nanoTime());
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            windows.remove(emailKey(email));
+        }
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int countRecent(String key, long now) {
+        Deque<Long> attempts = windows.get(key);
+        if (attempts == null) {
+            return 0;
+        }
+        synchronized (attempts) {
+            prune(attempts, now);
+            return attempts.size();
+        }
+    }
+
+    private boolean tryAcquire(String key, int limit, long now) {
+        Deque<Long> attempts = windows.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (attempts) {
+            prune(attempts, now);
+            if (attempts.size() >= limit) {
+                return false;
+            }
+            attempts.addLast(now);
+            return true;
+        }
+    }
+
+    private void prune(Deque<Long> attempts, long now) {
+        long windowStart = now - TimeUnit.SECONDS.toNanos(properties.getWindowSeconds());
+        while (!attempts.isEmpty() && attempts.peekFirst() < windowStart) {
+            attempts.pollFirst();
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long windowStart = System.nanoTime() - TimeUnit.SECONDS.toNanos(properties.getWindowSeconds());
+        windows.entrySet().removeIf(entry -> {
+            Deque<Long> attempts = entry.getValue();
+            synchronized (attempts) {
+                Long last = attempts.peekLast();
+                return last == null || last < windowStart;
+            }
+        });
+    }
+}
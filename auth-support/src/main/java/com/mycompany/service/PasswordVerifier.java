@@ -0,0 +1,89 @@
+package com.mycompany.service;
+
+import com.mycompany.config.LoginProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt checks on a small dedicated pool so a login storm cannot occupy every
+ * Tomcat thread. The pool's queue is bounded: once it is full, new verifications are
+ * refused immediately instead of piling up behind work that will time out anyway.
+ */
+@Service
+public class PasswordVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoginProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Timer queueWaitTimer;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, properties.getHashThreads());
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        hashTimer = Timer.builder("auth.login.hash")
+                .description("Time spent verifying a password hash")
+                .register(meterRegistry);
+        queueWaitTimer = Timer.builder("auth.login.queue.wait")
+                .description("Time a verification waited for a hashing thread")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.login.queue.depth", executor, e -> e.getQueue().size());
+        logger.info("Password verification pool started with {} threads, queue capacity {}",
+                threads, properties.getQueueCapacity());
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        long enqueued = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                queueWaitTimer.record(started - enqueued, TimeUnit.NANOSECONDS);
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    hashTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.login.rejected", "reason", "busy").increment();
+            throw new LoginRejectedException("Login service is busy, please retry shortly", true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,23 @@
+package com.mycompany.auth;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers the token beans in each auth service. They are declared here instead of being
+ * annotated as components because the fast-start profile replaces classpath scanning with a
+ * build-time index that lists only the service's own classes.
+ */
+@AutoConfiguration
+public class AuthTokensAutoConfiguration {
+
+    @Bean
+    public TokenDenylist tokenDenylist() {
+        return new TokenDenylist();
+    }
+
+    @Bean
+    public RefreshTokenService refreshTokenService() {
+        return new RefreshTokenService();
+    }
+}
@@ -1,4 +1,4 @@
-package com.mycompany.util;
+package com.mycompany.auth;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
@@ -9,12 +9,16 @@ import javax.crypto.spec.SecretKeySpec;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 public class JwtUtil {
 
     // Mock secret key (in production, store this in application.properties or a secure vault)
     private static final String SECRET_KEY = "your-very-long-and-secure-secret-key-here-32bytes!";
-    private static final long EXPIRATION_TIME = 86400000; // 24 hours in milliseconds
+    // Access tokens are short-lived; clients renew them through /api/auth/refresh
+    public static final long EXPIRATION_TIME = 900000; // 15 minutes in milliseconds
+    // Role of tokens that services mint for calls to each other
+    public static final String SERVICE_ROLE = "SERVICE";
 
     // Use SecretKeySpec for consistent key handling
     private static final SecretKeySpec SIGNING_KEY = new SecretKeySpec(
@@ -23,6 +27,11 @@ public class JwtUtil {
 
     // Generate a mock JWT for testing
     public static String generateToken(Long userId, String role) {
+        return generateToken(userId, role, UUID.randomUUID().toString());
+    }
+
+    // The token id (jti) is what logout and refresh-token reuse detection revoke
+    public static String generateToken(Long userId, String role, String tokenId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
@@ -30,6 +39,7 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(String.valueOf(userId))
+                .setId(tokenId)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SignatureAlgorithm.HS256, SIGNING_KEY)
@@ -60,4 +70,9 @@ public class JwtUtil {
         Claims claims = validateToken(token);
         return claims.get("role").toString();
     }
+
+    // Extract token id (jti) from JWT
+    public static String getTokenId(String token) {
+        return validateToken(token).getId();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.mycompany.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Issues and rotates refresh tokens. Tokens are random opaque strings; only their SHA-256
+ * digest is stored, so renewing an access token is a single map lookup instead of a BCrypt
+ * check. Each refresh token is single use: presenting one that was already rotated is
+ * treated as theft and revokes the whole login (every refresh token in the family plus its
+ * current access token). Only the latest {@code auth.refresh.reuse-window} rotated tokens of
+ * a family are remembered for that check, so the store holds a bounded number of entries per
+ * login rather than one per refresh over the whole refresh-token lifetime.
+ */
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+
+    @Value("${auth.refresh.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${auth.refresh.reuse-window:3}")
+    private int reuseWindow;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    public TokenPair issue(Long userId, String role) {
+        return issue(new Family(userId, role));
+    }
+
+    public TokenPair rotate(String refreshToken) {
+        Entry entry = refreshToken == null ? null : tokens.get(digest(refreshToken));
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis() || entry.family.revoked) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+        if (!entry.used.compareAndSet(false, true)) {
+            revokeFamily(entry.family);
+            throw new IllegalArgumentException("Refresh token reuse detected; please log in again");
+        }
+        return issue(entry.family);
+    }
+
+    public void revoke(String refreshToken) {
+        Entry entry = refreshToken == null ? null : tokens.get(digest(refreshToken));
+        if (entry != null) {
+            revokeFamily(entry.family);
+        }
+    }
+
+    private TokenPair issue(Family family) {
+        String accessId = UUID.randomUUID().toString();
+        String accessToken = JwtUtil.generateToken(family.userId, family.role, accessId);
+        family.accessId = accessId;
+        family.accessExpiresAt = System.currentTimeMillis() + JwtUtil.EXPIRATION_TIME;
+
+        byte[] raw = new byte[32];
+        RANDOM.nextBytes(raw);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        String hash = digest(refreshToken);
+        tokens.put(hash, new Entry(family, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours)));
+        synchronized (family) {
+            family.tokenHashes.addLast(hash);
+            // Everything before the newest token has been rotated; keep only the most recent ones
+            while (family.tokenHashes.size() > reuseWindow + 1) {
+                tokens.remove(family.tokenHashes.pollFirst());
+            }
+        }
+        return new TokenPair(accessToken, refreshToken);
+    }
+
+    private void revokeFamily(Family family) {
+        family.revoked = true;
+        synchronized (family) {
+            family.tokenHashes.forEach(tokens::remove);
+            family.tokenHashes.clear();
+        }
+        tokenDenylist.revoke(family.accessId, family.accessExpiresAt);
+    }
+
+    @Scheduled(fixedDelay = 300000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tokens.entrySet().removeIf(e -> {
+            if (e.getValue().expiresAt > now) {
+                return false;
+            }
+            Family family = e.getValue().family;
+            synchronized (family) {
+                family.tokenHashes.remove(e.getKey());
+            }
+            return true;
+        });
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Family {
+        final Long userId;
+        final String role;
+        // Oldest first; guarded by the family
+        final Deque<String> tokenHashes = new ArrayDeque<>();
+        volatile boolean revoked;
+        volatile String accessId;
+        volatile long accessExpiresAt;
+
+        Family(Long userId, String role) {
+            this.userId = userId;
+            this.role = role;
+        }
+    }
+
+    private static final class Entry {
+        final Family family;
+        final long expiresAt;
+        final AtomicBoolean used = new AtomicBoolean();
+
+        Entry(Family family, long expiresAt) {
+            this.family = family;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mycompany.auth;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Revoked access-token ids ({@code jti}) kept until the token would have expired anyway.
+ * Every authenticated request is checked, so the common "not revoked" answer comes from a
+ * Bloom filter and only possible hits fall through to the exact map.
+ *
+ * Revocations are also numbered in a log that ticket-service and chat-service poll through
+ * {@code GET /api/auth/revocations}, so a revoked token stops working there too. The log
+ * lives in memory; {@link #getEpoch()} changes on restart so pollers know to start over.
+ */
+public class TokenDenylist {
+    private static final int EXPECTED_REVOCATIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(EXPECTED_REVOCATIONS, FALSE_POSITIVE_RATE);
+
+    private final long epoch = System.currentTimeMillis();
+    private long sequence;
+    private final ConcurrentNavigableMap<Long, Revocation> log = new ConcurrentSkipListMap<>();
+
+    public synchronized void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.put(tokenId, expiresAtMillis) == null) {
+            log.put(++sequence, new Revocation(tokenId, expiresAtMillis));
+        }
+        filter.add(tokenId);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /** Up to {@code limit} revocations numbered after {@code after}, oldest first, keyed by number. */
+    public Map<Long, Revocation> revokedAfter(long after, int limit) {
+        Map<Long, Revocation> page = new LinkedHashMap<>();
+        for (Map.Entry<Long, Revocation> entry : log.tailMap(after, false).entrySet()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.put(entry.getKey(), entry.getValue());
+        }
+        return page;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    // Bloom filters cannot delete, so expired ids are dropped by rebuilding the filter
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        log.values().removeIf(revocation -> revocation.getExpiresAt() <= now);
+        if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(EXPECTED_REVOCATIONS, FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    public static final class Revocation {
+        private final String jti;
+        private final long expiresAt;
+
+        Revocation(String jti, long expiresAt) {
+            this.jti = jti;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getJti() { return jti; }
+        public long getExpiresAt() { return expiresAt; }
+    }
+}
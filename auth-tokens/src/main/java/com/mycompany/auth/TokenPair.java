@@ -0,0 +1,17 @@
+package com.mycompany.auth;
+
+/**
+ * A short-lived access JWT together with the opaque refresh token that can renew it.
+ */
+public class TokenPair {
+    private final String accessToken;
+    private final String refreshToken;
+
+    public TokenPair(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    public String getAccessToken() { return accessToken; }
+    public String getRefreshToken() { return refreshToken; }
+}
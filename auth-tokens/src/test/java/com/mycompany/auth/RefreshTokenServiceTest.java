@@ -0,0 +1,66 @@
+package com.mycompany.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshTokenServiceTest {
+
+    private final TokenDenylist denylist = new TokenDenylist();
+    private final RefreshTokenService service = new RefreshTokenService();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        set("ttlHours", 1L);
+        set("reuseWindow", 3);
+        set("tokenDenylist", denylist);
+    }
+
+    @Test
+    void rotationIssuesANewPairForTheSameUser() {
+        TokenPair first = service.issue(7L, "CLIENT");
+
+        TokenPair second = service.rotate(first.getRefreshToken());
+
+        assertNotEquals(first.getRefreshToken(), second.getRefreshToken());
+        assertEquals(7L, JwtUtil.getUserIdFromToken(second.getAccessToken()));
+        assertEquals("CLIENT", JwtUtil.getRoleFromToken(second.getAccessToken()));
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheLogin() {
+        TokenPair first = service.issue(7L, "CLIENT");
+        TokenPair second = service.rotate(first.getRefreshToken());
+
+        assertThrows(IllegalArgumentException.class, () -> service.rotate(first.getRefreshToken()));
+
+        assertTrue(denylist.isRevoked(JwtUtil.getTokenId(second.getAccessToken())));
+        assertThrows(IllegalArgumentException.class, () -> service.rotate(second.getRefreshToken()));
+    }
+
+    @Test
+    void tokensOutsideTheReuseWindowAreForgotten() {
+        TokenPair oldest = service.issue(7L, "CLIENT");
+        TokenPair latest = oldest;
+        for (int i = 0; i < 5; i++) {
+            latest = service.rotate(latest.getRefreshToken());
+        }
+
+        // Too old to be recognised, so it cannot revoke the login either
+        assertThrows(IllegalArgumentException.class, () -> service.rotate(oldest.getRefreshToken()));
+        assertFalse(denylist.isRevoked(JwtUtil.getTokenId(latest.getAccessToken())));
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = RefreshTokenService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
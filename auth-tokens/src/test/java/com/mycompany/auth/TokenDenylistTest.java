@@ -0,0 +1,55 @@
+package com.mycompany.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenylistTest {
+
+    private final TokenDenylist denylist = new TokenDenylist();
+
+    @Test
+    void revokedIdsAreDeniedUntilTheyExpire() {
+        long now = System.currentTimeMillis();
+        denylist.revoke("live", now + 60_000);
+        denylist.revoke("expired", now - 1);
+
+        assertTrue(denylist.isRevoked("live"));
+        assertFalse(denylist.isRevoked("expired"));
+        assertFalse(denylist.isRevoked("other"));
+        assertFalse(denylist.isRevoked(null));
+    }
+
+    @Test
+    void revocationsArePagedInOrder() {
+        long later = System.currentTimeMillis() + 60_000;
+        denylist.revoke("a", later);
+        denylist.revoke("b", later);
+        denylist.revoke("a", later);
+        denylist.revoke("c", later);
+
+        assertEquals(3, denylist.getSequence());
+        Map<Long, TokenDenylist.Revocation> page = denylist.revokedAfter(1, 1);
+        assertEquals(1, page.size());
+        assertEquals("b", page.get(2L).getJti());
+        assertEquals("c", denylist.revokedAfter(2, 10).get(3L).getJti());
+    }
+
+    @Test
+    void purgeKeepsUnexpiredRevocations() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        denylist.revoke("short", now + 20);
+        denylist.revoke("long", now + 60_000);
+        Thread.sleep(40);
+
+        denylist.purgeExpired();
+
+        assertFalse(denylist.isRevoked("short"));
+        assertTrue(denylist.isRevoked("long"));
+        assertEquals(1, denylist.revokedAfter(0, 10).size());
+    }
+}
@@ -0,0 +1,20 @@
+package com.mycompany.config;
+
+import com.mycompany.cache.EntityCacheProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Regions of the Hibernate second-level cache, bound from {@code auth.cache.regions.*}. The
+ * entity-cache module builds the cache manager from them and hands it to Hibernate.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "auth.cache")
+    public EntityCacheProperties entityCacheProperties() {
+        return new EntityCacheProperties();
+    }
+}
@@ -1,6 +1,6 @@
 package com.mycompany.config;
 
-import com.mycompany.util.JwtUtil;
+import com.mycompany.auth.JwtUtil;
 import io.jsonwebtoken.Claims;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.http.server.ServerHttpRequest;
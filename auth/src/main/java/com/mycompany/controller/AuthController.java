@@ -1,36 +1,155 @@
 package com.mycompany.controller;
 
+import com.mycompany.auth.JwtUtil;
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenDenylist;
+import com.mycompany.auth.TokenPair;
 import com.mycompany.entity.Client;
 import com.mycompany.service.AuthService;
+import com.mycompany.service.LoginRejectedException;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api")
 public class AuthController {
+    private static final int REVOCATION_PAGE_SIZE = 1000;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @PostMapping("/auth/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody LoginRequest request,
+                                                                        HttpServletRequest httpRequest) {
+        CompletableFuture<TokenPair> result;
+        try {
+            result = authService.authenticate(request.getEmail(), request.getPassword(), httpRequest.getRemoteAddr());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // The request thread is released while the password is checked on the hashing pool
+        return result.handle(this::loginResponse);
+    }
+
+    private ResponseEntity<Map<String, Object>> loginResponse(TokenPair tokens, Throwable error) {
         Map<String, Object> response = new HashMap<>();
-        String jwt = authService.authenticate(request.getEmail(), request.getPassword());
-        if (jwt != null) {
-            response.put("status", "SUCCESS");
-            response.put("jwt", jwt);
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null && tokens != null) {
+            putTokens(response, tokens);
             return ResponseEntity.ok(response);
-        } else {
-            response.put("status", "ERROR");
+        }
+        response.put("status", "ERROR");
+        if (cause instanceof LoginRejectedException) {
+            response.put("message", cause.getMessage());
+            if (((LoginRejectedException) cause).isOverloaded()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body(response);
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        }
+        if (cause == null || cause instanceof IllegalArgumentException) {
             response.put("message", "Invalid email or password");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
+        response.put("message", "Login failed");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            TokenPair tokens = refreshTokenService.rotate(request.getRefreshToken());
+            putTokens(response, tokens);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) RefreshRequest request,
+                                                      @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = JwtUtil.validateToken(authorization.substring(7));
+                tokenDenylist.revoke(claims.getId(), claims.getExpiration().getTime());
+            } catch (RuntimeException e) {
+                // Already invalid or expired; nothing left to revoke
+            }
+        }
+        response.put("status", "SUCCESS");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Revocations numbered after {@code after}, for ticket-service and chat-service to
+     * mirror. Only callers holding a service token may read them.
+     */
+    @GetMapping("/auth/revocations")
+    public ResponseEntity<Map<String, Object>> revocations(@RequestParam(defaultValue = "0") long after,
+                                                           @RequestHeader(value = "Authorization", required = false) String authorization) {
+        Map<String, Object> response = new HashMap<>();
+        if (!isServiceToken(authorization)) {
+            response.put("status", "ERROR");
+            response.put("message", "Service token required");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        Map<Long, TokenDenylist.Revocation> page = tokenDenylist.revokedAfter(after, REVOCATION_PAGE_SIZE);
+        List<TokenDenylist.Revocation> revocations = new ArrayList<>(page.values());
+        long next = after;
+        for (Long number : page.keySet()) {
+            next = number;
+        }
+        response.put("status", "SUCCESS");
+        response.put("epoch", tokenDenylist.getEpoch());
+        response.put("next", next);
+        response.put("revocations", revocations);
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean isServiceToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        try {
+            return JwtUtil.SERVICE_ROLE.equals(JwtUtil.getRoleFromToken(authorization.substring(7)));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void putTokens(Map<String, Object> response, TokenPair tokens) {
+        response.put("status", "SUCCESS");
+        response.put("jwt", tokens.getAccessToken());
+        response.put("refreshToken", tokens.getRefreshToken());
+        response.put("expiresIn", JwtUtil.EXPIRATION_TIME / 1000);
     }
 
     @GetMapping("/clients/me")
@@ -80,6 +199,13 @@ public class AuthController {
         }
     }
 
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() { return refreshToken; }
+        public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    }
+
     public static class LoginRequest {
         private String email;
         private String password;
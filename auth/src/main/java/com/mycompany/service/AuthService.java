@@ -1,13 +1,17 @@
 package com.mycompany.service;
 
+import com.mycompany.auth.RefreshTokenService;
+import com.mycompany.auth.TokenPair;
 import com.mycompany.entity.Client;
 import com.mycompany.repository.ClientRepository;
-import com.mycompany.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
@@ -17,16 +21,43 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public String authenticate(String email, String password) {
-        Client client = clientRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
-        if (passwordEncoder.matches(password, client.getPassword())) {
-            // Update last_login on successful login
-            client.setLastLogin(LocalDateTime.now());
-            clientRepository.save(client);
-            return JwtUtil.generateToken(client.getId(), "CLIENT");
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // Checked when the email is unknown so both outcomes cost one BCrypt verification
+    private String unknownUserHash;
+
+    @PostConstruct
+    public void init() {
+        unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    public CompletableFuture<TokenPair> authenticate(String email, String password, String clientIp) {
+        if (email == null || password == null) {
+            throw new IllegalArgumentException("Invalid email or password");
         }
-        throw new IllegalArgumentException("Invalid email or password");
+        loginThrottle.check(email, clientIp);
+        Optional<Client> found = clientRepository.findByEmail(email);
+        String hash = found.map(Client::getPassword).orElse(unknownUserHash);
+        return passwordVerifier.matches(password, hash).thenApply(matches -> {
+            if (!matches || found.isEmpty()) {
+                loginThrottle.recordFailure(email);
+                throw new IllegalArgumentException("Invalid email or password");
+            }
+            loginThrottle.recordSuccess(email);
+            Client client = found.get();
+            lastLoginRecorder.record(client.getId());
+            return refreshTokenService.issue(client.getId(), "CLIENT");
+        });
     }
 
     public Client findClientById(Long id) {
@@ -0,0 +1,127 @@
+package com.mycompany.service;
+
+import com.mycompany.cache.EntityCacheAutoConfiguration;
+import com.mycompany.cache.EntityCacheProperties;
+import com.mycompany.entity.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LastLoginRecorderTest {
+
+    private final EntityCacheAutoConfiguration cacheConfiguration = new EntityCacheAutoConfiguration();
+
+    private CacheManager cacheManager;
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
+    private LastLoginRecorder recorder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // The clients region as application.properties declares it, on an in-memory database
+        EntityCacheProperties properties = new EntityCacheProperties();
+        properties.getRegions().put("clients", new EntityCacheProperties.Region());
+        cacheManager = cacheConfiguration.entityCacheManager(properties);
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.put("hibernate.cache.use_second_level_cache", "true");
+        jpaProperties.put("hibernate.cache.region.factory_class", "jcache");
+        jpaProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        cacheConfiguration.entityCacheCustomizer(cacheManager).customize(jpaProperties);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:auth;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        factory.setPackagesToScan("com.mycompany.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(jpaProperties);
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+        recorder = new LastLoginRecorder();
+        set(recorder, "entityManager", SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        set(recorder, "entityManagerFactory", entityManagerFactory);
+        set(recorder, "transactionTemplate", transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+        cacheManager.close();
+    }
+
+    @Test
+    void flushEvictsOnlyTheFlushedAccounts() {
+        Long flushed = save("first@example.com");
+        Long untouched = save("second@example.com");
+        find(flushed);
+        find(untouched);
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(Client.class, flushed));
+        assertTrue(cache.contains(Client.class, untouched));
+
+        recorder.record(flushed);
+        recorder.flush();
+
+        assertFalse(cache.contains(Client.class, flushed));
+        assertTrue(cache.contains(Client.class, untouched));
+        assertNotNull(find(flushed).getLastLogin());
+        assertNull(find(untouched).getLastLogin());
+    }
+
+    @Test
+    void flushWithNothingRecordedLeavesTheCacheAlone() {
+        Long id = save("first@example.com");
+        find(id);
+
+        recorder.flush();
+
+        assertTrue(entityManagerFactory.getCache().contains(Client.class, id));
+    }
+
+    private Long save(String email) {
+        return transactionTemplate.execute(status -> {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            Client client = new Client();
+            client.setEmail(email);
+            client.setPassword("secret-password");
+            entityManager.persist(client);
+            return client.getId();
+        });
+    }
+
+    // Each lookup in its own persistence context, so only the second-level cache is shared
+    private Client find(Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Client.class, id);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
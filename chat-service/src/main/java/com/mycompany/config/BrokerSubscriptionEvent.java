@@ -0,0 +1,31 @@
+package com.mycompany.config;
+
+import java.util.Map;
+
+/**
+ * A subscription that the broker has registered; see {@link BrokerSubscriptionInterceptor}.
+ */
+public class BrokerSubscriptionEvent {
+
+    private final String sessionId;
+    private final String subscriptionId;
+    private final String destination;
+    private final Map<String, Object> sessionAttributes;
+
+    public BrokerSubscriptionEvent(String sessionId, String subscriptionId, String destination,
+                                   Map<String, Object> sessionAttributes) {
+        this.sessionId = sessionId;
+        this.subscriptionId = subscriptionId;
+        this.destination = destination;
+        this.sessionAttributes = sessionAttributes;
+    }
+
+    public String getSessionId() { return sessionId; }
+    public String getSubscriptionId() { return subscriptionId; }
+    public String getDestination() { return destination; }
+    public Map<String, Object> getSessionAttributes() { return sessionAttributes; }
+
+    public String getUserKey() {
+        return StompSessionAuthInterceptor.userKey(sessionAttributes);
+    }
+}
@@ -0,0 +1,39 @@
+package com.mycompany.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link BrokerSubscriptionEvent} once the broker has actually registered a
+ * SUBSCRIBE. Unlike {@code SessionSubscribeEvent}, which fires before the frame is handled,
+ * anything sent in response is guaranteed to find the subscription in place. Runs on the
+ * inbound executor, not on the transport thread.
+ */
+@Component
+public class BrokerSubscriptionInterceptor implements ExecutorChannelInterceptor {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof SimpleBrokerMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE || accessor.getDestination() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new BrokerSubscriptionEvent(accessor.getSessionId(), accessor.getSubscriptionId(),
+                accessor.getDestination(), accessor.getSessionAttributes()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.config;
+
+import com.mycompany.resilience.Deadline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives each inbound SEND a {@link Deadline} for the time it spends in a handler, so lookups
+ * against ticket-service made while handling it share one budget.
+ */
+@Component
+public class DeadlineInterceptor implements ExecutorChannelInterceptor {
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+            Deadline.start(properties.getDefaultBudgetMs());
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Deadline.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * How chat-service hands its sessions over to other instances on shutdown, bound from
+ * {@code chat.drain.*}. Window plus flush timeout must fit in
+ * {@code spring.lifecycle.timeout-per-shutdown-phase}.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.drain")
+public class DrainProperties {
+
+    // Sessions are closed in waves spread evenly over this window
+    private long windowMs = 15000;
+    private long waveIntervalMs = 500;
+
+    // Each closed session is told to wait a random delay in this range before reconnecting
+    private long minReconnectDelayMs = 1000;
+    private long maxReconnectDelayMs = 10000;
+
+    // How long to wait for frames already received to be handled once all sessions are closed
+    private long flushTimeoutMs = 5000;
+
+    public long getWindowMs() { return windowMs; }
+    public void setWindowMs(long windowMs) { this.windowMs = windowMs; }
+    public long getWaveIntervalMs() { return waveIntervalMs; }
+    public void setWaveIntervalMs(long waveIntervalMs) { this.waveIntervalMs = waveIntervalMs; }
+    public long getMinReconnectDelayMs() { return minReconnectDelayMs; }
+    public void setMinReconnectDelayMs(long minReconnectDelayMs) { this.minReconnectDelayMs = minReconnectDelayMs; }
+    public long getMaxReconnectDelayMs() { return maxReconnectDelayMs; }
+    public void setMaxReconnectDelayMs(long maxReconnectDelayMs) { this.maxReconnectDelayMs = maxReconnectDelayMs; }
+    public long getFlushTimeoutMs() { return flushTimeoutMs; }
+    public void setFlushTimeoutMs(long flushTimeoutMs) { this.flushTimeoutMs = flushTimeoutMs; }
+}
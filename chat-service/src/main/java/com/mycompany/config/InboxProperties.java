@@ -0,0 +1,23 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits of the offline notification inbox, bound from {@code chat.inbox.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.inbox")
+public class InboxProperties {
+
+    // Distinct notifications kept per recipient; the oldest go first
+    private int maxPerUser = 100;
+
+    // Notifications not delivered within this time are discarded
+    private long ttlHours = 72;
+
+    public int getMaxPerUser() { return maxPerUser; }
+    public void setMaxPerUser(int maxPerUser) { this.maxPerUser = maxPerUser; }
+    public long getTtlHours() { return ttlHours; }
+    public void setTtlHours(long ttlHours) { this.ttlHours = ttlHours; }
+}
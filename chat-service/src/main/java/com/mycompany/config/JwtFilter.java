@@ -1,11 +1,14 @@
 package com.mycompany.config;
 
+import com.mycompany.service.TokenDenylist;
 import com.mycompany.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,12 +26,17 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private static final Logger logger = Logger.getLogger(JwtFilter.class.getName());
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws IOException, ServletException {
-        // Skip filtering for token generation and WebSocket endpoints
+        // Skip filtering for token generation and WebSocket endpoints; browsers cannot send an
+        // Authorization header on the upgrade, so STOMP CONNECT authenticates those sessions
         String requestURI = request.getRequestURI();
         if (requestURI.equals("/api/token") ||
+            requestURI.equals(WebSocketConfig.NATIVE_ENDPOINT) ||
             requestURI.startsWith("/ws") ||
             requestURI.contains("/sockjs")) {
             filterChain.doFilter(request, response);
@@ -41,8 +49,13 @@ public class JwtFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7); // Remove "Bearer " prefix
             try {
                 // Validate token and extract userId and role
-                Long userId = JwtUtil.getUserIdFromToken(token);
-                String role = JwtUtil.getRoleFromToken(token);
+                Claims claims = JwtUtil.validateToken(token);
+                Long userId = Long.valueOf(claims.get("userId").toString());
+                String role = claims.get("role").toString();
+                if (tokenDenylist.isRevoked(claims.getId())) {
+                    sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token has been revoked");
+                    return;
+                }
 
                 // Store userId and role in request attributes for use in controller
                 request.setAttribute("userId", userId);
@@ -0,0 +1,284 @@
+package com.mycompany.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * What happens to frames for a session that is not reading fast enough. Every session gets
+ * its own outbound queue; only one thread at a time writes to the socket and the others
+ * queue and return, so a stalled tab never holds more than one outbound thread.
+ *
+ * A send blocked longer than {@code send-time-limit-ms} always closes the session. When the
+ * queue grows past {@code send-buffer-size-limit}, {@code overflow-policy} decides:
+ * <ul>
+ *   <li>{@code DISCONNECT}: close the session;</li>
+ *   <li>{@code DROP_OLDEST}: drop the oldest queued frames on {@code non-critical-destinations}
+ *       until the queue fits again, closing the session only if that is not enough;</li>
+ *   <li>{@code CONFLATE}: as {@code DROP_OLDEST}, and in addition a queued frame on one of the
+ *       {@code conflate-destinations} (presence, typing) is replaced by a newer one for the same
+ *       destination rather than sent after it.</li>
+ * </ul>
+ * Heartbeats are never critical and are always conflated.
+ */
+@Component
+public class OutboundPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundPolicy.class);
+
+    public enum OverflowPolicy { DISCONNECT, DROP_OLDEST, CONFLATE }
+
+    private static final String HEARTBEAT_KEY = "heartbeat";
+
+    @Autowired
+    private WebSocketProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private DistributionSummary queueDepth;
+
+    @PostConstruct
+    private void registerQueueDepth() {
+        // One histogram across all sessions; a series per session would not scale
+        queueDepth = DistributionSummary.builder("chat.websocket.outbound.queue")
+                .description("Frames queued for a session, sampled on every send to it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public WebSocketSession decorate(WebSocketSession session) {
+        return new PolicySession(session);
+    }
+
+    private Frame classify(WebSocketMessage<?> message) {
+        int size = message.getPayloadLength();
+        if (!(message instanceof TextMessage)) {
+            return new Frame(message, size, true, null);
+        }
+        String payload = ((TextMessage) message).getPayload();
+        if (payload.trim().isEmpty()) {
+            return new Frame(message, size, false, HEARTBEAT_KEY);
+        }
+        String destination = header(payload, "destination");
+        if (destination == null) {
+            return new Frame(message, size, true, null);
+        }
+        boolean conflate = properties.getOverflowPolicy() == OverflowPolicy.CONFLATE
+                && matches(properties.getConflateDestinations(), destination);
+        boolean critical = !conflate && !matches(properties.getNonCriticalDestinations(), destination);
+        return new Frame(message, size, critical, conflate ? destination : null);
+    }
+
+    private boolean matches(List<String> patterns, String destination) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Value of a STOMP frame header, looked up without decoding the whole frame
+    static String header(String frame, String name) {
+        int headersEnd = frame.indexOf("\n\n");
+        if (headersEnd < 0) {
+            headersEnd = frame.length();
+        }
+        String key = "\n" + name + ":";
+        int start = frame.indexOf(key);
+        if (start < 0 || start > headersEnd) {
+            return null;
+        }
+        start += key.length();
+        int end = frame.indexOf('\n', start);
+        return frame.substring(start, end < 0 || end > headersEnd ? headersEnd : end).trim();
+    }
+
+    private void count(String meter, String reason) {
+        Counter.builder(meter)
+                .description("Outbound frames or sessions given up on because a session read too slowly")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static class Frame {
+        final WebSocketMessage<?> message;
+        final int size;
+        final boolean critical;
+        final String conflationKey;
+
+        Frame(WebSocketMessage<?> message, int size, boolean critical, String conflationKey) {
+            this.message = message;
+            this.size = size;
+            this.critical = critical;
+            this.conflationKey = conflationKey;
+        }
+    }
+
+    private class PolicySession extends WebSocketSessionDecorator {
+
+        private final Deque<Frame> queue = new ArrayDeque<>();
+        private final Lock flushLock = new ReentrantLock();
+
+        // Guarded by queue
+        private int bufferedBytes;
+        private volatile long sendStartTime;
+        private volatile boolean closing;
+
+        PolicySession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (closing) {
+                return;
+            }
+            Frame frame = classify(message);
+            int depth;
+            synchronized (queue) {
+                if (frame.conflationKey != null && replaceQueued(frame)) {
+                    count("chat.websocket.outbound.dropped", "conflated");
+                } else {
+                    queue.addLast(frame);
+                    bufferedBytes += frame.size;
+                }
+                depth = queue.size();
+            }
+            queueDepth.record(depth);
+            do {
+                if (!tryFlush()) {
+                    enforceLimits();
+                    return;
+                }
+            } while (!closing && hasQueued());
+        }
+
+        // Drops a queued frame for the same destination and queues the newer one instead
+        private boolean replaceQueued(Frame frame) {
+            for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+                Frame queued = it.next();
+                if (frame.conflationKey.equals(queued.conflationKey)) {
+                    it.remove();
+                    bufferedBytes -= queued.size;
+                    queue.addLast(frame);
+                    bufferedBytes += frame.size;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasQueued() {
+            synchronized (queue) {
+                return !queue.isEmpty();
+            }
+        }
+
+        private boolean tryFlush() throws IOException {
+            if (!flushLock.tryLock()) {
+                return false;
+            }
+            try {
+                while (!closing) {
+                    Frame frame;
+                    synchronized (queue) {
+                        frame = queue.pollFirst();
+                        if (frame == null) {
+                            break;
+                        }
+                        bufferedBytes -= frame.size;
+                    }
+                    sendStartTime = System.currentTimeMillis();
+                    getDelegate().sendMessage(frame.message);
+                    sendStartTime = 0;
+                }
+            } finally {
+                sendStartTime = 0;
+                flushLock.unlock();
+            }
+            return true;
+        }
+
+        private void enforceLimits() {
+            long started = sendStartTime;
+            if (started != 0 && System.currentTimeMillis() - started > properties.getSendTimeLimitMs()) {
+                giveUp("send-time", "Send blocked for more than " + properties.getSendTimeLimitMs() + " ms");
+            }
+            boolean fits;
+            synchronized (queue) {
+                if (bufferedBytes <= properties.getSendBufferSizeLimit()) {
+                    return;
+                }
+                if (properties.getOverflowPolicy() != OverflowPolicy.DISCONNECT) {
+                    dropOldestNonCritical();
+                }
+                fits = bufferedBytes <= properties.getSendBufferSizeLimit();
+            }
+            if (!fits) {
+                giveUp("buffer-size", "More than " + properties.getSendBufferSizeLimit() + " bytes queued");
+            }
+        }
+
+        private void dropOldestNonCritical() {
+            for (Iterator<Frame> it = queue.iterator(); it.hasNext()
+                    && bufferedBytes > properties.getSendBufferSizeLimit(); ) {
+                Frame queued = it.next();
+                if (!queued.critical) {
+                    it.remove();
+                    bufferedBytes -= queued.size;
+                    count("chat.websocket.outbound.dropped", "overflow");
+                }
+            }
+        }
+
+        // The caller, SubProtocolWebSocketHandler, closes the session on this exception
+        private void giveUp(String reason, String detail) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            synchronized (queue) {
+                queue.clear();
+                bufferedBytes = 0;
+            }
+            count("chat.websocket.outbound.disconnected", reason);
+            logger.warn("Closing slow session {}: {}", getId(), detail);
+            throw new SessionLimitExceededException(detail, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            closing = true;
+            synchronized (queue) {
+                queue.clear();
+                bufferedBytes = 0;
+            }
+            super.close(status);
+        }
+    }
+}
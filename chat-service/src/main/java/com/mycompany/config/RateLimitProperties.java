@@ -0,0 +1,51 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inbound STOMP rate limits, bound from the {@code chat.ratelimit.*} properties.
+ * Each rule applies to SEND frames whose destination matches its Ant-style pattern;
+ * the first matching rule wins.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets of users without traffic for this long are dropped by a sweep every
+    // chat.ratelimit.eviction-interval-ms
+    private long idleEvictionSeconds = 600;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getIdleEvictionSeconds() { return idleEvictionSeconds; }
+    public void setIdleEvictionSeconds(long idleEvictionSeconds) { this.idleEvictionSeconds = idleEvictionSeconds; }
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = rules; }
+
+    public static class Rule {
+        private String pattern;
+        private double sessionCapacity = 20;
+        private double sessionRefillPerSecond = 5;
+        private double userCapacity = 40;
+        private double userRefillPerSecond = 10;
+
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+        public double getSessionCapacity() { return sessionCapacity; }
+        public void setSessionCapacity(double sessionCapacity) { this.sessionCapacity = sessionCapacity; }
+        public double getSessionRefillPerSecond() { return sessionRefillPerSecond; }
+        public void setSessionRefillPerSecond(double sessionRefillPerSecond) { this.sessionRefillPerSecond = sessionRefillPerSecond; }
+        public double getUserCapacity() { return userCapacity; }
+        public void setUserCapacity(double userCapacity) { this.userCapacity = userCapacity; }
+        public double getUserRefillPerSecond() { return userRefillPerSecond; }
+        public void setUserRefillPerSecond(double userRefillPerSecond) { this.userRefillPerSecond = userRefillPerSecond; }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mycompany.config;
+
+import com.mycompany.replica.ReadWriteRoutingDataSource;
+import com.mycompany.replica.ReplicaProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.messaging.simp.SimpAttributes;
+import org.springframework.messaging.simp.SimpAttributesContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single connection pool with a primary and a replica pool when
+ * {@code chat.datasource.replica.enabled=true}. The primary still comes from {@code spring.datasource.*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "chat.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "chat.datasource.replica")
+    public ReplicaProperties replicaProperties() {
+        return new ReplicaProperties();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties primaryProperties, ReplicaProperties replica) {
+        return ReadWriteRoutingDataSource.create(primaryProperties, replica, ReadReplicaConfig::currentUserKey);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        // Takes the physical connection at the first statement, once the read-only flag is set
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // User behind the STOMP frame or HTTP request being handled, as "ROLE:id"
+    private static String currentUserKey() {
+        SimpAttributes session = SimpAttributesContextHolder.getAttributes();
+        if (session != null) {
+            Object userId = session.getAttribute(StompSessionAuthInterceptor.ATTR_USER_ID);
+            return userId != null ? session.getAttribute(StompSessionAuthInterceptor.ATTR_ROLE) + ":" + userId : null;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object userId = request.getAttribute("userId", RequestAttributes.SCOPE_REQUEST);
+            return userId != null ? request.getAttribute("role", RequestAttributes.SCOPE_REQUEST) + ":" + userId : null;
+        }
+        return null;
+    }
+}
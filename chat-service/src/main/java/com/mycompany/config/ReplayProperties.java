@@ -0,0 +1,28 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizing of the per-ticket message replay rings, bound from {@code chat.replay.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.replay")
+public class ReplayProperties {
+
+    // Most recent messages kept in memory for each ticket
+    private int ringSize = 200;
+
+    // Tickets with a live ring; the least recently used one is dropped beyond this
+    private int maxTickets = 5000;
+
+    // Upper bound for one catch-up page read from the database
+    private int maxPageSize = 200;
+
+    public int getRingSize() { return ringSize; }
+    public void setRingSize(int ringSize) { this.ringSize = ringSize; }
+    public int getMaxTickets() { return maxTickets; }
+    public void setMaxTickets(int maxTickets) { this.maxTickets = maxTickets; }
+    public int getMaxPageSize() { return maxPageSize; }
+    public void setMaxPageSize(int maxPageSize) { this.maxPageSize = maxPageSize; }
+}
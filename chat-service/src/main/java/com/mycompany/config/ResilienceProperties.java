@@ -0,0 +1,45 @@
+package com.mycompany.config;
+
+import com.mycompany.resilience.PeerSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits applied to calls to other services, bound from the {@code chat.resilience.*} properties.
+ * Peers are configured by name under {@code peers}, each with the base URLs of its instances;
+ * the list stands in for service discovery. Unlisted settings use the defaults.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.resilience")
+public class ResilienceProperties {
+
+    // Budget for work that arrives without one, e.g. from a client that sends no deadline
+    private long defaultBudgetMs = 4000;
+
+    // Upper bound on a budget handed to us by a caller
+    private long maxBudgetMs = 10000;
+
+    // How often every instance is probed
+    private long healthCheckIntervalMs = 10000;
+
+    private Map<String, PeerSettings> peers = new HashMap<>();
+
+    private final PeerSettings defaults = new PeerSettings();
+
+    public PeerSettings peer(String name) {
+        PeerSettings peer = peers.get(name);
+        return peer != null ? peer : defaults;
+    }
+
+    public long getDefaultBudgetMs() { return defaultBudgetMs; }
+    public void setDefaultBudgetMs(long defaultBudgetMs) { this.defaultBudgetMs = defaultBudgetMs; }
+    public long getMaxBudgetMs() { return maxBudgetMs; }
+    public void setMaxBudgetMs(long maxBudgetMs) { this.maxBudgetMs = maxBudgetMs; }
+    public long getHealthCheckIntervalMs() { return healthCheckIntervalMs; }
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) { this.healthCheckIntervalMs = healthCheckIntervalMs; }
+    public Map<String, PeerSettings> getPeers() { return peers; }
+    public void setPeers(Map<String, PeerSettings> peers) { this.peers = peers; }
+}
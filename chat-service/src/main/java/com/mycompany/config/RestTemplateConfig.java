@@ -1,9 +1,9 @@
 package com.mycompany.config;
 
+import com.mycompany.util.DeadlineRequestFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import javax.net.ssl.*;
 import java.security.cert.X509Certificate;
 
@@ -27,8 +27,8 @@ public class RestTemplateConfig {
         HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
         HttpsURLConnection.setDefaultHostnameVerifier((hostname, session) -> true);
 
-        // Create RestTemplate with the custom SSL configuration
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        // Create RestTemplate with the custom SSL configuration; timeouts shrink to the request's deadline
+        DeadlineRequestFactory requestFactory = new DeadlineRequestFactory();
         requestFactory.setConnectTimeout(5000);
         requestFactory.setReadTimeout(5000);
         
@@ -1,5 +1,6 @@
 package com.mycompany.config;
 
+import com.mycompany.util.JwtUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -31,8 +32,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/token").permitAll()
-                .requestMatchers("/api/tickets/assign").permitAll()
-                .requestMatchers("/ws/**", "/sockjs/**").permitAll()
+                .requestMatchers("/api/tickets/assign").hasAnyAuthority("ADMIN", JwtUtil.SERVICE_ROLE)
+                .requestMatchers("/ws/**", "/stomp", "/sockjs/**").permitAll()
                 .requestMatchers("/api/chat/**").authenticated()
                 .requestMatchers("/topic/**", "/user/**").permitAll() // Allow call-related WebSocket messages
                 .anyRequest().permitAll()
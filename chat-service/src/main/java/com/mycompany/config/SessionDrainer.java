@@ -0,0 +1,178 @@
+package com.mycompany.config;
+
+import com.mycompany.service.ChatRoutingState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands sessions over to the other instances on shutdown instead of dropping them all at
+ * once. Stops before the broker (see {@link WebSocketConfig#getPhase()}):
+ * <ol>
+ *   <li>reports the instance as not ready and refuses new STOMP CONNECTs;</li>
+ *   <li>closes the open sessions in waves spread over {@code chat.drain.window-ms}, each
+ *       with close code 1012 (service restart) and a random
+ *       {@code reconnect-after-ms=} hint the clients wait before reconnecting;</li>
+ *   <li>waits for frames already received to be handled, so their messages are stored,
+ *       then writes the routing snapshot.</li>
+ * </ol>
+ */
+@Component
+public class SessionDrainer implements SmartLifecycle, ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionDrainer.class);
+
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE;
+
+    public static final String RECONNECT_HINT = "reconnect-after-ms=";
+
+    @Autowired
+    private DrainProperties properties;
+
+    @Autowired
+    private SessionReaper sessionReaper;
+
+    @Autowired
+    private ChatRoutingState routingState;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Lazy
+    @Qualifier("clientInboundChannelExecutor")
+    private ThreadPoolTaskExecutor inboundExecutor;
+
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!draining) {
+            return message;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && (accessor.getCommand() == StompCommand.CONNECT || accessor.getCommand() == StompCommand.STOMP)) {
+            // Answered with an ERROR frame; the client retries and lands on another instance
+            throw new MessageDeliveryException(message, "Shutting down, connect to another instance");
+        }
+        return message;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            drain();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        Thread drainThread = new Thread(() -> {
+            try {
+                stop();
+            } finally {
+                callback.run();
+            }
+        }, "chat-drain");
+        drainThread.start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drain() {
+        draining = true;
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        List<WebSocketSession> sessions = sessionReaper.openSessions();
+        Collections.shuffle(sessions);
+        long waveInterval = Math.max(1, properties.getWaveIntervalMs());
+        int waves = (int) Math.max(1, properties.getWindowMs() / waveInterval);
+        int perWave = Math.max(1, (sessions.size() + waves - 1) / waves);
+        logger.info("Draining {} sessions, {} per wave every {} ms", sessions.size(), perWave, waveInterval);
+        try {
+            for (int from = 0; from < sessions.size(); from += perWave) {
+                if (from > 0) {
+                    Thread.sleep(waveInterval);
+                }
+                for (WebSocketSession session : sessions.subList(from, Math.min(from + perWave, sessions.size()))) {
+                    close(session);
+                }
+            }
+            awaitInboundIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Drain interrupted, remaining sessions close with the broker");
+        }
+        routingState.snapshot();
+        logger.info("Drain finished");
+    }
+
+    private void close(WebSocketSession session) {
+        long min = properties.getMinReconnectDelayMs();
+        long delay = ThreadLocalRandom.current().nextLong(min, Math.max(min, properties.getMaxReconnectDelayMs()) + 1);
+        try {
+            session.close(CloseStatus.SERVICE_RESTARTED.withReason(RECONNECT_HINT + delay));
+            Counter.builder("chat.session.drained")
+                    .description("Sessions closed with a reconnect hint on shutdown")
+                    .register(meterRegistry)
+                    .increment();
+        } catch (IOException e) {
+            logger.debug("Could not close session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void awaitInboundIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + properties.getFlushTimeoutMs();
+        while (inboundExecutor.getActiveCount() > 0 || inboundExecutor.getQueueSize() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                logger.warn("{} inbound frames still being handled after {} ms", inboundExecutor.getActiveCount(),
+                        properties.getFlushTimeoutMs());
+                return;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.mycompany.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closes sessions whose peer has gone away without saying so. Clients that negotiated STOMP
+ * heartbeats are dropped by the broker once they miss them; this catches the rest: sessions
+ * that sent nothing at all for {@code silent-timeout-ms}, and sessions that only kept
+ * heartbeating for {@code idle-timeout-ms}. Closing a session runs the normal disconnect
+ * path, which clears its rooms, feed subscriptions, grants and UID.
+ *
+ * Registered as a transport decorator, to see every frame and be able to close the session,
+ * and on the outbound channel, to count broker heartbeat timeouts.
+ */
+@Component
+public class SessionReaper implements WebSocketHandlerDecoratorFactory, ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionReaper.class);
+
+    @Autowired
+    private WebSocketProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+
+    // userKey ("ROLE:id") -> open sessions that authenticated as that user
+    private final Map<String, Integer> sessionsPerUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void registerGauge() {
+        Gauge.builder("chat.session.open", sessions, Map::size)
+                .description("WebSocket sessions currently open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new TrackedSession(session));
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                TrackedSession tracked = sessions.get(session.getId());
+                if (tracked != null) {
+                    long now = System.currentTimeMillis();
+                    tracked.lastSeen = now;
+                    if (!isHeartbeat(message)) {
+                        tracked.lastActive = now;
+                    }
+                }
+                super.handleMessage(session, message);
+                if (tracked != null && tracked.userKey == null) {
+                    // The CONNECT frame has just been authenticated on this thread
+                    identify(tracked);
+                }
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                // Before the disconnect event goes out, so listeners see only the user's other sessions
+                TrackedSession tracked = sessions.remove(session.getId());
+                if (tracked != null) {
+                    untrack(tracked);
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // The broker answers a missed client heartbeat with a DISCONNECT_ACK that no DISCONNECT asked for
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.DISCONNECT_ACK
+                && message.getHeaders().get(SimpMessageHeaderAccessor.DISCONNECT_MESSAGE_HEADER) == null) {
+            logger.info("Session {} missed its heartbeats, closing it", SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            reaped("heartbeat");
+        }
+        return message;
+    }
+
+    /**
+     * Whether the user ("ROLE:id") still has a session open. Sessions being closed are no
+     * longer counted by the time their disconnect event is published.
+     */
+    public boolean hasOpenSession(String userKey) {
+        return userKey != null && sessionsPerUser.containsKey(userKey);
+    }
+
+    // Copy of the sessions open right now, for closing them on shutdown
+    public List<WebSocketSession> openSessions() {
+        List<WebSocketSession> open = new ArrayList<>(sessions.size());
+        for (TrackedSession tracked : sessions.values()) {
+            open.add(tracked.session);
+        }
+        return open;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.websocket.reap-interval-ms:30000}")
+    public void reap() {
+        long now = System.currentTimeMillis();
+        long silentTimeout = properties.getSilentTimeoutMs();
+        long idleTimeout = properties.getIdleTimeoutMs();
+        for (TrackedSession tracked : sessions.values()) {
+            if (silentTimeout > 0 && now - tracked.lastSeen > silentTimeout) {
+                close(tracked, CloseStatus.SESSION_NOT_RELIABLE, "silent");
+            } else if (idleTimeout > 0 && now - tracked.lastActive > idleTimeout) {
+                close(tracked, CloseStatus.GOING_AWAY.withReason("Idle timeout"), "idle");
+            }
+        }
+    }
+
+    private void close(TrackedSession tracked, CloseStatus status, String reason) {
+        if (sessions.remove(tracked.session.getId()) == null) {
+            return;
+        }
+        untrack(tracked);
+        logger.info("Closing {} session {} of {}", reason, tracked.session.getId(),
+                StompSessionAuthInterceptor.userKey(tracked.session.getAttributes()));
+        reaped(reason);
+        try {
+            tracked.session.close(status);
+        } catch (IOException e) {
+            logger.debug("Could not close session {}: {}", tracked.session.getId(), e.getMessage());
+        }
+    }
+
+    // Counts the session for its user once STOMP CONNECT has stored who that is
+    private void identify(TrackedSession tracked) {
+        String userKey = StompSessionAuthInterceptor.userKey(tracked.session.getAttributes());
+        if (userKey == null) {
+            return;
+        }
+        synchronized (tracked) {
+            if (tracked.userKey == null && !tracked.closed) {
+                tracked.userKey = userKey;
+                sessionsPerUser.merge(userKey, 1, Integer::sum);
+            }
+        }
+    }
+
+    private void untrack(TrackedSession tracked) {
+        synchronized (tracked) {
+            tracked.closed = true;
+            if (tracked.userKey != null) {
+                sessionsPerUser.computeIfPresent(tracked.userKey, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    private void reaped(String reason) {
+        Counter.builder("chat.session.reaped")
+                .description("Dead or idle sessions closed by the server")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // A STOMP heartbeat is a bare end-of-line
+    private static boolean isHeartbeat(WebSocketMessage<?> message) {
+        return message instanceof TextMessage && ((TextMessage) message).getPayload().trim().isEmpty();
+    }
+
+    private static class TrackedSession {
+        final WebSocketSession session;
+        volatile long lastSeen;
+        volatile long lastActive;
+        // Set once the session authenticated; guarded by the session
+        volatile String userKey;
+        boolean closed;
+
+        TrackedSession(WebSocketSession session) {
+            this.session = session;
+            this.lastSeen = System.currentTimeMillis();
+            this.lastActive = this.lastSeen;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where and how often chat-service persists its routing state, bound from
+ * {@code chat.snapshot.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = true;
+
+    private String path = "data/chat-routing.snapshot";
+
+    private long intervalMs = 30000;
+
+    // Cached ticket participants older than this are looked up again on next use; a restored
+    // snapshot also drops ticket assignments older than this
+    private long participantsTtlSeconds = 600;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    public long getIntervalMs() { return intervalMs; }
+    public void setIntervalMs(long intervalMs) { this.intervalMs = intervalMs; }
+    public long getParticipantsTtlSeconds() { return participantsTtlSeconds; }
+    public void setParticipantsTtlSeconds(long participantsTtlSeconds) { this.participantsTtlSeconds = participantsTtlSeconds; }
+}
@@ -0,0 +1,159 @@
+package com.mycompany.config;
+
+import com.mycompany.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket flood protection for inbound SEND frames. Every matching frame must take a
+ * token from both its session bucket and its user bucket before it reaches a
+ * {@code @MessageMapping} handler. Over-limit frames are dropped and answered with a STOMP
+ * ERROR frame (which, per the STOMP spec, also closes the offending session).
+ */
+@Component
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompRateLimitInterceptor.class);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket[]> sessionBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket[]> userBuckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Lazy
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (accessor.getMessageType() == SimpMessageType.DISCONNECT) {
+            release(accessor.getSessionId());
+            return message;
+        }
+        if (!properties.isEnabled() || accessor.getCommand() != StompCommand.SEND) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        int ruleIndex = matchRule(destination);
+        if (ruleIndex < 0) {
+            return message;
+        }
+        RateLimitProperties.Rule rule = properties.getRules().get(ruleIndex);
+
+        TokenBucket sessionBucket = bucket(sessionBuckets, accessor.getSessionId(), ruleIndex,
+                rule.getSessionCapacity(), rule.getSessionRefillPerSecond());
+        String userKey = StompSessionAuthInterceptor.userKey(accessor.getSessionAttributes());
+        if (userKey == null) {
+            return sessionBucket.tryConsume() ? message : reject(accessor, rule, "session");
+        }
+        TokenBucket userBucket = bucket(userBuckets, userKey, ruleIndex,
+                rule.getUserCapacity(), rule.getUserRefillPerSecond());
+        // A frame the user bucket refuses must not spend the session's token, nor the reverse
+        TokenBucket empty = TokenBucket.tryConsumeBoth(sessionBucket, userBucket);
+        if (empty == null) {
+            return message;
+        }
+        return reject(accessor, rule, empty == sessionBucket ? "session" : "user");
+    }
+
+    private int matchRule(String destination) {
+        if (destination == null) {
+            return -1;
+        }
+        List<RateLimitProperties.Rule> rules = properties.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            if (pathMatcher.match(rules.get(i).getPattern(), destination)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private TokenBucket bucket(Map<String, TokenBucket[]> owners, String owner, int index,
+                               double capacity, double refillPerSecond) {
+        TokenBucket[] buckets = owners.computeIfAbsent(owner, key -> new TokenBucket[properties.getRules().size()]);
+        TokenBucket bucket = buckets[index];
+        if (bucket == null) {
+            synchronized (buckets) {
+                bucket = buckets[index];
+                if (bucket == null) {
+                    bucket = new TokenBucket(capacity, refillPerSecond);
+                    buckets[index] = bucket;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private Message<?> reject(StompHeaderAccessor accessor, RateLimitProperties.Rule rule, String scope) {
+        Counter.builder("chat.stomp.inbound.rejected")
+                .description("Inbound STOMP frames dropped by rate limiting")
+                .tag("pattern", rule.getPattern())
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Rate limit ({}) exceeded on {} for session {}", scope, accessor.getDestination(), accessor.getSessionId());
+
+        StompHeaderAccessor error = StompHeaderAccessor.create(StompCommand.ERROR);
+        error.setSessionId(accessor.getSessionId());
+        error.setMessage("Rate limit exceeded for " + accessor.getDestination());
+        if (accessor.getReceipt() != null) {
+            error.setReceiptId(accessor.getReceipt());
+        }
+        clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], error.getMessageHeaders()));
+        return null;
+    }
+
+    private void release(String sessionId) {
+        if (sessionId != null) {
+            sessionBuckets.remove(sessionId);
+        }
+    }
+
+    // User buckets outlive sessions so reconnecting does not refill them; drop the idle ones
+    @Scheduled(fixedDelayString = "${chat.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleUsers() {
+        long idleLimit = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+        long now = System.nanoTime();
+        userBuckets.entrySet().removeIf(entry -> {
+            for (TokenBucket bucket : entry.getValue()) {
+                if (bucket != null && now - bucket.getLastUsed() < idleLimit) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+}
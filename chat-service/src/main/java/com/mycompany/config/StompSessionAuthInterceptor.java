@@ -0,0 +1,79 @@
+package com.mycompany.config;
+
+import com.mycompany.service.TokenDenylist;
+import com.mycompany.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Resolves the caller from the CONNECT frame's Authorization header once and keeps
+ * userId/role in the STOMP session attributes, so later interceptors can identify the
+ * sender of every frame without parsing the JWT again. A CONNECT carrying a revoked token
+ * is refused.
+ */
+@Component
+public class StompSessionAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompSessionAuthInterceptor.class);
+
+    public static final String ATTR_USER_ID = "userId";
+    public static final String ATTR_ROLE = "role";
+    // System.nanoTime() of the CONNECT frame, for connect-to-ready latency
+    public static final String ATTR_CONNECTED_AT = "connectedAt";
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes != null) {
+            attributes.put(ATTR_CONNECTED_AT, System.nanoTime());
+        }
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (attributes == null || authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+        Claims claims;
+        try {
+            claims = JwtUtil.validateToken(authHeader.substring(7));
+        } catch (Exception e) {
+            logger.warn("Could not resolve user for STOMP session {}: {}", accessor.getSessionId(), e.getMessage());
+            return message;
+        }
+        if (tokenDenylist.isRevoked(claims.getId())) {
+            throw new MessageDeliveryException(message, "Token has been revoked");
+        }
+        try {
+            attributes.put(ATTR_USER_ID, Long.valueOf(claims.get("userId").toString()));
+            attributes.put(ATTR_ROLE, claims.get("role").toString());
+        } catch (Exception e) {
+            logger.warn("Could not resolve user for STOMP session {}: {}", accessor.getSessionId(), e.getMessage());
+        }
+        return message;
+    }
+
+    // Key shared by every session of the same account, e.g. "CLIENT:42"
+    public static String userKey(Map<String, Object> attributes) {
+        if (attributes == null || attributes.get(ATTR_USER_ID) == null) {
+            return null;
+        }
+        return attributes.get(ATTR_ROLE) + ":" + attributes.get(ATTR_USER_ID);
+    }
+}
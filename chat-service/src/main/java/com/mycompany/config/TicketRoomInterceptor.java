@@ -0,0 +1,119 @@
+package com.mycompany.config;
+
+import com.mycompany.service.TicketFeed;
+import com.mycompany.service.TicketGrants;
+import com.mycompany.service.TicketRoomRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Guards the broker destinations. Room subscriptions ({@code /topic/ticket/{id}}) are
+ * authorized once, here, so messages can afterwards be published to the room without any
+ * per-message checks. The ticket-created feed is open to agents and admins only. Clients may not publish straight to broker destinations, and
+ * wildcard subscriptions (which the simple broker would otherwise honour) are refused.
+ */
+@Component
+public class TicketRoomInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketRoomInterceptor.class);
+
+    @Autowired
+    private TicketGrants ticketGrants;
+
+    @Autowired
+    private TicketRoomRegistry roomRegistry;
+
+    @Autowired
+    private TicketFeed ticketFeed;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        switch (accessor.getCommand()) {
+            case CONNECT:
+                ticketGrants.sessionOpened(accessor.getSessionId(),
+                        StompSessionAuthInterceptor.userKey(accessor.getSessionAttributes()));
+                return message;
+            case SEND:
+                if (destination != null && (destination.startsWith("/topic/") || destination.startsWith("/user/"))) {
+                    logger.warn("Session {} tried to publish directly to {}", accessor.getSessionId(), destination);
+                    return null;
+                }
+                return message;
+            case SUBSCRIBE:
+                return authorizeSubscribe(message, accessor, destination);
+            case UNSUBSCRIBE:
+                roomRegistry.leave(accessor.getSessionId(), accessor.getSubscriptionId());
+                ticketFeed.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+                return message;
+            case DISCONNECT:
+                roomRegistry.leaveAll(accessor.getSessionId());
+                ticketFeed.sessionClosed(accessor.getSessionId());
+                ticketGrants.sessionClosed(accessor.getSessionId());
+                return message;
+            default:
+                return message;
+        }
+    }
+
+    private Message<?> authorizeSubscribe(Message<?> message, StompHeaderAccessor accessor, String destination) {
+        if (destination == null || destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0
+                || destination.indexOf('{') >= 0) {
+            logger.warn("Rejected pattern subscription {} from session {}", destination, accessor.getSessionId());
+            return null;
+        }
+        if (TicketFeed.DESTINATION.equals(destination)) {
+            return authorizeFeed(message, accessor);
+        }
+        if (!destination.startsWith(TicketRoomRegistry.ROOM_PREFIX)) {
+            return message;
+        }
+        Long ticketId;
+        try {
+            ticketId = Long.valueOf(destination.substring(TicketRoomRegistry.ROOM_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            logger.warn("Rejected subscription to unknown room {}", destination);
+            return null;
+        }
+
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Long userId = (Long) attributes.get(StompSessionAuthInterceptor.ATTR_USER_ID);
+        String role = (String) attributes.get(StompSessionAuthInterceptor.ATTR_ROLE);
+        if (!ticketGrants.canAccess(userId, role, ticketId)) {
+            logger.warn("Denied {}:{} access to room {}", role, userId, destination);
+            return null;
+        }
+        roomRegistry.join(accessor.getSessionId(), accessor.getSubscriptionId(), ticketId,
+                StompSessionAuthInterceptor.userKey(attributes));
+        logger.info("{}:{} joined room {}", role, userId, destination);
+        return message;
+    }
+
+    private Message<?> authorizeFeed(Message<?> message, StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        String role = attributes == null ? null : (String) attributes.get(StompSessionAuthInterceptor.ATTR_ROLE);
+        String userKey = StompSessionAuthInterceptor.userKey(attributes);
+        if (userKey == null || !TicketFeed.mayWatch(role)) {
+            logger.warn("Denied {} access to {}", userKey, TicketFeed.DESTINATION);
+            return null;
+        }
+        ticketFeed.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), userKey);
+        return message;
+    }
+}
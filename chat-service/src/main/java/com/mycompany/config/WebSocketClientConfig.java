@@ -2,8 +2,9 @@ package com.mycompany.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -16,12 +17,15 @@ import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.mycompany.service.TicketCreatedRouter;
+import com.mycompany.util.JwtUtil;
 import javax.annotation.PostConstruct;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.logging.Logger;
 import java.security.SecureRandom;
@@ -35,7 +39,7 @@ public class WebSocketClientConfig {
     private static final Logger logger = Logger.getLogger(WebSocketClientConfig.class.getName());
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private TicketCreatedRouter ticketCreatedRouter;
 
     @PostConstruct
     public void init() {
@@ -45,7 +49,7 @@ public class WebSocketClientConfig {
     @PostConstruct
     public void connectToTicketService() {
         try {
-            logger.info("Attempting to connect to ticket service WebSocket at wss://tickets.prjsdr.xyz/ws");
+            logger.info("Attempting to connect to ticket service WebSocket at wss://tickets.prjsdr.xyz");
 
             SSLContext sslContext = SSLContext.getInstance("TLS");
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -75,35 +79,42 @@ public class WebSocketClientConfig {
             });
 
             StandardWebSocketClient webSocketClient = new StandardWebSocketClient();
+            // Plain WebSocket first; SockJS (WebSocket, then XHR) only if that cannot connect
+            WebSocketStompClient nativeStompClient = new WebSocketStompClient(webSocketClient);
             RestTemplateXhrTransport xhrTransport = new RestTemplateXhrTransport(restTemplate);
-            SockJsClient sockJsClient = new SockJsClient(Arrays.asList(xhrTransport, new WebSocketTransport(webSocketClient)));
-            WebSocketStompClient stompClient = new WebSocketStompClient(sockJsClient);
+            SockJsClient sockJsClient = new SockJsClient(Arrays.asList(new WebSocketTransport(webSocketClient), xhrTransport));
+            WebSocketStompClient sockJsStompClient = new WebSocketStompClient(sockJsClient);
 
             MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
-            stompClient.setMessageConverter(converter);
+            nativeStompClient.setMessageConverter(converter);
+            sockJsStompClient.setMessageConverter(converter);
 
-            String url = "wss://tickets.prjsdr.xyz/ws";
-            stompClient.connect(url, new StompSessionHandlerAdapter() {
+            WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+            handshakeHeaders.setSecWebSocketExtensions(Collections.singletonList(new WebSocketExtension("permessage-deflate")));
+            // ticket-service only lets services connect to its broker and subscribe to new tickets
+            handshakeHeaders.set("Authorization", "Bearer " + JwtUtil.generateToken(0L, JwtUtil.SERVICE_ROLE));
+
+            String nativeUrl = "wss://tickets.prjsdr.xyz/stomp";
+            String sockJsUrl = "wss://tickets.prjsdr.xyz/ws";
+            StompSessionHandlerAdapter sessionHandler = new StompSessionHandlerAdapter() {
                 @Override
                 public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
-                    logger.info("Successfully connected to ticket service WebSocket: " + url);
+                    logger.info("Successfully connected to ticket service WebSocket");
                     logger.info("Connected headers: " + connectedHeaders);
 
                     session.subscribe("/topic/tickets/created", new StompFrameHandler() {
                         @Override
                         public Type getPayloadType(StompHeaders headers) {
-                            logger.info("Received message headers: " + headers);
+                            logger.fine(() -> "Received message headers: " + headers);
                             return Map.class;
                         }
 
                         @Override
                         public void handleFrame(StompHeaders headers, Object payload) {
-                            logger.info("Received ticket creation message: " + payload);
+                            logger.fine("Received ticket creation message");
                             try {
-                                messagingTemplate.convertAndSend("/app/tickets/created", payload);
-                                logger.info("Forwarded ticket creation message to /app/tickets/created");
-                                messagingTemplate.convertAndSend("/topic/tickets/created", payload);
-                                logger.info("Broadcasted ticket creation message to /topic/tickets/created as fallback");
+                                // Routed to the assigned agent's sessions only, never rebroadcast
+                                ticketCreatedRouter.route((Map<String, Object>) payload);
                             } catch (Exception e) {
                                 logger.severe("Failed to process ticket creation message: " + e.getMessage());
                                 e.printStackTrace();
@@ -125,6 +136,11 @@ public class WebSocketClientConfig {
                     logger.severe("WebSocket transport error: " + exception.getMessage());
                     exception.printStackTrace();
                 }
+            };
+            nativeStompClient.connectAsync(nativeUrl, handshakeHeaders, sessionHandler).exceptionally(e -> {
+                logger.warning("Could not connect to " + nativeUrl + " (" + e.getMessage() + "), falling back to SockJS at " + sockJsUrl);
+                sockJsStompClient.connectAsync(sockJsUrl, handshakeHeaders, sessionHandler);
+                return null;
             });
         } catch (Exception e) {
             logger.severe("Failed to connect to ticket service WebSocket: " + e.getMessage());
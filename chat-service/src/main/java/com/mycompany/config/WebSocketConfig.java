@@ -1,24 +1,106 @@
 package com.mycompany.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
+// The broker itself is enabled by WebSocketBrokerConfig
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String SOCKJS_ENDPOINT = "/ws";
+    // Plain WebSocket; Tomcat negotiates permessage-deflate when the client offers it
+    public static final String NATIVE_ENDPOINT = "/stomp";
+
+    @Autowired
+    private StompSessionAuthInterceptor sessionAuthInterceptor;
+
+    @Autowired
+    private StompRateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private TicketRoomInterceptor ticketRoomInterceptor;
+
+    @Autowired
+    private BrokerSubscriptionInterceptor brokerSubscriptionInterceptor;
+
+    @Autowired
+    private DeadlineInterceptor deadlineInterceptor;
+
+    @Autowired
+    private WebSocketProperties webSocketProperties;
+
+    @Autowired
+    private WebSocketTransportMetrics transportMetrics;
+
+    @Autowired
+    private SessionReaper sessionReaper;
+
+    @Autowired
+    private SessionDrainer sessionDrainer;
+
+    // Defined by the broker configuration itself, hence lazy
+    @Autowired
+    @Lazy
+    @Qualifier("messageBrokerTaskScheduler")
+    private TaskScheduler messageBrokerTaskScheduler;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/user");
+        config.enableSimpleBroker("/topic", "/user")
+                .setHeartbeatValue(new long[] {webSocketProperties.getHeartbeatSendMs(), webSocketProperties.getHeartbeatReceiveMs()})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws").setAllowedOrigins("https://app.prjsdr.xyz").withSockJS();
+        registry.addEndpoint(NATIVE_ENDPOINT).setAllowedOrigins("https://app.prjsdr.xyz");
+        // Fallback for networks that block the WebSocket upgrade
+        registry.addEndpoint(SOCKJS_ENDPOINT).setAllowedOrigins("https://app.prjsdr.xyz").withSockJS();
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(webSocketProperties.getMessageSizeLimit())
+                .setSendBufferSizeLimit(webSocketProperties.getSendBufferSizeLimit())
+                .setSendTimeLimit(webSocketProperties.getSendTimeLimitMs())
+                .addDecoratorFactory(transportMetrics)
+                .addDecoratorFactory(sessionReaper);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(WebSocketProperties properties) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(properties.getTextBufferSize());
+        return container;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Turn away CONNECTs while draining, identify the session, then throttle, then guard broker destinations
+        registration.interceptors(sessionDrainer, sessionAuthInterceptor, rateLimitInterceptor, ticketRoomInterceptor,
+                brokerSubscriptionInterceptor, deadlineInterceptor);
+    }
+
+    // Broker and channels stop after the drainer, so closing sessions still runs the normal disconnect path
+    @Override
+    public Integer getPhase() {
+        return SessionDrainer.PHASE - 1;
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionReaper);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer and frame limits, slow-consumer policy, heartbeats and session reaping of the
+ * STOMP endpoints, bound from {@code chat.websocket.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.websocket")
+public class WebSocketProperties {
+
+    // Largest inbound STOMP message; longer ones close the session
+    private int messageSizeLimit = 64 * 1024;
+
+    // Container read buffer, sized so a full message arrives as one frame instead of being reassembled
+    private int textBufferSize = 64 * 1024;
+
+    // Outbound bytes queued for one slow session before it is closed
+    private int sendBufferSizeLimit = 256 * 1024;
+
+    // Longest a single send may block before the session is closed
+    private int sendTimeLimitMs = 10000;
+
+    // What to do once a session's outbound queue exceeds sendBufferSizeLimit, see OutboundPolicy
+    private OutboundPolicy.OverflowPolicy overflowPolicy = OutboundPolicy.OverflowPolicy.CONFLATE;
+
+    // Frames that may be dropped for a slow session; everything else is critical
+    private List<String> nonCriticalDestinations = new ArrayList<>(Arrays.asList("/queue/**", "/user/queue/**"));
+
+    // State updates where only the latest frame per destination matters
+    private List<String> conflateDestinations = new ArrayList<>(Arrays.asList("/topic/presence/**", "/topic/ticket/*/typing"));
+
+    // STOMP heartbeats the broker offers to send and asks the client for; 0 turns either off
+    private long heartbeatSendMs = 10000;
+    private long heartbeatReceiveMs = 10000;
+
+    // Sessions that sent nothing at all, not even a heartbeat, for this long are closed as dead
+    private long silentTimeoutMs = 90000;
+
+    // Sessions that only exchanged heartbeats for this long are closed as idle; 0 keeps them
+    private long idleTimeoutMs = 3600000;
+
+    private long reapIntervalMs = 30000;
+
+    // Also send chat messages to /user/{uid}/messages for receivers outside the ticket room.
+    // Only clients that predate ticket rooms need it; switch off, then delete, once none connect.
+    private boolean legacyUserDelivery = true;
+
+    public int getMessageSizeLimit() { return messageSizeLimit; }
+    public void setMessageSizeLimit(int messageSizeLimit) { this.messageSizeLimit = messageSizeLimit; }
+    public int getTextBufferSize() { return textBufferSize; }
+    public void setTextBufferSize(int textBufferSize) { this.textBufferSize = textBufferSize; }
+    public int getSendBufferSizeLimit() { return sendBufferSizeLimit; }
+    public void setSendBufferSizeLimit(int sendBufferSizeLimit) { this.sendBufferSizeLimit = sendBufferSizeLimit; }
+    public int getSendTimeLimitMs() { return sendTimeLimitMs; }
+    public void setSendTimeLimitMs(int sendTimeLimitMs) { this.sendTimeLimitMs = sendTimeLimitMs; }
+    public OutboundPolicy.OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+    public void setOverflowPolicy(OutboundPolicy.OverflowPolicy overflowPolicy) { this.overflowPolicy = overflowPolicy; }
+    public List<String> getNonCriticalDestinations() { return nonCriticalDestinations; }
+    public void setNonCriticalDestinations(List<String> nonCriticalDestinations) { this.nonCriticalDestinations = nonCriticalDestinations; }
+    public List<String> getConflateDestinations() { return conflateDestinations; }
+    public void setConflateDestinations(List<String> conflateDestinations) { this.conflateDestinations = conflateDestinations; }
+    public long getHeartbeatSendMs() { return heartbeatSendMs; }
+    public void setHeartbeatSendMs(long heartbeatSendMs) { this.heartbeatSendMs = heartbeatSendMs; }
+    public long getHeartbeatReceiveMs() { return heartbeatReceiveMs; }
+    public void setHeartbeatReceiveMs(long heartbeatReceiveMs) { this.heartbeatReceiveMs = heartbeatReceiveMs; }
+    public long getSilentTimeoutMs() { return silentTimeoutMs; }
+    public void setSilentTimeoutMs(long silentTimeoutMs) { this.silentTimeoutMs = silentTimeoutMs; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public void setIdleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+    public long getReapIntervalMs() { return reapIntervalMs; }
+    public void setReapIntervalMs(long reapIntervalMs) { this.reapIntervalMs = reapIntervalMs; }
+    public boolean isLegacyUserDelivery() { return legacyUserDelivery; }
+    public void setLegacyUserDelivery(boolean legacyUserDelivery) { this.legacyUserDelivery = legacyUserDelivery; }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open sessions, connections and message bytes per transport: {@code native} for the plain
+ * WebSocket endpoint, {@code sockjs-websocket}, {@code sockjs-xhr_streaming},
+ * {@code sockjs-xhr} and so on for SockJS sessions. Payload sizes are those of the messages
+ * the application hands to or gets from the container, so they say nothing about what
+ * permessage-deflate saves on the wire; the container compresses below this layer.
+ */
+@Component
+public class WebSocketTransportMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private static final String ATTR_TRANSPORT = "transport";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> openSessions = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> payloads = new ConcurrentHashMap<>();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                String transport = transportOf(session.getUri());
+                session.getAttributes().put(ATTR_TRANSPORT, transport);
+                openSessions(transport).incrementAndGet();
+                Counter.builder("chat.websocket.connections")
+                        .description("STOMP sessions opened")
+                        .tag("transport", transport)
+                        .register(meterRegistry)
+                        .increment();
+                super.afterConnectionEstablished(new CountingSession(session, payload(transport, "out")));
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                Object transport = session.getAttributes().get(ATTR_TRANSPORT);
+                if (transport != null) {
+                    payload((String) transport, "in").record(message.getPayloadLength());
+                }
+                super.handleMessage(session, message);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                // Removed so a second close callback does not count the session twice
+                Object transport = session.getAttributes().remove(ATTR_TRANSPORT);
+                if (transport != null) {
+                    openSessions((String) transport).decrementAndGet();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // SockJS session URLs end in /{server}/{session}/{transport}
+    static String transportOf(URI uri) {
+        String path = uri == null ? null : uri.getPath();
+        if (path == null || !path.startsWith(WebSocketConfig.SOCKJS_ENDPOINT + "/")) {
+            return "native";
+        }
+        return "sockjs-" + path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private AtomicInteger openSessions(String transport) {
+        return openSessions.computeIfAbsent(transport, key -> {
+            AtomicInteger open = new AtomicInteger();
+            Gauge.builder("chat.websocket.sessions", open, AtomicInteger::get)
+                    .description("Open STOMP sessions")
+                    .tag("transport", key)
+                    .register(meterRegistry);
+            return open;
+        });
+    }
+
+    private DistributionSummary payload(String transport, String direction) {
+        return payloads.computeIfAbsent(transport + "/" + direction, key -> DistributionSummary.builder("chat.websocket.payload")
+                .description("Size of WebSocket message payloads as the application sends and receives them")
+                .baseUnit("bytes")
+                .tag("transport", transport)
+                .tag("direction", direction)
+                .register(meterRegistry));
+    }
+
+    private static class CountingSession extends WebSocketSessionDecorator {
+
+        private final DistributionSummary sent;
+
+        CountingSession(WebSocketSession session, DistributionSummary sent) {
+            super(session);
+            this.sent = sent;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            sent.record(message.getPayloadLength());
+        }
+    }
+}
@@ -1,32 +1,42 @@
 package com.mycompany.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.config.BrokerSubscriptionEvent;
+import com.mycompany.config.ReplayProperties;
+import com.mycompany.config.SessionReaper;
+import com.mycompany.config.StompSessionAuthInterceptor;
+import com.mycompany.config.WebSocketProperties;
 import com.mycompany.dto.CallNotificationDTO;
 import com.mycompany.dto.CallResponseDTO;
 import com.mycompany.dto.ChatMessageDTO;
+import com.mycompany.dto.InboxAckDTO;
 import com.mycompany.dto.WebRTCSignalDTO;
-import com.mycompany.entity.TicketDTO;
 import com.mycompany.model.TicketMessage;
 import com.mycompany.model.TicketMessage.SenderType;
-import com.mycompany.repository.TicketMessageRepository;
+import com.mycompany.service.ChatRoutingState;
 import com.mycompany.service.ChatService;
+import com.mycompany.service.NotificationInbox;
+import com.mycompany.service.SessionMessenger;
+import com.mycompany.service.TicketGrants;
+import com.mycompany.service.TicketRoomRegistry;
+import com.mycompany.service.TicketService;
+import com.mycompany.service.TokenDenylist;
 import com.mycompany.util.JwtUtil;
+import com.mycompany.resilience.PeerUnavailableException;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.slf4j.Logger;
@@ -38,8 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @RestController
@@ -49,6 +57,9 @@ public class ChatController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
 
+    // Session attribute holding the UID handed out when the session connected
+    private static final String ATTR_UID = "uid";
+
     @Autowired
     private ChatService chatService;
 
@@ -56,13 +67,28 @@ public class ChatController {
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private TicketMessageRepository ticketMessageRepository;
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRoomRegistry roomRegistry;
+
+    @Autowired
+    private TicketGrants ticketGrants;
+
+    @Autowired
+    private ReplayProperties replayProperties;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private WebSocketProperties webSocketProperties;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private NotificationInbox inbox;
+
+    @Autowired
+    private SessionMessenger sessionMessenger;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Autowired
     private SimpUserRegistry simpUserRegistry;
@@ -70,17 +96,38 @@ public class ChatController {
     @Autowired
     private JwtUtil jwtUtil;
 
-    private final Map<Long, String> clientUidMap = new ConcurrentHashMap<>();
-    private final Map<Long, String> supportUidMap = new ConcurrentHashMap<>();
-    private final Map<Long, Long> ticketAssignments = new ConcurrentHashMap<>();
-    private final Map<String, Long> activeCalls = new HashMap<>();
-    private final Map<String, String> callJwtTokens = new HashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    @Autowired
+    private ChatRoutingState routingState;
+
+    @Autowired
+    private SessionReaper sessionReaper;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    // Views of the routing state, which is snapshotted and restored across restarts
+    private Map<Long, String> clientUidMap;
+    private Map<Long, String> supportUidMap;
+    private Map<String, Long> activeCalls;
+    // Bearer tokens stay in memory only
+    private final Map<String, String> callJwtTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void bindRoutingState() {
+        clientUidMap = routingState.getClientUidMap();
+        supportUidMap = routingState.getSupportUidMap();
+        activeCalls = routingState.getActiveCalls();
+    }
 
     static {
         logger.info("ChatController loaded - Version 2025-05-14-1720");
     }
 
+    // Tokens revoked through logout or refresh-token reuse are refused like invalid ones
+    private boolean isRevoked(Claims claims) {
+        return tokenDenylist.isRevoked(claims.getId());
+    }
+
     private String generateUniqueUid() {
         String uid;
         int attempts = 0;
@@ -92,19 +139,17 @@ public class ChatController {
                 throw new IllegalStateException("Unable to generate unique UID");
             }
         } while (clientUidMap.containsValue(uid) || supportUidMap.containsValue(uid));
-        logger.info("Generated unique UID: {} after {} attempts", uid, attempts);
+        logger.debug("Generated unique UID after {} attempts", attempts);
         return uid;
     }
 
     @EventListener
     public void handleWebSocketConnect(SessionConnectEvent event) {
-        logger.info("WebSocket connection established: {}", event);
         Map<String, List<String>> headers = event.getMessage().getHeaders().get("nativeHeaders", Map.class);
         if (headers == null) {
             logger.error("No nativeHeaders found in WebSocket connection event");
             return;
         }
-        logger.info("Native headers: {}", headers);
         if (!headers.containsKey("Authorization")) {
             logger.error("No Authorization header found in WebSocket connection");
             return;
@@ -115,58 +160,90 @@ public class ChatController {
             return;
         }
         String authHeader = authHeaders.get(0);
-        logger.info("Authorization header: {}", authHeader);
         if (!authHeader.startsWith("Bearer ")) {
-            logger.error("Invalid Authorization header: {}", authHeader);
+            logger.error("Invalid Authorization header scheme");
             return;
         }
         String token = authHeader.substring(7);
         try {
-            Long userId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
+            Claims claims = jwtUtil.validateToken(token);
+            Long userId = Long.valueOf(claims.get("userId").toString());
+            String role = claims.get("role").toString();
+            if (isRevoked(claims)) {
+                logger.warn("Revoked token on WebSocket connect for userId={}", userId);
+                return;
+            }
             logger.info("WebSocket connected for userId={}, role={}", userId, role);
             String uid = generateUniqueUid();
+            Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+            if (attributes != null) {
+                attributes.put(ATTR_UID, uid);
+            }
             if (role.equalsIgnoreCase("CLIENT")) {
                 clientUidMap.put(userId, uid);
                 supportUidMap.remove(userId);
-                logger.info("Assigned UID={} to client userId={}, clientUidMap size={}", uid, userId, clientUidMap.size());
+                logger.debug("Assigned UID to client userId={}, clientUidMap size={}", userId, clientUidMap.size());
             } else if (role.equalsIgnoreCase("SUPPORT")) {
                 supportUidMap.put(userId, uid);
                 clientUidMap.remove(userId);
-                logger.info("Assigned UID={} to support userId={}, supportUidMap size={}", uid, userId, supportUidMap.size());
+                logger.debug("Assigned UID to support userId={}, supportUidMap size={}", userId, supportUidMap.size());
             } else {
                 logger.error("Unknown role: {}", role);
                 return;
             }
-            scheduler.schedule(() -> {
-                Map<String, String> uidMessage = new HashMap<>();
-                uidMessage.put("uid", uid);
-                messagingTemplate.convertAndSend("/user/" + userId + "/uid", uidMessage);
-                logger.info("Sent UID={} to /user/{}/uid", uid, userId);
-            }, 500, TimeUnit.MILLISECONDS);
+            // The UID goes out once the session has subscribed to /user/{userId}/uid, see handleUidSubscription
         } catch (Exception e) {
             logger.error("Error processing WebSocket connection: {}", e.getMessage());
         }
     }
 
+    @EventListener
+    public void handleUidSubscription(BrokerSubscriptionEvent event) {
+        Map<String, Object> attributes = event.getSessionAttributes();
+        if (attributes == null || !event.getDestination().endsWith("/uid")) {
+            return;
+        }
+        Long userId = (Long) attributes.get(StompSessionAuthInterceptor.ATTR_USER_ID);
+        String role = (String) attributes.get(StompSessionAuthInterceptor.ATTR_ROLE);
+        if (userId == null || !event.getDestination().equals("/user/" + userId + "/uid")) {
+            return;
+        }
+        String uid = "CLIENT".equalsIgnoreCase(role) ? clientUidMap.get(userId)
+                : "SUPPORT".equalsIgnoreCase(role) ? supportUidMap.get(userId) : null;
+        if (uid == null) {
+            logger.warn("No UID assigned yet for {}:{}", role, userId);
+            return;
+        }
+        sessionMessenger.send(event.getSessionId(), event.getSubscriptionId(), event.getDestination(), Map.of("uid", uid));
+        Object connectedAt = attributes.get(StompSessionAuthInterceptor.ATTR_CONNECTED_AT);
+        if (connectedAt instanceof Long) {
+            Timer.builder("chat.session.ready")
+                    .description("Time from STOMP CONNECT until the session has its UID")
+                    .tag("role", String.valueOf(role))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - (Long) connectedAt, TimeUnit.NANOSECONDS);
+        }
+        logger.debug("Sent UID to {} for session {}", event.getDestination(), event.getSessionId());
+    }
+
     @EventListener
     public void handleWebSocketDisconnect(SessionDisconnectEvent event) {
         String sessionId = event.getSessionId();
-        logger.info("WebSocket disconnected for session: {}", sessionId);
-        clientUidMap.entrySet().removeIf(entry -> {
-            if (entry.getValue().equals(sessionId)) {
-                logger.info("Removed client userId={} from clientUidMap", entry.getKey());
-                return true;
-            }
-            return false;
-        });
-        supportUidMap.entrySet().removeIf(entry -> {
-            if (entry.getValue().equals(sessionId)) {
-                logger.info("Removed support userId={} from supportUidMap", entry.getKey());
-                return true;
-            }
-            return false;
-        });
+        logger.info("WebSocket disconnected for session: {} ({})", sessionId, event.getCloseStatus());
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+        String userKey = StompSessionAuthInterceptor.userKey(attributes);
+        if (userKey == null || sessionReaper.hasOpenSession(userKey)) {
+            return;
+        }
+        // The user's last session is gone; keep the UID only if a newer connection already replaced it
+        Long userId = (Long) attributes.get(StompSessionAuthInterceptor.ATTR_USER_ID);
+        String role = (String) attributes.get(StompSessionAuthInterceptor.ATTR_ROLE);
+        Object uid = attributes.get(ATTR_UID);
+        Map<Long, String> uidMap = "CLIENT".equalsIgnoreCase(role) ? clientUidMap
+                : "SUPPORT".equalsIgnoreCase(role) ? supportUidMap : null;
+        if (uidMap != null && uid != null && uidMap.remove(userId, uid)) {
+            logger.info("Removed {} userId={} from the UID map", role, userId);
+        }
     }
 
     @PostMapping("/tickets/assign")
@@ -174,82 +251,25 @@ public class ChatController {
             @RequestParam("ticketId") Long ticketId,
             @RequestParam("supportId") Long supportId,
             HttpServletRequest request) {
-        logger.info("Assigning ticket {} to supportId {}", ticketId, supportId);
-        ticketAssignments.put(ticketId, supportId);
-        logger.info("Updated ticketAssignments: {}", ticketAssignments);
-        notifySupportTicketAssigned(ticketId, supportId);
-    }
-
-    @MessageMapping("/tickets/created")
-    public void handleTicketCreated(Map<String, Object> message) {
-        logger.info("Received WebSocket ticket creation notification on /app/tickets/created: {}", message);
-        processTicket(message);
-    }
-
-    private void processTicket(Map<String, Object> message) {
-        String jwtToken = (String) message.get("jwtToken");
-        logger.debug("Extracted JWT token: {}", jwtToken);
-        if (jwtToken == null || !jwtToken.startsWith("Bearer ")) {
-            logger.error("Missing or invalid JWT token in ticket notification");
-            return;
-        }
-        String token = jwtToken.substring(7);
-        String role;
-        try {
-            role = jwtUtil.getRoleFromToken(token);
-            logger.debug("JWT role extracted: {}", role);
-            if (!role.equals("ADMIN") && !role.equals("SUPPORT") && !role.equals("CLIENT")) {
-                logger.error("Unauthorized role for ticket notification: {}", role);
-                return;
-            }
-        } catch (Exception e) {
-            logger.error("Error validating JWT token: {}", e.getMessage(), e);
-            return;
+        String role = (String) request.getAttribute("role");
+        if (!"ADMIN".equals(role) && !JwtUtil.SERVICE_ROLE.equals(role)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admins and services can assign tickets");
         }
-        logger.debug("Attempting to extract ticket from message: {}", message.get("ticket"));
-        TicketDTO ticketDTO;
+        logger.info("Assigning ticket {} to supportId {}", ticketId, supportId);
+        boolean confirmed;
         try {
-            ticketDTO = objectMapper.convertValue(message.get("ticket"), TicketDTO.class);
-            logger.info("Ticket extracted successfully: id={}, clientId={}, supportTeamId={}, title='{}', description='{}', priority={}, categoryId={}, status={}",
-                    ticketDTO.getId(), ticketDTO.getClientId(), ticketDTO.getSupportTeamId(), ticketDTO.getTitle(),
-                    ticketDTO.getDescription(), ticketDTO.getPriority(), ticketDTO.getCategoryId(), ticketDTO.getStatus());
+            confirmed = ticketService.confirmAssignment(ticketId, supportId);
         } catch (Exception e) {
-            logger.error("Error extracting ticket from message: {}", e.getMessage(), e);
-            return;
+            logger.warn("Could not confirm assignment of ticket {} with ticket-service: {}", ticketId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not confirm the assignment with ticket-service");
         }
-        Long supportTeamId = ticketDTO.getSupportTeamId();
-        logger.debug("Processing supportTeamId: {}", supportTeamId);
-        if (supportTeamId != null && supportTeamId != 0) {
-            String supportUid = supportUidMap.get(supportTeamId);
-            logger.info("Current supportUidMap: {}", supportUidMap);
-            logger.info("Retrieved supportUid={} for supportTeamId={}", supportUid, supportTeamId);
-            if (supportUid != null) {
-                Map<String, Object> notification = new HashMap<>();
-                notification.put("id", ticketDTO.getId());
-                notification.put("clientId", ticketDTO.getClientId());
-                notification.put("supportTeamId", ticketDTO.getSupportTeamId());
-                notification.put("categoryId", ticketDTO.getCategoryId());
-                notification.put("subject", ticketDTO.getTitle());
-                notification.put("description", ticketDTO.getDescription());
-                notification.put("priority", ticketDTO.getPriority());
-                notification.put("status", ticketDTO.getStatus());
-                notification.put("category", ticketDTO.getCategoryId() == 1 ? "Technical" : ticketDTO.getCategoryId() == 2 ? "Billing" : "General");
-                notification.put("unreadCount", 0);
-                notification.put("lastMessageTime", null);
-                String destination = "/user/" + supportUid + "/new-tickets";
-                logger.debug("Preparing to send notification to destination: {}, payload: {}", destination, notification);
-                try {
-                    messagingTemplate.convertAndSend(destination, notification);
-                    logger.info("Successfully sent notification to {} for ticketId={}", destination, ticketDTO.getId());
-                } catch (Exception e) {
-                    logger.error("Failed to send notification to {} for ticketId={}: {}", destination, ticketDTO.getId(), e.getMessage(), e);
-                }
-            } else {
-                logger.warn("No UID found for supportTeamId={} in supportUidMap", supportTeamId);
-            }
-        } else {
-            logger.warn("No supportTeamId assigned to ticketId={}", ticketDTO.getId());
+        if (!confirmed) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Ticket " + ticketId + " is not assigned to supportId " + supportId);
         }
+        routingState.assign(ticketId, supportId);
+        // Replaces the previous agent: grants resolved against the old assignment go
+        ticketGrants.revoke(ticketId);
+        notifySupportTicketAssigned(ticketId, supportId);
     }
 
     @PostMapping("/chat/message")
@@ -273,15 +293,14 @@ public class ChatController {
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid senderType. Must be 'CLIENT' or 'SUPPORT'.");
         }
-        boolean userOwnsTicket = mockCheckTicketOwnership(userIdFromToken, ticketId);
-        if (!userOwnsTicket) {
+        if (!ticketGrants.canAccess(userIdFromToken, role, ticketId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You do not own this ticket");
         }
         ReceiverInfo receiverInfo = getReceiverInfo(ticketId, type);
         if (receiverInfo == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not determine receiver for this ticket");
         }
-        logger.info("Received POST request: ticketId={}, senderId={}, senderType={}, message={}", ticketId, senderId, senderType, message);
+        logger.debug("Received POST request: ticketId={}, senderId={}, senderType={}", ticketId, senderId, senderType);
         TicketMessage savedMessage = chatService.saveMessage(ticketId, senderId, type, receiverInfo.getReceiverId(), receiverInfo.getReceiverType(), message);
         notifySupportNewMessage(ticketId, savedMessage);
         return savedMessage;
@@ -292,17 +311,45 @@ public class ChatController {
             @PathVariable("ticketId") Long ticketId,
             HttpServletRequest request) {
         Long userIdFromToken = (Long) request.getAttribute("userId");
-        boolean userOwnsTicket = mockCheckTicketOwnership(userIdFromToken, ticketId);
-        if (!userOwnsTicket) {
+        String role = (String) request.getAttribute("role");
+        if (!ticketGrants.canAccess(userIdFromToken, role, ticketId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You do not own this ticket");
         }
-        logger.info("Received GET request: ticketId={}", ticketId);
+        logger.debug("Received GET request: ticketId={}", ticketId);
         return chatService.getMessagesByTicketId(ticketId, userIdFromToken);
     }
 
+    @GetMapping(value = "/chat/messages/{ticketId}", params = "afterSeq")
+    public Map<String, Object> getMessagesAfter(
+            @PathVariable("ticketId") Long ticketId,
+            @RequestParam("afterSeq") long afterSeq,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            HttpServletRequest request) {
+        Long userIdFromToken = (Long) request.getAttribute("userId");
+        String role = (String) request.getAttribute("role");
+        if (!ticketGrants.canAccess(userIdFromToken, role, ticketId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You do not own this ticket");
+        }
+        int pageSize = Math.max(1, Math.min(limit, replayProperties.getMaxPageSize()));
+        List<TicketMessage> messages = chatService.getMessagesAfter(ticketId, Math.max(0, afterSeq), pageSize);
+        logger.debug("Catch-up for ticketId={} after seq {}: {} messages", ticketId, afterSeq, messages.size());
+        Map<String, Object> response = new HashMap<>();
+        response.put("messages", messages);
+        response.put("lastSeq", messages.isEmpty() ? afterSeq : messages.get(messages.size() - 1).getSeq());
+        response.put("hasMore", messages.size() == pageSize);
+        return response;
+    }
+
+    // The client has the inbox batch; only now are its notifications removed
+    @MessageMapping("/inbox/ack")
+    public void acknowledgeInbox(InboxAckDTO ack, SimpMessageHeaderAccessor headerAccessor) {
+        String userKey = StompSessionAuthInterceptor.userKey(headerAccessor.getSessionAttributes());
+        inbox.acknowledge(userKey, ack.getIds(), ack.getReadAt());
+    }
+
     @MessageMapping("/messages/{uid}")
     public void sendWebSocketMessage(@DestinationVariable String uid, ChatMessageDTO messageDTO) {
-        logger.info("Received WebSocket message for uid {}: {}", uid, messageDTO.getMessage());
+        logger.debug("Received WebSocket message for ticketId={}", messageDTO.getTicketId());
         String token = messageDTO.getJwtToken();
         if (token == null || !token.startsWith("Bearer ")) {
             logger.error("Missing or invalid JWT token in message");
@@ -310,9 +357,14 @@ public class ChatController {
         }
         token = token.substring(7);
         try {
-            Long userId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
-            logger.info("Extracted userId={}, role={} from JWT", userId, role);
+            Claims claims = jwtUtil.validateToken(token);
+            Long userId = Long.valueOf(claims.get("userId").toString());
+            String role = claims.get("role").toString();
+            if (isRevoked(claims)) {
+                logger.warn("Revoked token in message from userId={}", userId);
+                return;
+            }
+            logger.debug("Extracted userId={}, role={} from JWT", userId, role);
             String expectedUid = role.equals("CLIENT") ? clientUidMap.get(userId) : supportUidMap.get(userId);
             if (expectedUid == null) {
                 logger.warn("No UID found for userId={}, role={}. Attempting to reassign UID.", userId, role);
@@ -320,19 +372,19 @@ public class ChatController {
                 if (role.equals("CLIENT")) {
                     clientUidMap.put(userId, expectedUid);
                     supportUidMap.remove(userId);
-                    logger.info("Reassigned UID={} to client userId={}", expectedUid, userId);
+                    logger.info("Reassigned UID to client userId={}", userId);
                 } else {
                     supportUidMap.put(userId, expectedUid);
                     clientUidMap.remove(userId);
-                    logger.info("Reassigned UID={} to support userId={}", expectedUid, userId);
+                    logger.info("Reassigned UID to support userId={}", userId);
                 }
                 Map<String, String> uidMessage = new HashMap<>();
                 uidMessage.put("uid", expectedUid);
                 messagingTemplate.convertAndSend("/user/" + userId + "/uid", uidMessage);
-                logger.info("Sent reassigned UID={} to /user/{}/uid", expectedUid, userId);
+                logger.debug("Sent reassigned UID to /user/{}/uid", userId);
             }
             if (!uid.equals(expectedUid)) {
-                logger.error("UID mismatch: received={}, expected={}", uid, expectedUid);
+                logger.error("UID mismatch for userId={}", userId);
                 return;
             }
             if (role.equals("CLIENT") && supportUidMap.containsKey(userId)) {
@@ -347,22 +399,13 @@ public class ChatController {
                 logger.error("Missing ticketId in message");
                 return;
             }
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-            logger.info("Making request to ticket service with headers: {}", headers);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://tickets.prjsdr.xyz/api/ticket/" + ticketId,
-                HttpMethod.GET,
-                entity,
-                String.class
-            );
-            String ticketResponse = response.getBody();
-            logger.info("Received response from ticket service: {}", ticketResponse);
-            JsonNode root = objectMapper.readTree(ticketResponse);
-            Long supportTeamId = root.path("ticket").path("supportTeamId").asLong();
-            Long clientId = root.path("ticket").path("clientId").asLong();
-            logger.info("Ticket service response: ticketId={}, supportTeamId={}, clientId={}", ticketId, supportTeamId, clientId);
+            TicketService.Participants participants = ticketGrants.participantsFor(userId, role, ticketId);
+            if (participants == null) {
+                logger.warn("{}:{} is not a participant of ticketId={}", role, userId, ticketId);
+                return;
+            }
+            Long supportTeamId = participants.getSupportTeamId();
+            Long clientId = participants.getClientId();
             TicketMessage message = new TicketMessage();
             message.setTicketId(ticketId);
             message.setSenderId(userId);
@@ -377,57 +420,62 @@ public class ChatController {
             message.setMessage(messageDTO.getMessage());
             message.setCreatedAt(LocalDateTime.now());
             message.setIsRead(false);
-            chatService.saveMessage(message);
-            String senderUid = role.equals("CLIENT") ? clientUidMap.get(userId) : supportUidMap.get(userId);
-            if (senderUid != null) {
-                messagingTemplate.convertAndSend("/user/" + senderUid + "/messages", message);
-                logger.info("Sent message to sender: userId={}, uid={}", userId, senderUid);
-            } else {
-                logger.warn("Sender UID not found for userId={}", userId);
-            }
-            String receiverUid = null;
-            Long receiverId = null;
-            if (role.equals("CLIENT")) {
-                receiverId = supportTeamId;
-                Long assignedSupportId = ticketAssignments.get(ticketId);
-                logger.info("Checking support receiver: ticketId={}, supportTeamId={}, assignedSupportId={}, ticketAssignments={}", ticketId, supportTeamId, assignedSupportId, ticketAssignments);
-                if (assignedSupportId == null) {
-                    logger.warn("No assigned support for ticketId={}. Using supportTeamId={} from ticket service.", ticketId, supportTeamId);
-                    assignedSupportId = supportTeamId;
-                    ticketAssignments.put(ticketId, assignedSupportId);
-                    logger.info("Updated ticketAssignments: {}", ticketAssignments);
-                }
-                if (assignedSupportId.equals(supportTeamId)) {
-                    receiverUid = supportUidMap.get(supportTeamId);
-                }
-            } else {
-                receiverId = clientId;
-                if (mockCheckTicketOwnership(clientId, ticketId)) {
-                    receiverUid = clientUidMap.get(clientId);
-                }
+            message = chatService.saveMessage(message);
+
+            // One publish reaches everyone in the room (client, agents, supervisors); they
+            // were authorized when they subscribed, so nothing is looked up per recipient here.
+            messagingTemplate.convertAndSend(TicketRoomRegistry.roomDestination(ticketId), message);
+            logger.debug("Published message to room of ticketId={}", ticketId);
+
+            boolean legacy = webSocketProperties.isLegacyUserDelivery();
+            if (legacy && !roomRegistry.isPresent(ticketId, role + ":" + userId)) {
+                sendLegacyMessage(message, role, userId, false);
             }
-            if (receiverUid != null) {
-                messagingTemplate.convertAndSend("/user/" + receiverUid + "/messages", message);
-                messagingTemplate.convertAndSendToUser(
-                    receiverId.toString(),
-                    "/queue/notifications",
-                    Map.of(
-                        "type", "NEW_MESSAGE",
-                        "ticketId", ticketId,
-                        "message", messageDTO.getMessage(),
-                        "senderId", userId,
-                        "senderType", role
-                    )
-                );
-                logger.info("Sent message to receiver: receiverId={}, uid={}", receiverId, receiverUid);
-            } else {
-                logger.warn("No valid receiver UID found for receiverId={} for ticketId={}, supportUidMap={}, ticketAssignments={}", receiverId, ticketId, supportUidMap, ticketAssignments);
+            String receiverKey = message.getReceiverType() + ":" + message.getReceiverId();
+            if (roomRegistry.isPresent(ticketId, receiverKey)) {
+                logger.debug("Receiver {} is in the room of ticketId={}", receiverKey, ticketId);
+            } else if (!legacy || !sendLegacyMessage(message, message.getReceiverType().name(), message.getReceiverId(), true)) {
+                logger.info("Receiver {} of ticketId={} is not in the room, keeping the message in their inbox", receiverKey, ticketId);
+                inbox.store(receiverKey, NotificationInbox.NEW_MESSAGE, ticketId, messagePreview(message));
             }
+        } catch (PeerUnavailableException e) {
+            logDropped("message", e);
         } catch (Exception e) {
             logger.error("Error processing message: {}", e.getMessage());
         }
     }
 
+    // The frame needed ticket-service, which is failing or overloaded; one line per dropped
+    // frame, since a stack trace for each would only add noise
+    private static void logDropped(String frame, PeerUnavailableException e) {
+        logger.warn("Dropped {}: {}", frame, e.getMessage());
+    }
+
+    // Clients that never join ticket rooms read /user/{uid}/messages instead; goes away with
+    // chat.websocket.legacy-user-delivery. Returns whether the user had a destination.
+    private boolean sendLegacyMessage(TicketMessage message, String role, Long userId, boolean notify) {
+        String uid = role.equals("CLIENT") ? clientUidMap.get(userId) : supportUidMap.get(userId);
+        if (uid == null) {
+            return false;
+        }
+        messagingTemplate.convertAndSend("/user/" + uid + "/messages", message);
+        if (notify) {
+            messagingTemplate.convertAndSendToUser(
+                userId.toString(),
+                "/queue/notifications",
+                Map.of(
+                    "type", "NEW_MESSAGE",
+                    "ticketId", message.getTicketId(),
+                    "message", message.getMessage(),
+                    "senderId", message.getSenderId(),
+                    "senderType", message.getSenderType().name()
+                )
+            );
+            logger.debug("Sent message to receiver: receiverId={}", userId);
+        }
+        return true;
+    }
+
     private void notifySupportTicketAssigned(Long ticketId, Long supportId) {
         Map<String, Object> notification = new HashMap<>();
         notification.put("ticketId", ticketId);
@@ -437,34 +485,46 @@ public class ChatController {
             messagingTemplate.convertAndSend("/user/" + supportUid + "/tickets", notification);
             logger.info("Notified supportId {} of new ticket assignment: ticketId={}", supportId, ticketId);
         } else {
-            logger.warn("No UID found for supportId={}", supportId);
+            logger.info("supportId={} is offline, keeping the assignment of ticketId={} in their inbox", supportId, ticketId);
+            inbox.store("SUPPORT:" + supportId, NotificationInbox.TICKET_ASSIGNED, ticketId, notification);
         }
     }
 
     private void notifySupportNewMessage(Long ticketId, TicketMessage message) {
-        Long supportId = ticketAssignments.get(ticketId);
+        messagingTemplate.convertAndSend(TicketRoomRegistry.roomDestination(ticketId), message);
+        Long supportId = routingState.getAssignedSupport(ticketId);
         if (supportId == null) {
-            logger.warn("No support assigned to ticketId={} in ticketAssignments", ticketId);
+            logger.warn("No support assigned to ticketId={} in the routing state", ticketId);
+            return;
+        }
+        if (roomRegistry.isPresent(ticketId, "SUPPORT:" + supportId)) {
             return;
         }
         String supportUid = supportUidMap.get(supportId);
         if (supportUid != null) {
             messagingTemplate.convertAndSend("/user/" + supportUid + "/messages", message);
-            logger.info("Notified supportId {} of new message in ticketId={}", supportId, ticketId);
+            logger.debug("Notified supportId {} of new message in ticketId={}", supportId, ticketId);
         } else {
-            logger.warn("No UID found for supportId={}", supportId);
+            logger.info("supportId={} is offline, keeping the message in their inbox", supportId);
+            inbox.store("SUPPORT:" + supportId, NotificationInbox.NEW_MESSAGE, ticketId, messagePreview(message));
         }
     }
 
-    private boolean mockCheckTicketOwnership(Long userId, Long ticketId) {
-        List<TicketMessage> messages = ticketMessageRepository.findByTicketIdAndUserId(ticketId, userId);
-        return !messages.isEmpty();
+    // What the inbox keeps of a chat message: who sent it and the start of the text
+    private Map<String, Object> messagePreview(TicketMessage message) {
+        String text = message.getMessage() == null ? "" : message.getMessage();
+        Map<String, Object> preview = new HashMap<>();
+        preview.put("senderId", message.getSenderId());
+        preview.put("senderType", message.getSenderType());
+        preview.put("seq", message.getSeq());
+        preview.put("preview", text.length() > 140 ? text.substring(0, 140) : text);
+        return preview;
     }
 
     private ReceiverInfo getReceiverInfo(Long ticketId, SenderType senderType) {
-        Long assignedSupportId = ticketAssignments.get(ticketId);
+        Long assignedSupportId = routingState.getAssignedSupport(ticketId);
         if (assignedSupportId == null) {
-            logger.warn("No support assigned to ticketId={} in ticketAssignments", ticketId);
+            logger.warn("No support assigned to ticketId={} in the routing state", ticketId);
             return null;
         }
         if (senderType == SenderType.CLIENT) {
@@ -502,8 +562,13 @@ public class ChatController {
                 return;
             }
             token = token.substring(7);
-            Long callerId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
+            Claims claims = jwtUtil.validateToken(token);
+            Long callerId = Long.valueOf(claims.get("userId").toString());
+            String role = claims.get("role").toString();
+            if (isRevoked(claims)) {
+                logger.warn("Revoked token in call notification from callerId={}", callerId);
+                return;
+            }
             logger.info("JWT extracted: callerId={}, role={}, notification: callerId={}, callerType={}",
                     callerId, role, callNotification.getCallerId(), callNotification.getCallerType());
             if (!callerId.equals(callNotification.getCallerId()) || !role.equalsIgnoreCase(callNotification.getCallerType())) {
@@ -511,21 +576,9 @@ public class ChatController {
                         callerId, callNotification.getCallerId(), role, callNotification.getCallerType());
                 return;
             }
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-            logger.info("Making request to ticket service with headers: {}", headers);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://tickets.prjsdr.xyz/api/ticket/" + ticketId,
-                HttpMethod.GET,
-                entity,
-                String.class
-            );
-            String ticketResponse = response.getBody();
-            logger.info("Received response from ticket service: {}", ticketResponse);
-            JsonNode root = objectMapper.readTree(ticketResponse);
-            Long supportId = root.path("ticket").path("supportTeamId").asLong();
-            Long clientId = root.path("ticket").path("clientId").asLong();
+            TicketService.Participants participants = ticketService.getParticipants(ticketId);
+            Long supportId = participants.getSupportTeamId();
+            Long clientId = participants.getClientId();
             if (supportId == null || supportId == 0) {
                 logger.error("No support agent assigned to ticket {}", ticketId);
                 return;
@@ -548,8 +601,12 @@ public class ChatController {
                 );
                 logger.info("Notified supportId {} of incoming call: callId={}", supportId, callId);
             } else {
-                
+                logger.info("supportId={} is offline, recording a missed call on ticketId={}", supportId, ticketId);
+                inbox.store("SUPPORT:" + supportId, NotificationInbox.MISSED_CALL, ticketId,
+                        Map.of("callerId", callerId, "callId", callId));
             }
+        } catch (PeerUnavailableException e) {
+            logDropped("call initiation", e);
         } catch (Exception e) {
             logger.error("Error processing call initiation: {}", e.getMessage());
         }
@@ -571,21 +628,9 @@ public class ChatController {
                 logger.error("No JWT token available for callId {}", callId);
                 return;
             }
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", jwtToken);
-            logger.info("Making request to ticket service with headers: {}", headers);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://tickets.prjsdr.xyz/api/ticket/" + ticketId,
-                HttpMethod.GET,
-                entity,
-                String.class
-            );
-            String ticketResponse = response.getBody();
-            logger.info("Received response from ticket service: {}", ticketResponse);
-            JsonNode root = objectMapper.readTree(ticketResponse);
-            Long clientId = root.path("ticket").path("clientId").asLong();
-            Long supportId = root.path("ticket").path("supportTeamId").asLong();
+            TicketService.Participants participants = ticketService.getParticipants(ticketId);
+            Long clientId = participants.getClientId();
+            Long supportId = participants.getSupportTeamId();
             if (clientId == null || clientId == 0) {
                 logger.error("No client found for ticket {}", ticketId);
                 return;
@@ -635,6 +680,8 @@ public class ChatController {
                 callJwtTokens.remove(callId);
                 logger.info("Call {} rejected and removed", callId);
             }
+        } catch (PeerUnavailableException e) {
+            logDropped("call response for callId " + callId, e);
         } catch (Exception e) {
             logger.error("Error processing call response: {}", e.getMessage());
         }
@@ -644,7 +691,7 @@ public class ChatController {
     public void handleWebRTCSignal(
             @DestinationVariable String callId,
             WebRTCSignalDTO signal) {
-        logger.info("Received WebRTC signal for callId {}: type={}", callId, signal.getType());
+        logger.debug("Received WebRTC signal for callId {}: type={}", callId, signal.getType());
         Long ticketId = activeCalls.get(callId);
         if (ticketId == null) {
             logger.error("No active call found for callId {}", callId);
@@ -658,7 +705,7 @@ public class ChatController {
                     "/ticket/" + ticketId + "/call/signal",
                     signal
             );
-            logger.info("Sent WebRTC signal to userId {}", toUserId);
+            logger.debug("Sent WebRTC signal to userId {}", toUserId);
         } else {
             logger.warn("No UID found for toUserId={}", toUserId);
         }
@@ -679,21 +726,9 @@ public class ChatController {
                 logger.error("No JWT token available for callId {}", callId);
                 return;
             }
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", jwtToken);
-            logger.info("Making request to ticket service with headers: {}", headers);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://tickets.prjsdr.xyz/api/ticket/" + ticketId,
-                HttpMethod.GET,
-                entity,
-                String.class
-            );
-            String ticketResponse = response.getBody();
-            logger.info("Received response from ticket service: {}", ticketResponse);
-            JsonNode root = objectMapper.readTree(ticketResponse);
-            Long supportId = root.path("ticket").path("supportTeamId").asLong();
-            Long clientId = root.path("ticket").path("clientId").asLong();
+            TicketService.Participants participants = ticketService.getParticipants(ticketId);
+            Long supportId = participants.getSupportTeamId();
+            Long clientId = participants.getClientId();
             CallNotificationDTO notification = new CallNotificationDTO();
             notification.setCallId(callId);
             notification.setJwtToken(null);
@@ -716,6 +751,8 @@ public class ChatController {
             activeCalls.remove(callId);
             callJwtTokens.remove(callId);
             logger.info("Call {} ended and removed", callId);
+        } catch (PeerUnavailableException e) {
+            logDropped("call end for callId " + callId, e);
         } catch (Exception e) {
             logger.error("Error processing call end: {}", e.getMessage());
         }
@@ -0,0 +1,32 @@
+package com.mycompany.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Sent by the client to /app/inbox/ack once it has an inbox batch: the ids of the
+ * notifications in it and the batch's readAt.
+ */
+public class InboxAckDTO implements Serializable {
+    private List<Long> ids;
+    private long readAt;
+
+    public InboxAckDTO() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public long getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(long readAt) {
+        this.readAt = readAt;
+    }
+}
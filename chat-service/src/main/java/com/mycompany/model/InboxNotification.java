@@ -0,0 +1,60 @@
+package com.mycompany.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A notification that could not be delivered because its recipient was offline. Repeats of
+ * the same kind for the same ticket are folded into one row with a running count.
+ */
+@Entity
+@Table(name = "inbox_notification",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inbox_recipient_type_ticket",
+                columnNames = {"recipient", "type", "ticket_id"}),
+        indexes = @Index(name = "idx_inbox_updated_at", columnList = "updated_at"))
+public class InboxNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Same form as the STOMP user key, e.g. "SUPPORT:12"
+    @Column(name = "recipient", nullable = false, length = 40)
+    private String recipient;
+
+    @Column(name = "type", nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "count", nullable = false)
+    private int count;
+
+    // Latest payload, kept as JSON
+    @Column(name = "payload", length = 2000)
+    private String payload;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public InboxNotification() {
+    }
+
+    public InboxNotification(String recipient, String type, Long ticketId) {
+        this.recipient = recipient;
+        this.type = type;
+        this.ticketId = ticketId;
+    }
+
+    public Long getId() { return id; }
+    public String getRecipient() { return recipient; }
+    public String getType() { return type; }
+    public Long getTicketId() { return ticketId; }
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
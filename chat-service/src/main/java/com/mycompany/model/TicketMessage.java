@@ -8,7 +8,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ticket_message")
+@Table(name = "ticket_message",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ticket_message_seq", columnNames = {"ticket_id", "seq"}))
 public class TicketMessage {
 
     @Id
@@ -18,6 +19,10 @@ public class TicketMessage {
     @Column(name = "ticket_id", nullable = false)
     private Long ticketId;
 
+    // Position of the message within its ticket, starting at 1
+    @Column(name = "seq")
+    private Long seq;
+
     @Column(name = "sender_id", nullable = false)
     private Long senderId;
 
@@ -79,6 +84,14 @@ public class TicketMessage {
         this.ticketId = ticketId;
     }
 
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
     public Long getSenderId() {
         return senderId;
     }
@@ -0,0 +1,53 @@
+package com.mycompany.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The last sequence number handed out for a ticket's messages. Writers lock the row for the
+ * length of their transaction, so every chat-service instance numbers a ticket's messages
+ * from the same counter.
+ */
+@Entity
+@Table(name = "ticket_message_seq")
+public class TicketMessageSeq implements Persistable<Long> {
+
+    @Id
+    @Column(name = "ticket_id")
+    private Long ticketId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    // A counter built here is always inserted, never merged: merging one whose row another
+    // instance created meanwhile would turn into an UPDATE that resets that row
+    @Transient
+    private boolean isNew = true;
+
+    public TicketMessageSeq() {
+    }
+
+    public TicketMessageSeq(Long ticketId, long lastSeq) {
+        this.ticketId = ticketId;
+        this.lastSeq = lastSeq;
+    }
+
+    public long next() {
+        return ++lastSeq;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        isNew = false;
+    }
+
+    @Override
+    public Long getId() { return ticketId; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public Long getTicketId() { return ticketId; }
+    public long getLastSeq() { return lastSeq; }
+}
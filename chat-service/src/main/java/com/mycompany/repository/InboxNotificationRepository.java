@@ -0,0 +1,31 @@
+package com.mycompany.repository;
+
+import com.mycompany.model.InboxNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InboxNotificationRepository extends JpaRepository<InboxNotification, Long> {
+
+    Optional<InboxNotification> findByRecipientAndTypeAndTicketId(String recipient, String type, Long ticketId);
+
+    List<InboxNotification> findByRecipientOrderByUpdatedAtAsc(String recipient);
+
+    long countByRecipient(String recipient);
+
+    @Modifying
+    @Query("DELETE FROM InboxNotification n WHERE n.recipient = :recipient AND n.id IN :ids AND n.updatedAt <= :readAt")
+    int deleteDelivered(@Param("recipient") String recipient, @Param("ids") List<Long> ids,
+                        @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM InboxNotification n WHERE n.updatedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
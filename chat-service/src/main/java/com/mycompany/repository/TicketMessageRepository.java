@@ -2,6 +2,7 @@
 package com.mycompany.repository;
 
 import com.mycompany.model.TicketMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,4 +16,17 @@ public interface TicketMessageRepository extends JpaRepository<TicketMessage, Lo
 
     @Query("SELECT m FROM TicketMessage m WHERE m.ticketId = :ticketId AND (m.senderId = :userId OR m.receiverId = :userId)")
     List<TicketMessage> findByTicketIdAndUserId(@Param("ticketId") Long ticketId, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(MAX(m.seq), 0) FROM TicketMessage m WHERE m.ticketId = :ticketId")
+    long findMaxSeq(@Param("ticketId") Long ticketId);
+
+    @Query("SELECT m FROM TicketMessage m WHERE m.ticketId = :ticketId AND m.seq > :afterSeq ORDER BY m.seq ASC")
+    List<TicketMessage> findPageAfterSeq(@Param("ticketId") Long ticketId, @Param("afterSeq") Long afterSeq, Pageable pageable);
+
+    // Rows written before messages were numbered, oldest first
+    @Query("SELECT m FROM TicketMessage m WHERE m.ticketId = :ticketId AND m.seq IS NULL ORDER BY m.id ASC")
+    List<TicketMessage> findUnsequenced(@Param("ticketId") Long ticketId);
+
+    @Query("SELECT DISTINCT m.ticketId FROM TicketMessage m WHERE m.seq IS NULL")
+    List<Long> findTicketIdsWithUnsequenced();
+}
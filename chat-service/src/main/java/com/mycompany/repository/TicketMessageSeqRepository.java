@@ -0,0 +1,23 @@
+package com.mycompany.repository;
+
+import com.mycompany.model.TicketMessageSeq;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TicketMessageSeqRepository extends JpaRepository<TicketMessageSeq, Long> {
+
+    // SELECT ... FOR UPDATE; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TicketMessageSeq s WHERE s.ticketId = :ticketId")
+    Optional<TicketMessageSeq> findForUpdate(@Param("ticketId") Long ticketId);
+
+    @Query("SELECT s.lastSeq FROM TicketMessageSeq s WHERE s.ticketId = :ticketId")
+    Optional<Long> findLastSeq(@Param("ticketId") Long ticketId);
+}
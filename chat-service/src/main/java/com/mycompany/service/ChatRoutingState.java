@@ -0,0 +1,206 @@
+package com.mycompany.service;
+
+import com.mycompany.config.SnapshotProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The routing state chat-service builds up while running: session UIDs, ticket assignments,
+ * active calls and what it knows about each ticket's participants. Everything but the UIDs
+ * is written to a local snapshot periodically and on shutdown, and read back while the
+ * context starts, i.e. before the WebSocket endpoint accepts connections.
+ * <p>
+ * UIDs only mean someone is online while their session lives; a restored one would make an
+ * offline user look connected and send their notifications past the inbox. Every client gets
+ * a new UID when it reconnects. Call JWTs are not part of the snapshot either; bearer tokens
+ * do not go to disk.
+ */
+@Component
+public class ChatRoutingState {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoutingState.class);
+
+    private static final int MAGIC = 0x43525334; // "CRS4"
+
+    private final Map<Long, String> clientUidMap = new ConcurrentHashMap<>();
+    private final Map<Long, String> supportUidMap = new ConcurrentHashMap<>();
+    private final Map<Long, Assignment> ticketAssignments = new ConcurrentHashMap<>();
+    private final Map<String, Long> activeCalls = new ConcurrentHashMap<>();
+    private final Map<Long, TicketService.Participants> participants = new ConcurrentHashMap<>();
+
+    @Autowired
+    private SnapshotProperties properties;
+
+    public Map<Long, String> getClientUidMap() { return clientUidMap; }
+    public Map<Long, String> getSupportUidMap() { return supportUidMap; }
+    public Map<String, Long> getActiveCalls() { return activeCalls; }
+
+    /**
+     * The support agent the ticket was last assigned to through chat-service, or {@code null}.
+     */
+    public Long getAssignedSupport(Long ticketId) {
+        Assignment assignment = ticketAssignments.get(ticketId);
+        return assignment != null ? assignment.supportId : null;
+    }
+
+    public void assign(Long ticketId, Long supportId) {
+        ticketAssignments.put(ticketId, new Assignment(supportId, System.currentTimeMillis()));
+    }
+
+    /**
+     * Cached participants of a ticket, or {@code null} when unknown or older than the TTL and
+     * therefore due for revalidation against ticket-service.
+     */
+    public TicketService.Participants getParticipants(Long ticketId) {
+        TicketService.Participants cached = participants.get(ticketId);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - cached.getFetchedAt() > properties.getParticipantsTtlSeconds() * 1000) {
+            participants.remove(ticketId, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    public void putParticipants(Long ticketId, TicketService.Participants ticketParticipants) {
+        participants.put(ticketId, ticketParticipants);
+    }
+
+    public void evictParticipants(Long ticketId) {
+        participants.remove(ticketId);
+    }
+
+    @PostConstruct
+    public void restore() {
+        Path file = Paths.get(properties.getPath());
+        if (!properties.isEnabled() || !Files.isReadable(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                logger.warn("Ignoring routing snapshot {} with unknown format", file);
+                return;
+            }
+            long writtenAt = in.readLong();
+            long ageMs = System.currentTimeMillis() - writtenAt;
+
+            // Assignments and participants older than the TTL may since have changed on ticket-service
+            long staleBefore = System.currentTimeMillis() - properties.getParticipantsTtlSeconds() * 1000;
+            int stale = 0;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                long ticketId = in.readLong();
+                Assignment assignment = new Assignment(in.readLong(), in.readLong());
+                if (assignment.assignedAt < staleBefore) {
+                    stale++;
+                } else {
+                    ticketAssignments.put(ticketId, assignment);
+                }
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                activeCalls.put(in.readUTF(), in.readLong());
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                long ticketId = in.readLong();
+                TicketService.Participants entry = new TicketService.Participants(in.readLong(), in.readLong(), in.readLong());
+                if (entry.getFetchedAt() < staleBefore) {
+                    stale++;
+                } else {
+                    participants.put(ticketId, entry);
+                }
+            }
+            logger.info("Restored routing snapshot written {} s ago: {} assignments, {} calls, {} tickets ({} stale dropped)",
+                    ageMs / 1000, ticketAssignments.size(), activeCalls.size(), participants.size(), stale);
+        } catch (IOException e) {
+            logger.warn("Could not read routing snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.snapshot.interval-ms:30000}", initialDelayString = "${chat.snapshot.interval-ms:30000}")
+    public void snapshot() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path file = Paths.get(properties.getPath());
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "chat-routing", ".tmp");
+            try {
+                write(tmp);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Only still there if writing or moving it failed
+                Files.deleteIfExists(tmp);
+            }
+            logger.debug("Wrote routing snapshot {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not write routing snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void write(Path tmp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(MAGIC);
+            out.writeLong(System.currentTimeMillis());
+            Map<Long, Assignment> assignments = Map.copyOf(ticketAssignments);
+            out.writeInt(assignments.size());
+            for (Map.Entry<Long, Assignment> e : assignments.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeLong(e.getValue().supportId);
+                out.writeLong(e.getValue().assignedAt);
+            }
+            Map<String, Long> calls = Map.copyOf(activeCalls);
+            out.writeInt(calls.size());
+            for (Map.Entry<String, Long> e : calls.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            Map<Long, TicketService.Participants> known = Map.copyOf(participants);
+            out.writeInt(known.size());
+            for (Map.Entry<Long, TicketService.Participants> e : known.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeLong(e.getValue().getClientId());
+                out.writeLong(e.getValue().getSupportTeamId());
+                out.writeLong(e.getValue().getFetchedAt());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private static class Assignment {
+        private final long supportId;
+        private final long assignedAt;
+
+        private Assignment(long supportId, long assignedAt) {
+            this.supportId = supportId;
+            this.assignedAt = assignedAt;
+        }
+    }
+}
@@ -3,11 +3,15 @@ package com.mycompany.service;
 import com.mycompany.model.TicketMessage;
 import com.mycompany.model.TicketMessage.SenderType;
 import com.mycompany.repository.TicketMessageRepository;
+import com.mycompany.repository.TicketMessageSeqRepository;
 import java.time.LocalDateTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class ChatService {
@@ -15,6 +19,12 @@ public class ChatService {
     @Autowired
     private TicketMessageRepository ticketMessageRepository;
 
+    @Autowired
+    private TicketMessageSeqRepository ticketMessageSeqRepository;
+
+    @Autowired
+    private TicketMessageStreams streams;
+
     /**
      * Saves a new message for a ticket (used by REST API and WebSocket).
      *
@@ -36,7 +46,7 @@ public class ChatService {
         ticketMessage.setMessage(message);
         ticketMessage.setCreatedAt(LocalDateTime.now());
         ticketMessage.setIsRead(false);
-        return ticketMessageRepository.save(ticketMessage);
+        return streams.append(ticketMessage);
     }
 
     /**
@@ -53,7 +63,7 @@ public class ChatService {
         if (message.getIsRead() == null) {
             message.setIsRead(false);
         }
-        return ticketMessageRepository.save(message);
+        return streams.append(message);
     }
 
     /**
@@ -63,7 +73,29 @@ public class ChatService {
      * @param userId   The ID of the user requesting the messages.
      * @return A list of TicketMessage objects for the ticket.
      */
+    @Transactional(readOnly = true)
     public List<TicketMessage> getMessagesByTicketId(Long ticketId, Long userId) {
         return ticketMessageRepository.findByTicketIdAndUserId(ticketId, userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the messages of a ticket after a given sequence number, oldest first. Callers
+     * check access to the ticket; every message in it is returned. Served from the in-memory
+     * replay ring when it still covers the gap, otherwise read from the database one page at a
+     * time.
+     *
+     * @param ticketId The ID of the ticket.
+     * @param afterSeq The last sequence number the caller has seen.
+     * @param limit    The maximum number of messages to return.
+     * @return Up to {@code limit} TicketMessage objects.
+     */
+    @Transactional(readOnly = true)
+    public List<TicketMessage> getMessagesAfter(Long ticketId, long afterSeq, int limit) {
+        Optional<Long> latestSeq = ticketMessageSeqRepository.findLastSeq(ticketId);
+        List<TicketMessage> gap = latestSeq.isPresent() ? streams.replay(ticketId, afterSeq, latestSeq.get()) : null;
+        if (gap != null) {
+            return gap.size() > limit ? gap.subList(0, limit) : gap;
+        }
+        return ticketMessageRepository.findPageAfterSeq(ticketId, afterSeq, PageRequest.of(0, limit));
+    }
+}
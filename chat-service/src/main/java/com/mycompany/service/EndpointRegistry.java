@@ -0,0 +1,44 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ResilienceProperties;
+import com.mycompany.resilience.Endpoint;
+import com.mycompany.resilience.EndpointPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Instances of each peer service, from the static lists in {@link ResilienceProperties}.
+ * Picks the available instance with the fewest outstanding requests and probes every
+ * instance periodically.
+ */
+@Service
+public class EndpointRegistry extends EndpointPool {
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        properties.getPeers().forEach((peer, settings) -> {
+            for (Endpoint endpoint : register(peer, settings.getInstances())) {
+                Gauge.builder("chat.peer.outstanding", endpoint, Endpoint::getOutstanding)
+                        .description("Requests in flight to a peer service instance")
+                        .tag("peer", peer)
+                        .tag("instance", endpoint.getBaseUrl())
+                        .register(meterRegistry);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.resilience.health-check-interval-ms:10000}")
+    public void checkHealth() {
+        checkHealth(peer -> properties.peer(peer).getHealthPath());
+    }
+}
@@ -0,0 +1,180 @@
+package com.mycompany.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.config.BrokerSubscriptionEvent;
+import com.mycompany.config.InboxProperties;
+import com.mycompany.model.InboxNotification;
+import com.mycompany.repository.InboxNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps notifications for users who were offline when they were raised, and hands them over
+ * in one batch when the user's session subscribes to {@link #DESTINATION}. Delivery is at
+ * least once: rows are removed only when the client acknowledges the batch.
+ */
+@Service
+public class NotificationInbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationInbox.class);
+
+    public static final String DESTINATION = "/topic/inbox";
+
+    public static final String TICKET_CREATED = "TICKET_CREATED";
+    public static final String TICKET_ASSIGNED = "TICKET_ASSIGNED";
+    public static final String NEW_MESSAGE = "NEW_MESSAGE";
+    public static final String MISSED_CALL = "MISSED_CALL";
+
+    private static final int MAX_PAYLOAD_LENGTH = 2000;
+
+    @Autowired
+    private InboxNotificationRepository repository;
+
+    @Autowired
+    private InboxProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SessionMessenger sessionMessenger;
+
+    /**
+     * Stores a notification for {@code recipient} ("ROLE:id"). A notification of the same type
+     * for the same ticket replaces the stored payload and bumps its count.
+     */
+    public void store(String recipient, String type, Long ticketId, Map<String, Object> payload) {
+        try {
+            String json = payload == null ? null : objectMapper.writeValueAsString(payload);
+            if (json != null && json.length() > MAX_PAYLOAD_LENGTH) {
+                logger.warn("Dropping oversized {} payload for {} on ticket {}", type, recipient, ticketId);
+                json = null;
+            }
+            String storedPayload = json;
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsert(recipient, type, ticketId, storedPayload));
+            } catch (DataIntegrityViolationException e) {
+                // Lost an insert race against another node or thread; the row exists now
+                transactionTemplate.executeWithoutResult(status -> upsert(recipient, type, ticketId, storedPayload));
+            }
+        } catch (Exception e) {
+            logger.error("Could not store {} for {} on ticket {}: {}", type, recipient, ticketId, e.getMessage());
+        }
+    }
+
+    private void upsert(String recipient, String type, Long ticketId, String payload) {
+        InboxNotification notification = repository.findByRecipientAndTypeAndTicketId(recipient, type, ticketId)
+                .orElseGet(() -> new InboxNotification(recipient, type, ticketId));
+        boolean created = notification.getId() == null;
+        notification.setCount(notification.getCount() + 1);
+        notification.setPayload(payload);
+        notification.setUpdatedAt(LocalDateTime.now());
+        repository.save(notification);
+        if (created && repository.countByRecipient(recipient) > properties.getMaxPerUser()) {
+            List<InboxNotification> stored = repository.findByRecipientOrderByUpdatedAtAsc(recipient);
+            repository.deleteAll(stored.subList(0, stored.size() - properties.getMaxPerUser()));
+        }
+        logger.debug("Stored {} for offline {} on ticket {}", type, recipient, ticketId);
+    }
+
+    /**
+     * Everything stored for the recipient, oldest first, shaped for the client: id, type,
+     * ticketId, count, updatedAt and the latest payload as data. Nothing is removed here; the
+     * client acknowledges the batch once it has it, see {@link #acknowledge}.
+     */
+    public List<Map<String, Object>> pending(String recipient) {
+        List<InboxNotification> stored = repository.findByRecipientOrderByUpdatedAtAsc(recipient);
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(properties.getTtlHours());
+        List<Map<String, Object>> batch = new ArrayList<>(stored.size());
+        for (InboxNotification notification : stored) {
+            if (notification.getUpdatedAt().isBefore(cutoff)) {
+                continue;
+            }
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", notification.getId());
+            entry.put("type", notification.getType());
+            entry.put("ticketId", notification.getTicketId());
+            entry.put("count", notification.getCount());
+            entry.put("updatedAt", notification.getUpdatedAt());
+            entry.put("data", readPayload(notification.getPayload()));
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Hands the user everything collected in their inbox, as one frame addressed only to the
+     * subscribing session, once the broker has registered the subscription. The rows stay
+     * until the client acknowledges them, so a frame lost with its connection is sent again
+     * on the next subscription.
+     */
+    @EventListener
+    public void onSubscription(BrokerSubscriptionEvent event) {
+        String userKey = event.getUserKey();
+        if (!DESTINATION.equals(event.getDestination()) || userKey == null) {
+            return;
+        }
+        long readAt = System.currentTimeMillis();
+        List<Map<String, Object>> notifications = pending(userKey);
+        if (notifications.isEmpty()) {
+            return;
+        }
+        sessionMessenger.send(event.getSessionId(), event.getSubscriptionId(), DESTINATION,
+                Map.of("type", "INBOX", "notifications", notifications, "readAt", readAt));
+        logger.info("Sent {} stored notifications to {}", notifications.size(), userKey);
+    }
+
+    /**
+     * Removes the recipient's notifications the client has received. One raised again after
+     * {@code readAt}, the time the batch was read, is newer than what the client saw and stays.
+     */
+    @Transactional
+    public void acknowledge(String recipient, List<Long> ids, long readAt) {
+        if (recipient == null || ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<Long> acked = ids.size() > properties.getMaxPerUser() ? ids.subList(0, properties.getMaxPerUser()) : ids;
+        LocalDateTime readTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(readAt), ZoneId.systemDefault());
+        int removed = repository.deleteDelivered(recipient, acked, readTime);
+        logger.debug("{} acknowledged {} stored notifications, removed {}", recipient, acked.size(), removed);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.inbox.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repository.deleteOlderThan(LocalDateTime.now().minusHours(properties.getTtlHours()));
+        if (removed > 0) {
+            logger.info("Purged {} expired inbox notifications", removed);
+        }
+    }
+
+    private Map<String, Object> readPayload(String payload) {
+        if (payload == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ResilienceProperties;
+import com.mycompany.resilience.AbstractPeerCalls;
+import com.mycompany.resilience.CircuitBreaker;
+import com.mycompany.resilience.Endpoint;
+import com.mycompany.resilience.EndpointPool;
+import com.mycompany.resilience.PeerSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Guarded calls to other services (see {@link AbstractPeerCalls}), configured from
+ * {@link ResilienceProperties} and reported as {@code chat.peer.*} metrics. A 4xx from the
+ * peer is an answer and neither trips the breaker nor ejects the instance.
+ */
+@Service
+public class PeerCalls extends AbstractPeerCalls {
+
+    public static final String TICKET_SERVICE = "ticket-service";
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @Autowired
+    private EndpointRegistry registry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected EndpointPool endpoints() {
+        return registry;
+    }
+
+    @Override
+    protected PeerSettings settings(String peer) {
+        return properties.peer(peer);
+    }
+
+    @Override
+    protected long defaultBudgetMs() {
+        return properties.getDefaultBudgetMs();
+    }
+
+    @Override
+    protected boolean isAnswer(Throwable failure) {
+        return failure instanceof HttpClientErrorException;
+    }
+
+    @Override
+    protected void onBreakerCreated(String peer, CircuitBreaker breaker) {
+        Gauge.builder("chat.peer.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit state of calls to a peer service (0 closed, 1 open, 2 half-open)")
+                .tag("peer", peer)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void onHedged(String peer, Endpoint second) {
+        Counter.builder("chat.peer.hedged")
+                .description("Reads sent to a second instance because the first was slow or failed")
+                .tag("peer", peer)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    protected void onRejected(String peer, String reason, String message) {
+        Counter.builder("chat.peer.rejected")
+                .description("Calls to peer services not made by the resilience guard")
+                .tag("peer", peer)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        super.shutdown();
+    }
+}
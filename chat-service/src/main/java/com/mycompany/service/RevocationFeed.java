@@ -0,0 +1,84 @@
+package com.mycompany.service;
+
+import com.mycompany.config.RevocationProperties;
+import com.mycompany.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copies revoked access-token ids from each auth service's {@code GET /api/auth/revocations}
+ * into the local {@link TokenDenylist}. Each source is read from where the last poll stopped;
+ * when its epoch changes (the auth service restarted) the log is read again from the start.
+ */
+@Service
+public class RevocationFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationFeed.class);
+
+    @Autowired
+    private RevocationProperties properties;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    // Per source: {epoch, last revocation number read}
+    private final Map<String, long[]> cursors = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${chat.revocations.poll-interval-ms:5000}")
+    public void poll() {
+        for (String source : properties.getSources()) {
+            try {
+                pollSource(source);
+            } catch (RestClientException | IllegalStateException e) {
+                logger.warn("Could not read revocations from {}: {}", source, e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pollSource(String source) {
+        long[] cursor = cursors.computeIfAbsent(source, s -> new long[2]);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(JwtUtil.generateToken(0L, JwtUtil.SERVICE_ROLE));
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        while (true) {
+            Map<String, Object> body = restTemplate.exchange(
+                    source + "/api/auth/revocations?after=" + cursor[1], HttpMethod.GET, request, Map.class).getBody();
+            if (body == null || !"SUCCESS".equals(body.get("status"))) {
+                throw new IllegalStateException("unexpected response " + body);
+            }
+            long epoch = ((Number) body.get("epoch")).longValue();
+            if (epoch != cursor[0]) {
+                boolean restarted = cursor[1] != 0;
+                cursor[0] = epoch;
+                cursor[1] = 0;
+                if (restarted) {
+                    continue;
+                }
+            }
+            List<Map<String, Object>> revocations = (List<Map<String, Object>>) body.get("revocations");
+            if (revocations == null || revocations.isEmpty()) {
+                return;
+            }
+            for (Map<String, Object> revocation : revocations) {
+                tokenDenylist.revoke((String) revocation.get("jti"), ((Number) revocation.get("expiresAt")).longValue());
+            }
+            cursor[1] = ((Number) body.get("next")).longValue();
+        }
+    }
+}
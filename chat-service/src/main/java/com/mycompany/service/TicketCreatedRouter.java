@@ -0,0 +1,90 @@
+package com.mycompany.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.entity.TicketDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands a ticket-created event from ticket-service to the agent it was assigned to, and to
+ * admins watching the ticket feed. Agents who are offline find it in their inbox.
+ */
+@Service
+public class TicketCreatedRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCreatedRouter.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChatRoutingState routingState;
+
+    @Autowired
+    private TicketFeed ticketFeed;
+
+    @Autowired
+    private NotificationInbox inbox;
+
+    public void route(Map<String, Object> message) {
+        if (message == null || message.get("ticket") == null) {
+            logger.error("Ticket creation event without a ticket");
+            return;
+        }
+        TicketDTO ticketDTO;
+        try {
+            ticketDTO = objectMapper.convertValue(message.get("ticket"), TicketDTO.class);
+            logger.info("Ticket extracted: id={}, clientId={}, supportTeamId={}, priority={}, categoryId={}, status={}",
+                    ticketDTO.getId(), ticketDTO.getClientId(), ticketDTO.getSupportTeamId(),
+                    ticketDTO.getPriority(), ticketDTO.getCategoryId(), ticketDTO.getStatus());
+        } catch (Exception e) {
+            logger.error("Error extracting ticket from message: {}", e.getMessage(), e);
+            return;
+        }
+        Long supportTeamId = ticketDTO.getSupportTeamId();
+        if (supportTeamId == null || supportTeamId == 0) {
+            logger.warn("No supportTeamId assigned to ticketId={}", ticketDTO.getId());
+            return;
+        }
+        // Same shape the support UI has always read from the feed, minus anything but the ticket
+        int feedSessions = ticketFeed.deliver(supportTeamId, Map.of("ticket", message.get("ticket")));
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("id", ticketDTO.getId());
+        notification.put("clientId", ticketDTO.getClientId());
+        notification.put("supportTeamId", ticketDTO.getSupportTeamId());
+        notification.put("categoryId", ticketDTO.getCategoryId());
+        notification.put("subject", ticketDTO.getTitle());
+        notification.put("description", ticketDTO.getDescription());
+        notification.put("priority", ticketDTO.getPriority());
+        notification.put("status", ticketDTO.getStatus());
+        notification.put("category", ticketDTO.getCategoryId() == 1 ? "Technical" : ticketDTO.getCategoryId() == 2 ? "Billing" : "General");
+        notification.put("unreadCount", 0);
+        notification.put("lastMessageTime", null);
+        String supportUid = routingState.getSupportUidMap().get(supportTeamId);
+        if (supportUid != null) {
+            String destination = "/user/" + supportUid + "/new-tickets";
+            try {
+                messagingTemplate.convertAndSend(destination, notification);
+                logger.info("Sent ticketId={} to {} and {} feed session(s) of supportTeamId={}",
+                        ticketDTO.getId(), destination, feedSessions, supportTeamId);
+            } catch (Exception e) {
+                logger.error("Failed to send notification to {} for ticketId={}: {}", destination, ticketDTO.getId(), e.getMessage(), e);
+            }
+        } else if (feedSessions == 0) {
+            logger.info("supportTeamId={} is offline, keeping ticketId={} in their inbox", supportTeamId, ticketDTO.getId());
+            Map<String, Object> stored = new HashMap<>(notification);
+            stored.remove("description");
+            inbox.store("SUPPORT:" + supportTeamId, NotificationInbox.TICKET_CREATED, ticketDTO.getId(), stored);
+        }
+    }
+}
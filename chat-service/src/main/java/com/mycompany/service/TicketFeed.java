@@ -0,0 +1,82 @@
+package com.mycompany.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscriptions to {@link #DESTINATION}, indexed by user. A new ticket is sent only to the
+ * sessions of its assigned agent and of admins (supervisors) watching the feed, one session
+ * at a time, instead of being published on the topic for every subscriber to filter.
+ */
+@Component
+public class TicketFeed {
+
+    public static final String DESTINATION = "/topic/tickets/created";
+
+    private static final String OBSERVER_ROLE = "ADMIN";
+
+    @Autowired
+    private SessionMessenger sessionMessenger;
+
+    // userKey -> (sessionId -> subscriptionId), agents and admins kept apart
+    private final Map<String, Map<String, String>> agents = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> observers = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> userKey)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    // Agents receive their own tickets; admins receive all of them
+    public static boolean mayWatch(String role) {
+        return "SUPPORT".equals(role) || OBSERVER_ROLE.equals(role);
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, String userKey) {
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, userKey);
+        subscribersOf(userKey).computeIfAbsent(userKey, key -> new ConcurrentHashMap<>()).put(sessionId, subscriptionId);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        String userKey = subscriptions == null ? null : subscriptions.remove(subscriptionId);
+        if (userKey != null) {
+            removeSubscriber(userKey, sessionId, subscriptionId);
+        }
+    }
+
+    public void sessionClosed(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, userKey) -> removeSubscriber(userKey, sessionId, subscriptionId));
+        }
+    }
+
+    /**
+     * Sends the event to every feed subscription of the agent and of the admins.
+     *
+     * @return how many of the agent's own sessions it reached
+     */
+    public int deliver(Long supportTeamId, Object payload) {
+        observers.values().forEach(userSessions -> sendTo(userSessions, payload));
+        Map<String, String> agentSessions = agents.get("SUPPORT:" + supportTeamId);
+        return agentSessions == null ? 0 : sendTo(agentSessions, payload);
+    }
+
+    private int sendTo(Map<String, String> userSessions, Object payload) {
+        userSessions.forEach((sessionId, subscriptionId) ->
+                sessionMessenger.send(sessionId, subscriptionId, DESTINATION, payload));
+        return userSessions.size();
+    }
+
+    private Map<String, Map<String, String>> subscribersOf(String userKey) {
+        return userKey.startsWith(OBSERVER_ROLE + ":") ? observers : agents;
+    }
+
+    private void removeSubscriber(String userKey, String sessionId, String subscriptionId) {
+        subscribersOf(userKey).computeIfPresent(userKey, (key, userSessions) -> {
+            userSessions.remove(sessionId, subscriptionId);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package com.mycompany.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tickets each connected user has been found to take part in. Access to a ticket is resolved
+ * from ticket-service the first time the user touches it and then answered from memory, for
+ * chat frames and REST calls alike, until the ticket is reassigned or the user's last STOMP
+ * session ends. Users without a live session are resolved on every call. The participants
+ * of granted tickets are kept alongside, so a chat frame is authorized and addressed without
+ * a call to ticket-service.
+ */
+@Service
+public class TicketGrants {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketGrants.class);
+
+    @Autowired
+    private TicketService ticketService;
+
+    // sessionId -> userKey, and open session count per userKey
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> liveSessions = new ConcurrentHashMap<>();
+
+    // userKey -> granted ticket ids, and the reverse index used to revoke a ticket
+    private final Map<String, Set<Long>> grants = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> holders = new ConcurrentHashMap<>();
+
+    // ticketId -> participants, for tickets someone holds a grant on
+    private final Map<Long, TicketService.Participants> participants = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the user may read and post in the ticket. Only positive answers are kept, so a
+     * ticket assigned to the user later is picked up on the next call.
+     */
+    public boolean canAccess(Long userId, String role, Long ticketId) {
+        if (userId == null || role == null || ticketId == null) {
+            return false;
+        }
+        String userKey = role + ":" + userId;
+        Set<Long> granted = grants.get(userKey);
+        if (granted != null && granted.contains(ticketId)) {
+            return true;
+        }
+        if (!ticketService.canJoinRoom(userId, role, ticketId)) {
+            return false;
+        }
+        grant(userKey, ticketId);
+        return true;
+    }
+
+    /**
+     * The participants of the ticket if the user is its client or assigned agent, otherwise
+     * null. While the user holds a grant on the ticket this is two map lookups.
+     *
+     * @throws com.mycompany.resilience.PeerUnavailableException if ticket-service is not being called
+     */
+    public TicketService.Participants participantsFor(Long userId, String role, Long ticketId) throws Exception {
+        if (userId == null || role == null || ticketId == null) {
+            return null;
+        }
+        String userKey = role + ":" + userId;
+        Set<Long> granted = grants.get(userKey);
+        TicketService.Participants known = granted != null && granted.contains(ticketId) ? participants.get(ticketId) : null;
+        if (known == null) {
+            known = ticketService.getParticipants(ticketId);
+            if (ticketService.isParticipant(userId, role, ticketId, known) && grant(userKey, ticketId)) {
+                participants.put(ticketId, known);
+            }
+        }
+        // Admins hold grants too, but only the client and the agent post
+        return ticketService.isParticipant(userId, role, ticketId, known) ? known : null;
+    }
+
+    // Only users with a live session are remembered; returns whether the grant was kept
+    private boolean grant(String userKey, Long ticketId) {
+        if (!liveSessions.containsKey(userKey)) {
+            return false;
+        }
+        grants.computeIfAbsent(userKey, key -> ConcurrentHashMap.newKeySet()).add(ticketId);
+        holders.computeIfAbsent(ticketId, id -> ConcurrentHashMap.newKeySet()).add(userKey);
+        logger.debug("Granted {} access to ticketId={}", userKey, ticketId);
+        return true;
+    }
+
+    /**
+     * Drops every grant on the ticket, e.g. after it was reassigned; the remaining
+     * participants are resolved again on their next message.
+     */
+    public void revoke(Long ticketId) {
+        participants.remove(ticketId);
+        Set<String> userKeys = holders.remove(ticketId);
+        if (userKeys == null) {
+            return;
+        }
+        for (String userKey : userKeys) {
+            Set<Long> granted = grants.get(userKey);
+            if (granted != null) {
+                granted.remove(ticketId);
+            }
+        }
+        logger.debug("Revoked {} grants on ticketId={}", userKeys.size(), ticketId);
+    }
+
+    public void sessionOpened(String sessionId, String userKey) {
+        if (sessionId == null || userKey == null || sessionUsers.putIfAbsent(sessionId, userKey) != null) {
+            return;
+        }
+        liveSessions.merge(userKey, 1, Integer::sum);
+    }
+
+    // Safe to call more than once for the same session
+    public void sessionClosed(String sessionId) {
+        String userKey = sessionId == null ? null : sessionUsers.remove(sessionId);
+        if (userKey == null) {
+            return;
+        }
+        if (liveSessions.computeIfPresent(userKey, (key, count) -> count > 1 ? count - 1 : null) == null) {
+            Set<Long> granted = grants.remove(userKey);
+            if (granted != null) {
+                for (Long ticketId : granted) {
+                    Set<String> remaining = holders.computeIfPresent(ticketId, (id, keys) -> {
+                        keys.remove(userKey);
+                        return keys.isEmpty() ? null : keys;
+                    });
+                    if (remaining == null) {
+                        // A later grant fetches them again
+                        participants.remove(ticketId);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ReplayProperties;
+import com.mycompany.model.TicketMessage;
+import com.mycompany.model.TicketMessageSeq;
+import com.mycompany.repository.TicketMessageRepository;
+import com.mycompany.repository.TicketMessageSeqRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-ticket message streams: numbers messages from a counter row per ticket in the database,
+ * so every instance hands out the same monotonically increasing sequence, and keeps the most
+ * recent messages of each ticket in a bounded ring, so a reconnecting client can be sent just
+ * the messages after the last sequence it saw.
+ */
+@Component
+public class TicketMessageStreams {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketMessageStreams.class);
+
+    @Autowired
+    private TicketMessageRepository ticketMessageRepository;
+
+    @Autowired
+    private TicketMessageSeqRepository seqRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplayProperties properties;
+
+    private final Map<Long, Stream> streams = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Stream>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Stream> eldest) {
+                    return size() > properties.getMaxTickets();
+                }
+            });
+
+    /**
+     * Numbers and persists the message in one read-write transaction that holds the ticket's
+     * counter row, then records it in the ring. Writes to one ticket are serialized, across
+     * instances by the row lock, so sequence order and commit order are the same.
+     */
+    public TicketMessage append(TicketMessage message) {
+        Long ticketId = message.getTicketId();
+        Stream stream = stream(ticketId);
+        synchronized (stream) {
+            if (!stream.counterReady) {
+                prepareCounter(ticketId);
+                stream.counterReady = true;
+            }
+            TicketMessage saved = transactionTemplate.execute(status -> {
+                TicketMessageSeq counter = seqRepository.findForUpdate(ticketId)
+                        .orElseThrow(() -> new IllegalStateException("No sequence counter for ticket " + ticketId));
+                message.setSeq(counter.next());
+                return ticketMessageRepository.save(message);
+            });
+            if (!stream.ring.isEmpty() && saved.getSeq() != stream.lastSeq + 1) {
+                // Another instance wrote in between; the ring only ever holds a gap-free run
+                stream.ring.clear();
+            }
+            stream.lastSeq = saved.getSeq();
+            stream.ring.addLast(saved);
+            if (stream.ring.size() > properties.getRingSize()) {
+                stream.ring.removeFirst();
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * Messages of the ticket with a sequence above {@code afterSeq}, oldest first, or
+     * {@code null} when the ring does not hold the whole gap up to {@code latestSeq}, the
+     * ticket's counter as the caller read it, and the caller has to read it from the database.
+     */
+    public List<TicketMessage> replay(Long ticketId, long afterSeq, long latestSeq) {
+        if (afterSeq >= latestSeq) {
+            return List.of();
+        }
+        Stream stream = streams.get(ticketId);
+        if (stream == null) {
+            return null;
+        }
+        synchronized (stream) {
+            TicketMessage oldest = stream.ring.peekFirst();
+            if (stream.lastSeq < latestSeq || oldest == null || oldest.getSeq() > afterSeq + 1) {
+                return null;
+            }
+            List<TicketMessage> gap = new ArrayList<>();
+            for (TicketMessage message : stream.ring) {
+                if (message.getSeq() > afterSeq) {
+                    gap.add(message);
+                }
+            }
+            return gap;
+        }
+    }
+
+    /**
+     * Creates the ticket's counter if it has none, starting after whatever is already
+     * numbered, and numbers rows stored without a sequence after it, oldest first.
+     */
+    public void prepareCounter(Long ticketId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    TicketMessageSeq counter = seqRepository.existsById(ticketId)
+                            ? seqRepository.findForUpdate(ticketId).orElseThrow()
+                            // Always an INSERT, which locks the new row until this transaction ends;
+                            // if another instance inserted it first, the key clash leads to the retry
+                            : seqRepository.saveAndFlush(new TicketMessageSeq(ticketId, ticketMessageRepository.findMaxSeq(ticketId)));
+                    for (TicketMessage unsequenced : ticketMessageRepository.findUnsequenced(ticketId)) {
+                        unsequenced.setSeq(counter.next());
+                    }
+                });
+                return;
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                // Another instance created the counter at the same time; it exists now
+                if (attempt >= 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Numbers the messages stored before sequences came from the counter rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> ticketIds = ticketMessageRepository.findTicketIdsWithUnsequenced();
+        for (Long ticketId : ticketIds) {
+            try {
+                prepareCounter(ticketId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not number the stored messages of ticketId={}: {}", ticketId, e.getMessage());
+            }
+        }
+        if (!ticketIds.isEmpty()) {
+            logger.info("Numbered stored messages of {} tickets", ticketIds.size());
+        }
+    }
+
+    private Stream stream(Long ticketId) {
+        synchronized (streams) {
+            return streams.computeIfAbsent(ticketId, id -> new Stream());
+        }
+    }
+
+    private static class Stream {
+        private long lastSeq;
+        // Whether the ticket's counter row is known to exist and its old rows are numbered
+        private boolean counterReady;
+        private final ArrayDeque<TicketMessage> ring = new ArrayDeque<>();
+    }
+}
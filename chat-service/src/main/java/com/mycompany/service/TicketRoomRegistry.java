@@ -0,0 +1,61 @@
+package com.mycompany.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which STOMP sessions are currently subscribed to which {@code /topic/ticket/{id}} room,
+ * so senders can tell whether a participant will see a room message or needs it on their
+ * personal destination instead.
+ */
+@Component
+public class TicketRoomRegistry {
+
+    public static final String ROOM_PREFIX = "/topic/ticket/";
+
+    // ticketId -> (sessionId/subscriptionId -> userKey)
+    private final Map<Long, Map<String, String>> rooms = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> ticketId)
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+
+    public static String roomDestination(Long ticketId) {
+        return ROOM_PREFIX + ticketId;
+    }
+
+    public void join(String sessionId, String subscriptionId, Long ticketId, String userKey) {
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, ticketId);
+        rooms.computeIfAbsent(ticketId, id -> new ConcurrentHashMap<>()).put(sessionId + "/" + subscriptionId, userKey);
+    }
+
+    public void leave(String sessionId, String subscriptionId) {
+        Map<String, Long> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        Long ticketId = subscriptions.remove(subscriptionId);
+        if (ticketId != null) {
+            removeMember(ticketId, sessionId + "/" + subscriptionId);
+        }
+    }
+
+    public void leaveAll(String sessionId) {
+        Map<String, Long> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, ticketId) -> removeMember(ticketId, sessionId + "/" + subscriptionId));
+        }
+    }
+
+    public boolean isPresent(Long ticketId, String userKey) {
+        Map<String, String> members = rooms.get(ticketId);
+        return members != null && members.containsValue(userKey);
+    }
+
+    private void removeMember(Long ticketId, String memberKey) {
+        rooms.computeIfPresent(ticketId, (id, members) -> {
+            members.remove(memberKey);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
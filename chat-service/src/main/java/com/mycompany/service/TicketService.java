@@ -1 +1,143 @@
- 
\ No newline at end of file
+package com.mycompany.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Looks up who takes part in a ticket by asking ticket-service, and decides who may join
+ * the ticket's chat room.
+ */
+@Service
+public class TicketService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketService.class);
+
+    // Path on ticket-service; instances are listed under chat.resilience.peers.ticket-service
+    private static final String TICKET_PATH = "/api/ticket/";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChatRoutingState routingState;
+
+    @Autowired
+    private PeerCalls peerCalls;
+
+    /**
+     * The ticket's client and assigned support agent, from the routing state when known and
+     * fresh, otherwise fetched from ticket-service. Callers must still check that the user is
+     * one of the participants.
+     *
+     * Concurrent lookups of the same ticket share one request, hedged across instances. The
+     * ticket is read with a service token, never a caller's, so the shared answer does not
+     * depend on who happened to start the request.
+     *
+     * @throws com.mycompany.resilience.PeerUnavailableException if ticket-service is not being called
+     */
+    public Participants getParticipants(Long ticketId) throws Exception {
+        Participants cached = routingState.getParticipants(ticketId);
+        if (cached != null) {
+            return cached;
+        }
+        String authorization = serviceAuthorization();
+        return peerCalls.read(PeerCalls.TICKET_SERVICE, ticketId,
+                baseUrl -> fetchParticipants(baseUrl, ticketId, authorization));
+    }
+
+    private static String serviceAuthorization() {
+        return "Bearer " + JwtUtil.generateToken(0L, JwtUtil.SERVICE_ROLE);
+    }
+
+    private Participants fetchParticipants(String baseUrl, Long ticketId, String authorization) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", authorization);
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + TICKET_PATH + ticketId,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+        JsonNode ticket = objectMapper.readTree(response.getBody()).path("ticket");
+        Long clientId = ticket.path("clientId").asLong();
+        Long supportTeamId = ticket.path("supportTeamId").asLong();
+        logger.debug("Ticket {} participants: clientId={}, supportTeamId={}", ticketId, clientId, supportTeamId);
+        Participants participants = new Participants(clientId, supportTeamId, System.currentTimeMillis());
+        routingState.putParticipants(ticketId, participants);
+        return participants;
+    }
+
+    /**
+     * Whether ticket-service has the ticket assigned to {@code supportId}. The ticket is read
+     * fresh with a service token rather than from the cache, and the answer replaces what is
+     * cached, so the previously assigned agent stops being a participant.
+     *
+     * @throws com.mycompany.resilience.PeerUnavailableException if ticket-service is not being called
+     */
+    public boolean confirmAssignment(Long ticketId, Long supportId) throws Exception {
+        routingState.evictParticipants(ticketId);
+        String authorization = serviceAuthorization();
+        Participants participants = peerCalls.read(PeerCalls.TICKET_SERVICE, null,
+                baseUrl -> fetchParticipants(baseUrl, ticketId, authorization));
+        return supportId.equals(participants.getSupportTeamId());
+    }
+
+    /**
+     * Whether the user takes part in the ticket in the given role, i.e. is its client or its
+     * assigned agent.
+     */
+    public boolean isParticipant(Long userId, String role, Long ticketId, Participants participants) {
+        if ("CLIENT".equals(role)) {
+            return userId.equals(participants.getClientId());
+        }
+        return "SUPPORT".equals(role) && userId.equals(participants.getSupportTeamId());
+    }
+
+    /**
+     * Admins (supervisors) may join any room; clients only their own ticket's; support
+     * agents the tickets assigned to them.
+     */
+    public boolean canJoinRoom(Long userId, String role, Long ticketId) {
+        if (userId == null || role == null) {
+            return false;
+        }
+        if ("ADMIN".equals(role)) {
+            return true;
+        }
+        try {
+            return isParticipant(userId, role, ticketId, getParticipants(ticketId));
+        } catch (Exception e) {
+            logger.warn("Could not verify access of {}:{} to ticket {}: {}", role, userId, ticketId, e.getMessage());
+            return false;
+        }
+    }
+
+    public static class Participants {
+        private final Long clientId;
+        private final Long supportTeamId;
+        private final long fetchedAt;
+
+        public Participants(Long clientId, Long supportTeamId, long fetchedAt) {
+            this.clientId = clientId;
+            this.supportTeamId = supportTeamId;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public Long getClientId() { return clientId; }
+        public Long getSupportTeamId() { return supportTeamId; }
+        public long getFetchedAt() { return fetchedAt; }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mycompany.util;
+
+import com.mycompany.resilience.Deadline;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Request factory that shortens connect and read timeouts to the current {@link Deadline} and
+ * passes the remaining budget on to the called service.
+ */
+public class DeadlineRequestFactory extends SimpleClientHttpRequestFactory {
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        if (!Deadline.isSet()) {
+            return;
+        }
+        long remaining = Deadline.remainingMillis(0);
+        if (remaining <= 0) {
+            throw new IOException("Request deadline exceeded before calling " + connection.getURL().getHost());
+        }
+        connection.setConnectTimeout(shorten(connection.getConnectTimeout(), remaining));
+        connection.setReadTimeout(shorten(connection.getReadTimeout(), remaining));
+        connection.setRequestProperty(Deadline.HEADER, Long.toString(remaining));
+    }
+
+    // A timeout of 0 means none at all
+    private static int shorten(int timeout, long remaining) {
+        return (int) (timeout == 0 ? Math.min(remaining, Integer.MAX_VALUE) : Math.min(timeout, remaining));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.util;
+
+/**
+ * Minimal token bucket used to throttle inbound STOMP frames.
+ * Tokens refill continuously at a fixed rate up to the bucket capacity.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+    private volatile long lastUsed;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.lastUsed = this.lastRefill;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return true if the caller may proceed, false if the bucket is empty.
+     */
+    public synchronized boolean tryConsume() {
+        refill(System.nanoTime());
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes one token from each bucket, or none if either is empty. Callers must always pass
+     * the same kind of bucket first (e.g. session before user) so the locks are taken in order.
+     *
+     * @return null if both tokens were taken, otherwise the bucket that was empty.
+     */
+    public static TokenBucket tryConsumeBoth(TokenBucket first, TokenBucket second) {
+        long now = System.nanoTime();
+        synchronized (first) {
+            synchronized (second) {
+                first.refill(now);
+                second.refill(now);
+                if (first.tokens < 1d) {
+                    return first;
+                }
+                if (second.tokens < 1d) {
+                    return second;
+                }
+                first.tokens -= 1d;
+                second.tokens -= 1d;
+                return null;
+            }
+        }
+    }
+
+    // Caller holds the monitor
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+        lastUsed = now;
+    }
+
+    // Nanotime of the last consume attempt, used to evict idle buckets
+    public long getLastUsed() {
+        return lastUsed;
+    }
+}
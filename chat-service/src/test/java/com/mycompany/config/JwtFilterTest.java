@@ -0,0 +1,72 @@
+package com.mycompany.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * WebSocket handshakes come from browsers, which cannot add an Authorization header to the
+ * upgrade request; they must reach the endpoint and authenticate at STOMP CONNECT.
+ */
+class JwtFilterTest {
+
+    private final JwtFilter filter = new JwtFilter();
+
+    @Test
+    void nativeHandshakeWithoutAuthorizationReachesTheEndpoint() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(handshake(WebSocketConfig.NATIVE_ENDPOINT), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void sockJsHandshakeWithoutAuthorizationReachesTheEndpoint() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(handshake(WebSocketConfig.SOCKJS_ENDPOINT + "/123/abcdef/websocket"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void apiRequestWithoutAuthorizationIsRejected() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tickets/1/messages"), response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void pathsMerelyStartingLikeTheNativeEndpointAreNotBypassed() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", WebSocketConfig.NATIVE_ENDPOINT + "-admin"), response, chain);
+
+        assertEquals(401, response.getStatus());
+    }
+
+    private static MockHttpServletRequest handshake(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Connection", "Upgrade");
+        request.addHeader("Upgrade", "websocket");
+        request.addHeader("Sec-WebSocket-Version", "13");
+        request.addHeader("Sec-WebSocket-Key", "dGhlIHNhbXBsZSBub25jZQ==");
+        request.addHeader("Origin", "https://app.prjsdr.xyz");
+        return request;
+    }
+}
@@ -0,0 +1,376 @@
+package com.mycompany.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The decorated session writes from one thread at a time; the others only queue. A stub
+ * delegate that can be made to block stands in for a client that stopped reading.
+ */
+class OutboundPolicyTest {
+
+    private final WebSocketProperties properties = new WebSocketProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundPolicy policy = new OutboundPolicy();
+    private final ExecutorService writers = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(policy, "properties", properties);
+        ReflectionTestUtils.setField(policy, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(policy, "registerQueueDepth");
+    }
+
+    @AfterEach
+    void tearDown() {
+        writers.shutdownNow();
+    }
+
+    @Test
+    void headerIsReadFromTheHeaderBlockOnly() {
+        String frame = "MESSAGE\ndestination:/topic/ticket/1\nsubscription: sub-0 \n\nreceipt:in-body\u0000";
+
+        assertEquals("/topic/ticket/1", OutboundPolicy.header(frame, "destination"));
+        assertEquals("sub-0", OutboundPolicy.header(frame, "subscription"));
+        assertNull(OutboundPolicy.header(frame, "receipt"));
+        assertNull(OutboundPolicy.header(frame, "content-type"));
+        assertEquals("/topic/x", OutboundPolicy.header("MESSAGE\ndestination:/topic/x", "destination"));
+    }
+
+    @Test
+    void idleSessionIsWrittenToDirectly() throws Exception {
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+
+        session.sendMessage(frame("/topic/ticket/1", "a"));
+        session.sendMessage(frame("/topic/ticket/1", "b"));
+
+        assertEquals(List.of("a", "b"), stub.bodies());
+    }
+
+    @Test
+    void queuedFrameForTheSameDestinationIsReplaced() throws Exception {
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+
+        session.sendMessage(frame("/topic/ticket/1/typing", "typing-1"));
+        session.sendMessage(frame("/topic/ticket/1", "message"));
+        session.sendMessage(frame("/topic/ticket/1/typing", "typing-2"));
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("first", "message", "typing-2"), stub.bodies());
+        assertEquals(1.0, dropped("conflated"));
+    }
+
+    @Test
+    void dropOldestDoesNotConflate() throws Exception {
+        properties.setOverflowPolicy(OutboundPolicy.OverflowPolicy.DROP_OLDEST);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+
+        session.sendMessage(frame("/topic/ticket/1/typing", "typing-1"));
+        session.sendMessage(frame("/topic/ticket/1/typing", "typing-2"));
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("first", "typing-1", "typing-2"), stub.bodies());
+    }
+
+    @Test
+    void overflowDropsOldestNonCriticalFramesFirst() throws Exception {
+        properties.setOverflowPolicy(OutboundPolicy.OverflowPolicy.DROP_OLDEST);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+        TextMessage oldNotice = frame("/queue/notifications", "old-notice");
+        TextMessage message = frame("/topic/ticket/1", "message");
+        TextMessage newNotice = frame("/queue/notifications", "new-notice");
+        properties.setSendBufferSizeLimit(message.getPayloadLength() + newNotice.getPayloadLength());
+
+        session.sendMessage(oldNotice);
+        session.sendMessage(message);
+        session.sendMessage(newNotice);
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("first", "message", "new-notice"), stub.bodies());
+        assertEquals(1.0, dropped("overflow"));
+    }
+
+    @Test
+    void overflowOfCriticalFramesClosesTheSession() throws Exception {
+        properties.setOverflowPolicy(OutboundPolicy.OverflowPolicy.DROP_OLDEST);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+        TextMessage message = frame("/topic/ticket/1", "message");
+        properties.setSendBufferSizeLimit(message.getPayloadLength());
+
+        session.sendMessage(message);
+        SessionLimitExceededException e = assertThrows(SessionLimitExceededException.class,
+                () -> session.sendMessage(frame("/topic/ticket/1", "another")));
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, e.getStatus());
+
+        // Nothing more is queued or written once the session is given up on
+        session.sendMessage(frame("/topic/ticket/1", "after"));
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("first"), stub.bodies());
+        assertEquals(1.0, disconnected("buffer-size"));
+    }
+
+    @Test
+    void disconnectPolicyDropsNothing() throws Exception {
+        properties.setOverflowPolicy(OutboundPolicy.OverflowPolicy.DISCONNECT);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+        TextMessage notice = frame("/queue/notifications", "notice");
+        properties.setSendBufferSizeLimit(notice.getPayloadLength());
+
+        session.sendMessage(notice);
+        assertThrows(SessionLimitExceededException.class,
+                () -> session.sendMessage(frame("/queue/notifications", "another")));
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0.0, dropped("overflow"));
+        assertEquals(1.0, disconnected("buffer-size"));
+    }
+
+    @Test
+    void sendBlockedPastTheTimeLimitClosesTheSession() throws Exception {
+        properties.setSendTimeLimitMs(50);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        Future<?> writer = blockWriter(session, stub);
+
+        // Within the limit the frame is only queued behind the blocked writer
+        session.sendMessage(frame("/topic/ticket/1", "queued"));
+        Thread.sleep(100);
+        assertThrows(SessionLimitExceededException.class,
+                () -> session.sendMessage(frame("/topic/ticket/1", "late")));
+        stub.release();
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("first"), stub.bodies());
+        assertEquals(1.0, disconnected("send-time"));
+    }
+
+    @Test
+    void frameQueuedWhileTheWriterLetsGoIsStillSent() throws Exception {
+        // A frame queued between the writer's last poll and its unlock fails tryLock and
+        // returns; the writer must pick it up after unlocking, or it sits in the queue.
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        HandOffLock lock = new HandOffLock();
+        ReflectionTestUtils.setField(session, "flushLock", lock);
+        lock.beforeUnlock = () -> writers.submit(() -> {
+            session.sendMessage(frame("/topic/ticket/1", "late"));
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+
+        session.sendMessage(frame("/topic/ticket/1", "first"));
+
+        assertEquals(List.of("first", "late"), stub.bodies());
+    }
+
+    @Test
+    void concurrentSendersKeepTheirOrder() throws Exception {
+        int threads = 8;
+        int perThread = 2000;
+        // Whoever holds the lock may fall behind the other seven; that is not what is tested
+        properties.setSendBufferSizeLimit(Integer.MAX_VALUE);
+        StubSession stub = new StubSession();
+        WebSocketSession session = policy.decorate(stub);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String sender = "t" + t;
+            senders.add(writers.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    session.sendMessage(frame("/topic/ticket/1", sender + ":" + i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> sender : senders) {
+            sender.get(30, TimeUnit.SECONDS);
+        }
+
+        List<String> bodies = stub.bodies();
+        assertEquals(threads * perThread, bodies.size());
+        Map<String, Integer> next = new HashMap<>();
+        for (String body : bodies) {
+            String[] parts = body.split(":");
+            int expected = next.getOrDefault(parts[0], 0);
+            assertEquals(expected, Integer.parseInt(parts[1]), "frames of " + parts[0] + " out of order");
+            next.put(parts[0], expected + 1);
+        }
+    }
+
+    // Starts a send that blocks in the delegate, so later frames queue behind it
+    private Future<?> blockWriter(WebSocketSession session, StubSession stub) throws Exception {
+        stub.blockNext();
+        Future<?> writer = writers.submit(() -> {
+            session.sendMessage(frame("/topic/ticket/1", "first"));
+            return null;
+        });
+        assertTrue(stub.awaitBlocked(), "writer did not reach the socket");
+        return writer;
+    }
+
+    private double dropped(String reason) {
+        return count("chat.websocket.outbound.dropped", reason);
+    }
+
+    private double disconnected(String reason) {
+        return count("chat.websocket.outbound.disconnected", reason);
+    }
+
+    private double count(String meter, String reason) {
+        Counter counter = meterRegistry.find(meter).tag("reason", reason).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static TextMessage frame(String destination, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:0\n\n" + body + "\u0000");
+    }
+
+    // Runs a callback once, on the writer's thread, while the writer still holds the lock
+    private static class HandOffLock extends ReentrantLock {
+
+        interface Callback {
+            void run() throws Exception;
+        }
+
+        volatile Callback beforeUnlock;
+
+        @Override
+        public void unlock() {
+            Callback callback = beforeUnlock;
+            beforeUnlock = null;
+            try {
+                if (callback != null) {
+                    callback.run();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                super.unlock();
+            }
+        }
+    }
+
+    private static class StubSession implements WebSocketSession {
+
+        private final List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch blocked;
+        private volatile CountDownLatch released;
+        private volatile boolean open = true;
+
+        void blockNext() {
+            blocked = new CountDownLatch(1);
+            released = new CountDownLatch(1);
+        }
+
+        boolean awaitBlocked() throws InterruptedException {
+            return blocked.await(5, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> bodies() {
+            synchronized (bodies) {
+                return new ArrayList<>(bodies);
+            }
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            String payload = ((TextMessage) message).getPayload();
+            bodies.add(payload.substring(payload.indexOf("\n\n") + 2, payload.length() - 1));
+            CountDownLatch latch = released;
+            if (latch != null && blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public String getId() { return "stub"; }
+        @Override
+        public URI getUri() { return null; }
+        @Override
+        public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+        @Override
+        public Map<String, Object> getAttributes() { return new HashMap<>(); }
+        @Override
+        public Principal getPrincipal() { return null; }
+        @Override
+        public InetSocketAddress getLocalAddress() { return null; }
+        @Override
+        public InetSocketAddress getRemoteAddress() { return null; }
+        @Override
+        public String getAcceptedProtocol() { return null; }
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) { }
+        @Override
+        public int getTextMessageSizeLimit() { return 0; }
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+        @Override
+        public int getBinaryMessageSizeLimit() { return 0; }
+        @Override
+        public List<WebSocketExtension> getExtensions() { return Collections.emptyList(); }
+        @Override
+        public boolean isOpen() { return open; }
+        @Override
+        public void close() { open = false; }
+        @Override
+        public void close(CloseStatus status) { open = false; }
+    }
+}
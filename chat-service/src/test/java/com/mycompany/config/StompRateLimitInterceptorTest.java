@@ -0,0 +1,146 @@
+package com.mycompany.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StompRateLimitInterceptorTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final StompRateLimitInterceptor interceptor = new StompRateLimitInterceptor();
+
+    @BeforeEach
+    void setUp() {
+        properties.getRules().add(rule("/app/messages/**", 2, 4));
+        properties.getRules().add(rule("/app/typing/**", 1, 1));
+        MessageChannel outbound = (message, timeout) -> sent.add(message);
+        ReflectionTestUtils.setField(interceptor, "properties", properties);
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(interceptor, "clientOutboundChannel", outbound);
+    }
+
+    @Test
+    void eachRuleHasItsOwnBucket() {
+        assertNotNull(send("s1", 7L, "/app/typing/1", null));
+        assertNull(send("s1", 7L, "/app/typing/1", null));
+
+        assertNotNull(send("s1", 7L, "/app/messages/abc", null));
+        assertNotNull(send("s1", 7L, "/app/messages/abc", null));
+        assertNull(send("s1", 7L, "/app/messages/abc", null));
+    }
+
+    @Test
+    void framesOutsideEveryRuleAreNotCounted() {
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(send("s1", 7L, "/app/inbox/ack", null));
+        }
+    }
+
+    @Test
+    void rejectedFrameIsAnsweredWithAnErrorCarryingTheReceipt() {
+        send("s1", 7L, "/app/typing/1", null);
+
+        assertNull(send("s1", 7L, "/app/typing/1", "r-42"));
+
+        assertEquals(1, sent.size());
+        StompHeaderAccessor error = StompHeaderAccessor.wrap(sent.get(0));
+        assertEquals(StompCommand.ERROR, error.getCommand());
+        assertEquals("s1", error.getSessionId());
+        assertEquals("r-42", error.getReceiptId());
+        assertEquals(1.0, meterRegistry.find("chat.stomp.inbound.rejected")
+                .tag("pattern", "/app/typing/**").tag("scope", "session").counter().count());
+    }
+
+    @Test
+    void userBucketIsSharedAcrossSessions() {
+        properties.getRules().get(0).setUserCapacity(2);
+
+        assertNotNull(send("s1", 7L, "/app/messages/abc", null));
+        assertNotNull(send("s2", 7L, "/app/messages/abc", null));
+        assertNull(send("s3", 7L, "/app/messages/abc", null));
+        assertNotNull(send("s3", 8L, "/app/messages/abc", null));
+        assertEquals(1.0, meterRegistry.find("chat.stomp.inbound.rejected").tag("scope", "user").counter().count());
+    }
+
+    @Test
+    void frameRefusedByTheUserBucketKeepsTheSessionToken() {
+        properties.getRules().get(0).setUserCapacity(1);
+
+        assertNotNull(send("s1", 7L, "/app/messages/abc", null));
+        assertNull(send("s1", 7L, "/app/messages/abc", null));
+        // The session bucket (capacity 2) still has the token the refused frame did not take
+        assertNotNull(send("s1", null, "/app/messages/abc", null));
+        assertNull(send("s1", null, "/app/messages/abc", null));
+    }
+
+    @Test
+    void disconnectDropsTheSessionBuckets() {
+        send("s1", null, "/app/typing/1", null);
+        assertNull(send("s1", null, "/app/typing/1", null));
+
+        StompHeaderAccessor disconnect = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        disconnect.setSessionId("s1");
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), null);
+
+        assertNotNull(send("s1", null, "/app/typing/1", null));
+    }
+
+    @Test
+    void sweepDropsOnlyIdleUserBuckets() {
+        send("s1", 7L, "/app/typing/1", null);
+        Map<?, ?> userBuckets = (Map<?, ?>) ReflectionTestUtils.getField(interceptor, "userBuckets");
+
+        interceptor.evictIdleUsers();
+        assertTrue(userBuckets.containsKey("CLIENT:7"));
+
+        properties.setIdleEvictionSeconds(0);
+        interceptor.evictIdleUsers();
+        assertTrue(userBuckets.isEmpty());
+    }
+
+    private Message<?> send(String sessionId, Long userId, String destination, String receipt) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        if (receipt != null) {
+            accessor.setReceipt(receipt);
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        if (userId != null) {
+            attributes.put(StompSessionAuthInterceptor.ATTR_USER_ID, userId);
+            attributes.put(StompSessionAuthInterceptor.ATTR_ROLE, "CLIENT");
+        }
+        accessor.setSessionAttributes(attributes);
+        accessor.setLeaveMutable(true);
+        return interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), null);
+    }
+
+    private static RateLimitProperties.Rule rule(String pattern, double sessionCapacity, double userCapacity) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setSessionCapacity(sessionCapacity);
+        rule.setSessionRefillPerSecond(0);
+        rule.setUserCapacity(userCapacity);
+        rule.setUserRefillPerSecond(0);
+        return rule;
+    }
+}
@@ -0,0 +1,94 @@
+package com.mycompany.service;
+
+import com.mycompany.config.SnapshotProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatRoutingStateTest {
+
+    @TempDir
+    Path dir;
+
+    private final SnapshotProperties properties = new SnapshotProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setPath(dir.resolve("chat-routing.snapshot").toString());
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+        long now = System.currentTimeMillis();
+        ChatRoutingState written = state();
+        written.assign(1L, 7L);
+        written.getActiveCalls().put("call-1", 1L);
+        written.putParticipants(1L, new TicketService.Participants(3L, 7L, now));
+        written.putParticipants(2L, new TicketService.Participants(4L, 8L, now - 3_600_000));
+        written.getClientUidMap().put(3L, "uid-3");
+        written.snapshot();
+
+        ChatRoutingState restored = state();
+        restored.restore();
+
+        assertEquals(7L, restored.getAssignedSupport(1L));
+        assertEquals(1L, restored.getActiveCalls().get("call-1"));
+        TicketService.Participants participants = restored.getParticipants(1L);
+        assertEquals(3L, participants.getClientId());
+        assertEquals(7L, participants.getSupportTeamId());
+        assertEquals(now, participants.getFetchedAt());
+        // Older than the TTL, and UIDs are never written
+        assertNull(restored.getParticipants(2L));
+        assertTrue(restored.getClientUidMap().isEmpty());
+    }
+
+    @Test
+    void assignmentsOlderThanTheTtlAreNotRestored() throws InterruptedException {
+        ChatRoutingState written = state();
+        written.assign(1L, 7L);
+        written.snapshot();
+        Thread.sleep(10);
+
+        properties.setParticipantsTtlSeconds(0);
+        ChatRoutingState restored = state();
+        restored.restore();
+
+        assertNull(restored.getAssignedSupport(1L));
+    }
+
+    @Test
+    void failedWriteKeepsThePreviousSnapshotAndNoTempFile() throws IOException {
+        ChatRoutingState written = state();
+        written.assign(1L, 7L);
+        written.snapshot();
+
+        // Longer than writeUTF accepts
+        written.getActiveCalls().put("c".repeat(70_000), 1L);
+        written.assign(1L, 8L);
+        written.snapshot();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".tmp")));
+        }
+        ChatRoutingState restored = state();
+        restored.restore();
+        assertEquals(7L, restored.getAssignedSupport(1L));
+    }
+
+    private ChatRoutingState state() {
+        ChatRoutingState state = new ChatRoutingState();
+        ReflectionTestUtils.setField(state, "properties", properties);
+        return state;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ReplayProperties;
+import com.mycompany.model.TicketMessage;
+import com.mycompany.model.TicketMessage.SenderType;
+import com.mycompany.model.TicketMessageSeq;
+import com.mycompany.repository.TicketMessageRepository;
+import com.mycompany.repository.TicketMessageSeqRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Each call commits on its own, as in the service, instead of in one test transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TicketMessageStreamsTest {
+
+    private static final long TICKET = 42L;
+
+    @Autowired
+    private TicketMessageRepository messageRepository;
+
+    @Autowired
+    private TicketMessageSeqRepository seqRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReplayProperties properties = new ReplayProperties();
+    private TicketMessageStreams streams;
+
+    @BeforeEach
+    void setUp() {
+        properties.setRingSize(3);
+        streams = streams();
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        seqRepository.deleteAll();
+    }
+
+    @Test
+    void appendNumbersMessagesAfterTheStoredOnes() {
+        TicketMessage old = message("before sequences");
+        old.setSeq(null);
+        messageRepository.save(old);
+
+        assertEquals(2L, streams.append(message("first")).getSeq());
+        assertEquals(3L, streams.append(message("second")).getSeq());
+
+        assertEquals(1L, messageRepository.findById(old.getId()).orElseThrow().getSeq());
+        assertEquals(3L, seqRepository.findLastSeq(TICKET).orElseThrow());
+    }
+
+    @Test
+    void replayReturnsTheGapWhileTheRingHoldsIt() {
+        for (int i = 1; i <= 4; i++) {
+            streams.append(message("m" + i));
+        }
+
+        assertEquals(List.of(3L, 4L), seqs(streams.replay(TICKET, 2, 4)));
+        assertEquals(List.of(), streams.replay(TICKET, 4, 4));
+        // The ring keeps three messages, so seq 1 is gone
+        assertNull(streams.replay(TICKET, 0, 4));
+        // Another instance may have written after the last message seen here
+        assertNull(streams.replay(TICKET, 2, 5));
+        assertNull(streams.replay(7L, 0, 1));
+    }
+
+    @Test
+    void messageFromAnotherInstanceLeavesNoGapInTheRing() {
+        streams.append(message("here"));
+        streams().append(message("elsewhere"));
+
+        TicketMessage next = streams.append(message("here again"));
+
+        assertEquals(3L, next.getSeq());
+        assertNull(streams.replay(TICKET, 1, 3));
+        assertEquals(List.of(3L), seqs(streams.replay(TICKET, 2, 3)));
+    }
+
+    @Test
+    void newCounterNeverOverwritesAnExistingRow() {
+        streams.append(message("first"));
+        streams.append(message("second"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> seqRepository.saveAndFlush(new TicketMessageSeq(TICKET, 0)));
+
+        assertEquals(2L, seqRepository.findLastSeq(TICKET).orElseThrow());
+        // A stream that has not seen the ticket finds the row and carries on
+        assertEquals(3L, streams().append(message("third")).getSeq());
+    }
+
+    // A second instance of the service, sharing only the database
+    private TicketMessageStreams streams() {
+        TicketMessageStreams instance = new TicketMessageStreams();
+        ReflectionTestUtils.setField(instance, "ticketMessageRepository", messageRepository);
+        ReflectionTestUtils.setField(instance, "seqRepository", seqRepository);
+        ReflectionTestUtils.setField(instance, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(instance, "properties", properties);
+        return instance;
+    }
+
+    private static TicketMessage message(String text) {
+        return new TicketMessage(TICKET, 1L, SenderType.CLIENT, 2L, SenderType.SUPPORT, text);
+    }
+
+    private static List<Long> seqs(List<TicketMessage> messages) {
+        return messages.stream().map(TicketMessage::getSeq).collect(Collectors.toList());
+    }
+}
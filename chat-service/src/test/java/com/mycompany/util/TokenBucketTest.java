@@ -0,0 +1,54 @@
+package com.mycompany.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void startsFullAndEmptiesWithoutRefill() {
+        TokenBucket bucket = new TokenBucket(2, 0);
+
+        assertTrue(bucket.tryConsume());
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+    }
+
+    @Test
+    void refillsOverTimeUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+
+        // 50 ms at 100 tokens/s would be five tokens, but the bucket holds one
+        Thread.sleep(50);
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+    }
+
+    @Test
+    void consumeBothTakesNothingWhenEitherIsEmpty() {
+        TokenBucket session = new TokenBucket(2, 0);
+        TokenBucket user = new TokenBucket(1, 0);
+
+        assertNull(TokenBucket.tryConsumeBoth(session, user));
+        assertSame(user, TokenBucket.tryConsumeBoth(session, user));
+        // The refused frame left the session's second token in place
+        assertTrue(session.tryConsume());
+        assertSame(session, TokenBucket.tryConsumeBoth(session, new TokenBucket(1, 0)));
+    }
+
+    @Test
+    void lastUsedMovesOnEveryAttempt() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0, 0);
+        long created = bucket.getLastUsed();
+        Thread.sleep(2);
+
+        assertFalse(bucket.tryConsume());
+        assertTrue(bucket.getLastUsed() > created);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mycompany.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hibernate second-level cache on a local, heap-bounded Ehcache. Regions are created here
+ * from the service's {@link EntityCacheProperties} bean; the services set
+ * {@code hibernate.javax.cache.missing_cache_strategy=fail}, so Hibernate refuses to start
+ * with a region that is not listed and none grows unbounded. Writes made through JPA update
+ * or evict the cached entries, and queries cached on a table are dropped when it changes.
+ */
+@AutoConfiguration
+@ConditionalOnBean(EntityCacheProperties.class)
+public class EntityCacheAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()).getCacheManager();
+        properties.getRegions().forEach((name, region) -> {
+            CacheConfiguration<Object, Object> configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(region.getHeapEntries()))
+                    .withExpiry(region.getTtlSeconds() > 0
+                            ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(region.getTtlSeconds()))
+                            : ExpiryPolicyBuilder.noExpiration())
+                    .build();
+            cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(EntityManagerFactory entityManagerFactory, EntityCacheProperties properties) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : properties.getRegions().keySet()) {
+                Tags tags = Tags.of("region", region);
+                FunctionCounter.builder("hibernate.cache.region.hits", statistics, count(region, CacheRegionStatistics::getHitCount))
+                        .description("Second-level cache lookups served from the region")
+                        .tags(tags)
+                        .register(registry);
+                FunctionCounter.builder("hibernate.cache.region.misses", statistics, count(region, CacheRegionStatistics::getMissCount))
+                        .description("Second-level cache lookups that went to the database")
+                        .tags(tags)
+                        .register(registry);
+                Gauge.builder("hibernate.cache.region.hit.ratio", statistics, s -> hitRatio(regionStatistics(s, region)))
+                        .description("Share of second-level cache lookups served from the region")
+                        .tags(tags)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static ToDoubleFunction<Statistics> count(String region, ToDoubleFunction<CacheRegionStatistics> metric) {
+        return statistics -> {
+            CacheRegionStatistics regionStatistics = regionStatistics(statistics, region);
+            return regionStatistics != null ? metric.applyAsDouble(regionStatistics) : 0;
+        };
+    }
+
+    private static CacheRegionStatistics regionStatistics(Statistics statistics, String region) {
+        try {
+            return statistics.getCacheRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            // Configured, but no entity or query uses it
+            return null;
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / lookups;
+    }
+}
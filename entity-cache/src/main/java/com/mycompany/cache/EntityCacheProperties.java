@@ -0,0 +1,27 @@
+package com.mycompany.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sizes of the Hibernate second-level cache regions. Each service binds them from its own
+ * prefix, e.g. {@code auth.cache.regions.*}; every region Hibernate uses must be listed.
+ */
+public class EntityCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    public Map<String, Region> getRegions() { return regions; }
+    public void setRegions(Map<String, Region> regions) { this.regions = regions; }
+
+    public static class Region {
+        private long heapEntries = 1000;
+        // Bounds how long another instance's write can go unseen; 0 keeps entries until evicted
+        private long ttlSeconds = 300;
+
+        public long getHeapEntries() { return heapEntries; }
+        public void setHeapEntries(long heapEntries) { this.heapEntries = heapEntries; }
+        public long getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mycompany.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCacheAutoConfigurationTest {
+
+    private final EntityCacheAutoConfiguration configuration = new EntityCacheAutoConfiguration();
+    private final EntityCacheProperties properties = new EntityCacheProperties();
+
+    private CacheManager cacheManager;
+    private SessionFactory sessionFactory;
+
+    @AfterEach
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        // The Ehcache provider hands out one default manager per class loader
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    void listedRegionBacksTheEntity() {
+        properties.getRegions().put("items", new EntityCacheProperties.Region());
+        sessionFactory = buildSessionFactory();
+
+        inSession(session -> session.persist(new CachedItem(1L, "first")));
+        sessionFactory.getCache().evictAllRegions();
+        inSession(session -> session.get(CachedItem.class, 1L));
+        inSession(session -> session.get(CachedItem.class, 1L));
+
+        assertTrue(sessionFactory.getCache().containsEntity(CachedItem.class, 1L));
+        assertEquals(1, sessionFactory.getStatistics().getCacheRegionStatistics("items").getHitCount());
+    }
+
+    @Test
+    void unlistedRegionFailsStartup() {
+        properties.getRegions().put("others", new EntityCacheProperties.Region());
+
+        RuntimeException failure = assertThrows(RuntimeException.class, this::buildSessionFactory);
+
+        assertTrue(causes(failure).contains("items"), causes(failure));
+    }
+
+    @Test
+    void metricsReportHitsPerRegion() {
+        properties.getRegions().put("items", new EntityCacheProperties.Region());
+        properties.getRegions().put("unused", new EntityCacheProperties.Region());
+        sessionFactory = buildSessionFactory();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        configuration.entityCacheMetrics(sessionFactory, properties).bindTo(registry);
+
+        inSession(session -> session.persist(new CachedItem(1L, "first")));
+        sessionFactory.getCache().evictAllRegions();
+        inSession(session -> session.get(CachedItem.class, 1L));
+        inSession(session -> session.get(CachedItem.class, 1L));
+
+        assertEquals(1.0, registry.get("hibernate.cache.region.hits").tag("region", "items").functionCounter().count());
+        assertEquals(1.0, registry.get("hibernate.cache.region.misses").tag("region", "items").functionCounter().count());
+        assertEquals(0.5, registry.get("hibernate.cache.region.hit.ratio").tag("region", "items").gauge().value());
+        assertEquals(0.0, registry.get("hibernate.cache.region.hits").tag("region", "unused").functionCounter().count());
+    }
+
+    // The settings the services put in application.properties, plus the customizer's cache manager
+    private SessionFactory buildSessionFactory() {
+        cacheManager = configuration.entityCacheManager(properties);
+        Map<String, Object> hibernateProperties = new HashMap<>();
+        configuration.entityCacheCustomizer(cacheManager).customize(hibernateProperties);
+        Configuration hibernate = new Configuration()
+                .addAnnotatedClass(CachedItem.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:entity-cache;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.cache.use_second_level_cache", "true")
+                .setProperty("hibernate.cache.region.factory_class", "jcache")
+                .setProperty("hibernate.javax.cache.missing_cache_strategy", "fail")
+                .setProperty("hibernate.generate_statistics", "true");
+        hibernate.getProperties().put(ConfigSettings.CACHE_MANAGER, hibernateProperties.get(ConfigSettings.CACHE_MANAGER));
+        return hibernate.buildSessionFactory();
+    }
+
+    private void inSession(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            work.accept(session);
+            session.getTransaction().commit();
+        }
+    }
+
+    private static String causes(Throwable failure) {
+        StringBuilder messages = new StringBuilder();
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            messages.append(cause.getMessage()).append('\n');
+        }
+        return messages.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.mycompany.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the AppCDS archive of the fast-start profile and measures what it saves. Runs in
+ * {@code target/cds} once the profile has copied the runtime classpath to {@code lib} and
+ * listed it in {@code classpath.txt}:
+ * <pre>
+ * java -cp lib/fast-start-1.jar com.mycompany.startup.CdsArchiveBuilder ../app.jar com.mycompany.App [JVM options]
+ * </pre>
+ * The service is started three times, each time exiting once ready:
+ * <ol>
+ * <li>a plain start, which uses the JDK's default CDS archive, as the baseline;</li>
+ * <li>the training run, with sharing off so every loaded class is recorded; being slower than
+ * a plain start, its time is no baseline;</li>
+ * <li>a start from the archive dumped from that class list.</li>
+ * </ol>
+ */
+public final class CdsArchiveBuilder {
+
+    // Logged by StartupExitListener
+    private static final Pattern READY = Pattern.compile("Ready (\\d+) ms after JVM start");
+
+    static final String CLASS_LIST = "app.classlist";
+    static final String ARCHIVE = "app.jsa";
+
+    private CdsArchiveBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: CdsArchiveBuilder <application jar> <main class> [JVM options]");
+            System.exit(2);
+        }
+        String classpath = args[0] + File.pathSeparator
+                + new String(Files.readAllBytes(Paths.get("classpath.txt")), StandardCharsets.UTF_8).trim();
+        String mainClass = args[1];
+        List<String> options = Arrays.asList(args).subList(2, args.length);
+
+        long baseline = start(startCommand(List.of(), options, classpath, mainClass));
+        start(startCommand(List.of("-Xshare:off", "-XX:DumpLoadedClassList=" + CLASS_LIST), options, classpath, mainClass));
+        run(dumpCommand(classpath));
+        long archived = start(startCommand(List.of("-XX:SharedArchiveFile=" + ARCHIVE), options, classpath, mainClass));
+
+        System.out.printf("Ready after %d ms with the default CDS archive, %d ms with %s (%+d ms)%n",
+                baseline, archived, ARCHIVE, archived - baseline);
+    }
+
+    static List<String> startCommand(List<String> sharing, List<String> options, String classpath, String mainClass) {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(sharing);
+        command.addAll(options);
+        command.add("-Dspring.profiles.active=fast");
+        command.add("-Dserver.port=0");
+        command.add("-Dstartup.exit-after-ready=true");
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        return command;
+    }
+
+    static List<String> dumpCommand(String classpath) {
+        return List.of(java(), "-Xshare:dump", "-XX:SharedClassListFile=" + CLASS_LIST,
+                "-XX:SharedArchiveFile=" + ARCHIVE, "-cp", classpath);
+    }
+
+    /**
+     * The startup time in a line of service output, or -1 if the line does not report it.
+     */
+    static long readyMillis(String line) {
+        Matcher matcher = READY.matcher(line);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    // Runs the service until it exits and returns the startup time it logged
+    private static long start(List<String> command) throws IOException, InterruptedException {
+        long ready = run(command);
+        if (ready < 0) {
+            throw new IllegalStateException("No startup time logged by " + String.join(" ", command));
+        }
+        return ready;
+    }
+
+    private static long run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long ready = -1;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                System.out.println(line);
+                long millis = readyMillis(line);
+                if (millis >= 0) {
+                    ready = millis;
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Exit code " + exitCode + " from " + String.join(" ", command));
+        }
+        return ready;
+    }
+
+    // The JDK running the build, so the archive matches the JVM that will read it
+    private static String java() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
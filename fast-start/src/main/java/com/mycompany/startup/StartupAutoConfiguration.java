@@ -0,0 +1,18 @@
+package com.mycompany.startup;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers the {@link StartupExitListener} in each service. It is declared here instead of
+ * being annotated as a component because the fast-start profile of the Boot 2.7 services
+ * replaces classpath scanning with a build-time index that lists only the service's own classes.
+ */
+@AutoConfiguration
+public class StartupAutoConfiguration {
+
+    @Bean
+    public StartupExitListener startupExitListener() {
+        return new StartupExitListener();
+    }
+}
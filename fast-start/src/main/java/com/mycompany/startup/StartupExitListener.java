@@ -0,0 +1,30 @@
+package com.mycompany.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs how long the JVM took to become ready and, for the fast-start build's training and
+ * measurement runs ({@code startup.exit-after-ready=true}), shuts the service down right after.
+ */
+public class StartupExitListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupExitListener.class);
+
+    @Value("${startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        logger.info("Ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
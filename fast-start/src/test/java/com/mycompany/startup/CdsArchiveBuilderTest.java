@@ -0,0 +1,37 @@
+package com.mycompany.startup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CdsArchiveBuilderTest {
+
+    @Test
+    void readsTheStartupTimeFromTheServiceLog() {
+        assertEquals(2345, CdsArchiveBuilder.readyMillis(
+                "2026-10-19 09:30:40.205 INFO 1 --- [main] c.m.startup.StartupExitListener : Ready 2345 ms after JVM start"));
+        assertEquals(-1, CdsArchiveBuilder.readyMillis("Started authApp in 2.1 seconds (JVM running for 2.4)"));
+    }
+
+    @Test
+    void baselineStartsWithoutSharingFlags() {
+        List<String> command = CdsArchiveBuilder.startCommand(List.of(), List.of(), "app.jar", "com.mycompany.App");
+
+        assertTrue(command.stream().noneMatch(argument -> argument.startsWith("-Xshare") || argument.contains("Archive")));
+        assertEquals(List.of("-cp", "app.jar", "com.mycompany.App"), command.subList(command.size() - 3, command.size()));
+    }
+
+    @Test
+    void sharingAndServiceOptionsComeBeforeTheMainClass() {
+        List<String> command = CdsArchiveBuilder.startCommand(List.of("-XX:SharedArchiveFile=app.jsa"),
+                List.of("-Dspring.aot.enabled=true"), "app.jar", "com.mycompany.App");
+
+        assertEquals("-XX:SharedArchiveFile=app.jsa", command.get(1));
+        assertEquals("-Dspring.aot.enabled=true", command.get(2));
+        assertTrue(command.contains("-Dstartup.exit-after-ready=true"));
+        assertEquals("com.mycompany.App", command.get(command.size() - 1));
+    }
+}
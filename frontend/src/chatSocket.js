@@ -0,0 +1,43 @@
+import SockJS from 'sockjs-client';
+
+// STOMP runs over a plain WebSocket on /stomp, where the browser negotiates
+// permessage-deflate. If that cannot connect (a proxy that drops the upgrade, say), the
+// rest of the page's lifetime uses SockJS on /ws instead.
+
+const NATIVE_URL = 'wss://chat.prjsdr.xyz/stomp';
+const SOCKJS_URL = 'https://chat.prjsdr.xyz/ws';
+const STOMP_PROTOCOLS = ['v12.stomp', 'v11.stomp', 'v10.stomp'];
+
+let nativeUnavailable = typeof WebSocket === 'undefined';
+
+// Use as the STOMP client's webSocketFactory; a fresh socket is needed for every reconnect
+export const createChatSocket = () => {
+  if (nativeUnavailable) {
+    return new SockJS(SOCKJS_URL, null, { timeout: 30000 });
+  }
+  const socket = new WebSocket(NATIVE_URL, STOMP_PROTOCOLS);
+  let opened = false;
+  socket.addEventListener('open', () => {
+    opened = true;
+  });
+  socket.addEventListener('close', () => {
+    if (!opened) {
+      console.warn('Plain WebSocket to chat service failed, falling back to SockJS');
+      nativeUnavailable = true;
+    }
+  });
+  return socket;
+};
+
+export const RECONNECT_DELAY = 5000;
+
+const SERVICE_RESTART = 1012;
+const RECONNECT_HINT = /reconnect-after-ms=(\d+)/;
+
+// A chat-service instance shutting down closes its sessions with 1012 and a randomized
+// delay, so its clients come back spread out rather than all at once. Call from the STOMP
+// client's onWebSocketClose, which runs before the next reconnect is scheduled.
+export const applyReconnectHint = (client, event) => {
+  const hint = event && event.code === SERVICE_RESTART && RECONNECT_HINT.exec(event.reason || '');
+  client.reconnectDelay = hint ? Number(hint[1]) : RECONNECT_DELAY;
+};
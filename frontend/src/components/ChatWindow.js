@@ -2,8 +2,8 @@ import React, { useState, useEffect, useRef } from 'react';
 import axios from 'axios';
 import { formatDistanceToNow } from 'date-fns';
 import { PhoneIcon, ArrowsPointingOutIcon, ChevronDownIcon } from '@heroicons/react/24/outline';
-import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
+import { applyReconnectHint, createChatSocket, RECONNECT_DELAY } from '../chatSocket';
 
 const ChatWindow = ({ ticket, onNewMessage }) => {
   const [messages, setMessages] = useState([]);
@@ -170,10 +170,9 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
       return;
     }
 
-    const socket = new SockJS('https://chat.prjsdr.xyz/ws', null, { timeout: 30000 });
     const client = new Client({
-      webSocketFactory: () => socket,
-      reconnectDelay: 5000,
+      webSocketFactory: createChatSocket,
+      reconnectDelay: RECONNECT_DELAY,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
       debug: (str) => console.log(`Client: STOMP: ${str}`),
@@ -206,10 +205,29 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
         }
       });
       console.log('Client: Subscribed to /user/' + userId + '/uid with sub-id:', uidSub.id);
+
+      // Messages that arrived while we were offline come here as a single batch
+      client.subscribe('/topic/inbox', (message) => {
+        try {
+          const { notifications = [], readAt } = JSON.parse(message.body);
+          console.log('Client: Received', notifications.length, 'stored notifications');
+          notifications
+            .filter((notification) => notification.type === 'NEW_MESSAGE')
+            .forEach((notification) => onNewMessage(notification.ticketId));
+          // The server keeps them until told we have them
+          client.publish({
+            destination: '/app/inbox/ack',
+            body: JSON.stringify({ ids: notifications.map((notification) => notification.id), readAt }),
+          });
+        } catch (error) {
+          console.error('Client: Error parsing inbox batch:', error, 'Raw message:', message.body);
+        }
+      });
     };
 
     client.onWebSocketClose = (event) => {
       console.error('Client: WebSocket closed:', event);
+      applyReconnectHint(client, event);
       stompClientRef.current = null;
       setIsConnected(false);
     };
@@ -221,6 +239,42 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
     };
   }, [token, userId]);
 
+  // Highest sequence number seen for the open ticket, used to catch up after a reconnect
+  const lastSeqRef = useRef({ ticketId: null, seq: 0 });
+
+  // Fetch only the messages sent while we were away, page by page
+  const catchUpMessages = async (forTicketId) => {
+    let hasMore = true;
+    while (hasMore && lastSeqRef.current.ticketId === forTicketId && lastSeqRef.current.seq > 0) {
+      const response = await axios.get(`https://chat.prjsdr.xyz/api/chat/messages/${forTicketId}`, {
+        params: { afterSeq: lastSeqRef.current.seq },
+        headers: { Authorization: `Bearer ${localStorage.getItem('jwtToken') || token}` },
+      });
+      response.data.messages.forEach(appendMessage);
+      hasMore = response.data.hasMore && response.data.messages.length > 0;
+    }
+  };
+
+  // A message can arrive both from the room and the personal destination; keep one copy
+  const appendMessage = (receivedMessage) => {
+    if (receivedMessage.ticketId === lastSeqRef.current.ticketId && receivedMessage.seq > lastSeqRef.current.seq) {
+      lastSeqRef.current.seq = receivedMessage.seq;
+    }
+    setMessages((prev) => {
+      if (receivedMessage.id && prev.some((m) => m.id === receivedMessage.id)) {
+        return prev;
+      }
+      return [
+        ...prev,
+        {
+          ...receivedMessage,
+          content: receivedMessage.message,
+          timestamp: receivedMessage.createdAt,
+        },
+      ];
+    });
+  };
+
   useEffect(() => {
     if (!isConnected || !stompClientRef.current || !uid) {
       console.log('Client: Skipping message subscription due to missing requirements', {
@@ -237,14 +291,7 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
         const receivedMessage = JSON.parse(message.body);
         console.log('Client: Received WebSocket message:', receivedMessage);
         if (receivedMessage.ticketId === ticketId) {
-          setMessages((prev) => [
-            ...prev,
-            {
-              ...receivedMessage,
-              content: receivedMessage.message,
-              timestamp: receivedMessage.createdAt,
-            },
-          ]);
+          appendMessage(receivedMessage);
         }
         // Notify parent about new message for any ticket
         onNewMessage(receivedMessage.ticketId);
@@ -262,6 +309,31 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
     };
   }, [isConnected, uid, ticketId, onNewMessage]);
 
+  // Join the open ticket's room; the server checks access once, on SUBSCRIBE
+  useEffect(() => {
+    if (!isConnected || !stompClientRef.current || !ticketId) {
+      return;
+    }
+
+    const roomSub = stompClientRef.current.subscribe(
+      `/topic/ticket/${ticketId}`,
+      (message) => {
+        try {
+          appendMessage(JSON.parse(message.body));
+        } catch (error) {
+          console.error('Client: Error parsing room message:', error);
+        }
+      },
+      { Authorization: `Bearer ${localStorage.getItem('jwtToken') || token}` }
+    );
+    console.log('Client: Joined room of ticket', ticketId, 'with sub-id:', roomSub.id);
+    catchUpMessages(ticketId).catch((error) => console.error('Client: Error catching up messages:', error));
+
+    return () => {
+      roomSub.unsubscribe();
+    };
+  }, [isConnected, ticketId]);
+
   useEffect(() => {
     if (!isConnected || !stompClientRef.current || !ticketId) {
       console.log('Client: Skipping call subscriptions due to missing requirements', {
@@ -340,6 +412,10 @@ const ChatWindow = ({ ticket, onNewMessage }) => {
           headers: { Authorization: `Bearer ${token}` },
         });
         console.log('Client: Received messages:', response.data);
+        lastSeqRef.current = {
+          ticketId,
+          seq: response.data.reduce((max, msg) => Math.max(max, msg.seq || 0), 0),
+        };
         setMessages(
           response.data.map((msg) => ({
             ...msg,
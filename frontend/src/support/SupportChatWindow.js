@@ -2,8 +2,8 @@ import React, { useState, useEffect, useRef } from 'react';
 import axios from 'axios';
 import { formatDistanceToNow } from 'date-fns';
 import { PhoneIcon, ArrowsPointingOutIcon, ArrowsPointingInIcon, ChevronDownIcon } from '@heroicons/react/24/outline';
-import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
+import { applyReconnectHint, createChatSocket, RECONNECT_DELAY } from '../chatSocket';
 
 const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessage }) => {
   const [messages, setMessages] = useState([]);
@@ -201,10 +201,9 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
       return;
     }
 
-    const socket = new SockJS('https://chat.prjsdr.xyz/ws', null, { timeout: 30000 });
     const client = new Client({
-      webSocketFactory: () => socket,
-      reconnectDelay: 5000,
+      webSocketFactory: createChatSocket,
+      reconnectDelay: RECONNECT_DELAY,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
       debug: (str) => console.log(`Support: STOMP: ${str}`),
@@ -263,12 +262,39 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
       });
       console.log('Support: Subscribed to /topic/tickets/created with sub-id:', topicSub.id);
       setTopicSubscription(topicSub);
+
+      // Whatever happened while we were offline arrives here as a single batch
+      client.subscribe('/topic/inbox', (message) => {
+        try {
+          const { notifications = [], readAt } = JSON.parse(message.body);
+          console.log('Support: Received', notifications.length, 'stored notifications');
+          notifications.forEach((notification) => {
+            if (notification.type === 'TICKET_CREATED' && onTicketReceived) {
+              onTicketReceived({ ...notification.data, isNew: true });
+            } else if (notification.type === 'NEW_MESSAGE' && onNewMessage) {
+              for (let i = 0; i < Math.min(notification.count, 99); i++) {
+                onNewMessage(notification.ticketId);
+              }
+            } else {
+              console.log('Support: Stored notification:', notification);
+            }
+          });
+          // The server keeps them until told we have them
+          client.publish({
+            destination: '/app/inbox/ack',
+            body: JSON.stringify({ ids: notifications.map((notification) => notification.id), readAt }),
+          });
+        } catch (error) {
+          console.error('Support: Error parsing inbox batch:', error, 'Raw message:', message.body);
+        }
+      });
     };
 
     client.onStompError = (error) => console.error('Support: WebSocket STOMP error:', error);
     client.onWebSocketError = (error) => console.error('Support: WebSocket error:', error);
     client.onWebSocketClose = (event) => {
       console.error('Support: WebSocket closed:', event);
+      applyReconnectHint(client, event);
       setIsConnected(false);
       setTopicSubscription(null);
     };
@@ -293,6 +319,38 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
     };
   }, [token, supportId, onTicketReceived]);
 
+  // Highest sequence number seen for the open ticket, used to catch up after a reconnect
+  const lastSeqRef = useRef({ ticketId: null, seq: 0 });
+
+  // Fetch only the messages sent while we were away, page by page
+  const catchUpMessages = async (forTicketId) => {
+    let hasMore = true;
+    while (hasMore && lastSeqRef.current.ticketId === forTicketId && lastSeqRef.current.seq > 0) {
+      const response = await axios.get(`https://chat.prjsdr.xyz/api/chat/messages/${forTicketId}`, {
+        params: { afterSeq: lastSeqRef.current.seq },
+        headers: { Authorization: `Bearer ${localStorage.getItem('jwtToken') || token}` },
+      });
+      response.data.messages.forEach(appendMessage);
+      hasMore = response.data.hasMore && response.data.messages.length > 0;
+    }
+  };
+
+  // A message can arrive both from the room and the personal destination; keep one copy
+  const appendMessage = (receivedMessage) => {
+    if (receivedMessage.ticketId === lastSeqRef.current.ticketId && receivedMessage.seq > lastSeqRef.current.seq) {
+      lastSeqRef.current.seq = receivedMessage.seq;
+    }
+    setMessages((prev) => {
+      if (receivedMessage.id && prev.some((m) => m.id === receivedMessage.id)) {
+        return prev;
+      }
+      return [
+        ...prev,
+        { ...receivedMessage, content: receivedMessage.message, timestamp: receivedMessage.createdAt },
+      ];
+    });
+  };
+
   const setupMessageSubscription = () => {
     if (!isConnected || !stompClientRef.current?.active || !uid) {
       console.log('Support: Cannot setup message subscription, requirements missing:', {
@@ -316,10 +374,7 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
       console.log('Support: Received WebSocket message:', receivedMessage, 'Current ticketId:', ticketId);
       if (ticketId && receivedMessage.ticketId === ticketId) {
         console.log('Support: Message matches selected ticket ID:', ticketId);
-        setMessages((prev) => [
-          ...prev,
-          { ...receivedMessage, content: receivedMessage.message, timestamp: receivedMessage.createdAt },
-        ]);
+        appendMessage(receivedMessage);
       } else {
         console.warn('Support: Message for non-selected ticket ID:', receivedMessage.ticketId, 'Selected:', ticketId);
         if (onNewMessage && receivedMessage.ticketId) {
@@ -344,6 +399,31 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
     };
   }, [isConnected, uid, ticketId]);
 
+  // Join the selected ticket's room; the server checks access once, on SUBSCRIBE
+  useEffect(() => {
+    if (!isConnected || !stompClientRef.current?.active || !ticketId) {
+      return;
+    }
+
+    const roomSub = stompClientRef.current.subscribe(
+      `/topic/ticket/${ticketId}`,
+      (message) => {
+        try {
+          appendMessage(JSON.parse(message.body));
+        } catch (error) {
+          console.error('Support: Error parsing room message:', error);
+        }
+      },
+      { Authorization: `Bearer ${localStorage.getItem('jwtToken') || token}` }
+    );
+    console.log('Support: Joined room of ticket', ticketId, 'with sub-id:', roomSub.id);
+    catchUpMessages(ticketId).catch((error) => console.error('Support: Error catching up messages:', error));
+
+    return () => {
+      roomSub.unsubscribe();
+    };
+  }, [isConnected, ticketId]);
+
   const setupCallSubscriptions = () => {
     if (!isConnected || !stompClientRef.current?.active || !ticketId) {
       console.log('Support: Cannot setup call subscriptions, requirements missing:', {
@@ -433,6 +513,10 @@ const SupportChatWindow = ({ ticket, onTicketReceived, onMarkAsRead, onNewMessag
             headers: { Authorization: `Bearer ${token}` },
           });
           console.log('Support: Fetched messages for ticket ID:', ticketId, response.data);
+          lastSeqRef.current = {
+            ticketId,
+            seq: response.data.reduce((max, msg) => Math.max(max, msg.seq || 0), 0),
+          };
           setMessages(
             response.data.map((msg) => ({
               ...msg,
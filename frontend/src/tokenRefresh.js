@@ -0,0 +1,76 @@
+// Access tokens from the auth services expire after 15 minutes. The login portal hands
+// over a rotating refresh token in the URL fragment; this keeps localStorage.jwtToken
+// valid by exchanging it before the access token runs out.
+
+const REFRESH_TOKEN_KEY = 'refreshToken';
+const REFRESH_PORTAL_KEY = 'refreshPortal';
+const REFRESH_INTERVAL_MS = 10 * 60 * 1000;
+
+// Where each portal's refresh token is exchanged. Fixed here, never taken from the URL,
+// so a crafted link cannot make the app post the refresh token somewhere else.
+const REFRESH_URLS = {
+  client: 'https://auth-api.prjsdr.xyz/api/auth/refresh',
+  support: 'https://support-api.prjsdr.xyz/api/auth/refresh',
+  admin: 'https://admin-api.prjsdr.xyz/api/auth/refresh',
+};
+
+// Each login portal redirects to its own landing path
+const portalForPath = (pathname) => {
+  if (pathname.startsWith('/support')) return 'support';
+  if (pathname.startsWith('/admin')) return 'admin';
+  return 'client';
+};
+
+const captureTokensFromUrl = () => {
+  const url = new URL(window.location.href);
+  const fragment = new URLSearchParams(url.hash.replace(/^#/, ''));
+  const refreshToken = fragment.get(REFRESH_TOKEN_KEY);
+  const tokenFromUrl = url.searchParams.get('token');
+  if (!refreshToken && !tokenFromUrl) return;
+
+  if (refreshToken) {
+    localStorage.setItem(REFRESH_TOKEN_KEY, refreshToken);
+    localStorage.setItem(REFRESH_PORTAL_KEY, portalForPath(url.pathname));
+  }
+  if (tokenFromUrl) {
+    // Once stored, drop the token from the address bar so a reload can't resurrect an expired one
+    localStorage.setItem('jwtToken', tokenFromUrl);
+    url.searchParams.delete('token');
+  }
+  window.history.replaceState(null, '', url.pathname + url.search);
+};
+
+export const refreshAccessToken = async () => {
+  const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY);
+  const refreshUrl = REFRESH_URLS[localStorage.getItem(REFRESH_PORTAL_KEY)];
+  if (!refreshToken || !refreshUrl) return null;
+
+  try {
+    const response = await fetch(refreshUrl, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    });
+    if (response.status === 401) {
+      // Expired, revoked or reused: a fresh login is required
+      localStorage.removeItem(REFRESH_TOKEN_KEY);
+      return null;
+    }
+    if (!response.ok) return null;
+    const data = await response.json();
+    if (data.status !== 'SUCCESS') return null;
+    localStorage.setItem('jwtToken', data.jwt);
+    localStorage.setItem(REFRESH_TOKEN_KEY, data.refreshToken);
+    return data.jwt;
+  } catch (error) {
+    console.error('Token refresh failed:', error);
+    return null;
+  }
+};
+
+export const startTokenRefresh = () => {
+  // Left behind by earlier versions, which took the endpoint from the URL
+  localStorage.removeItem('refreshUrl');
+  captureTokensFromUrl();
+  setInterval(refreshAccessToken, REFRESH_INTERVAL_MS);
+};
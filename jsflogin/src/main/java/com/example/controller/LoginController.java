@@ -1,5 +1,6 @@
 package com.example.controller;
 
+import com.example.service.ApiClient;
 import com.example.service.AuthService;
 import javax.enterprise.context.RequestScoped;
 import javax.faces.context.ExternalContext;
@@ -8,9 +9,10 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Logger;
 import org.json.JSONObject;
 
@@ -22,6 +24,9 @@ public class LoginController {
     @Inject
     private AuthService authService;
 
+    @Inject
+    private ApiClient apiClient;
+
     private String email;
     private String password;
     private String errorMessage;
@@ -40,8 +45,6 @@ public class LoginController {
             payload.put("email", email);
             payload.put("password", password);
 
-            // Create HTTP client
-            HttpClient client = HttpClient.newHttpClient();
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create("http://localhost:8090/api/auth/login"))
                     .header("Content-Type", "application/json")
@@ -49,13 +52,14 @@ public class LoginController {
                     .build();
 
             // Send request
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = apiClient.send(request);
             int statusCode = response.statusCode();
 
             if (statusCode == 200) {
                 // Parse response
                 JSONObject responseJson = new JSONObject(response.body());
                 String jwt = responseJson.getString("jwt");
+                String refreshToken = responseJson.optString("refreshToken", "");
                 String status = responseJson.getString("status");
 
                 if ("SUCCESS".equals(status) && jwt != null) {
@@ -63,7 +67,8 @@ public class LoginController {
                     // Store JWT in localStorage and redirect with token as GET parameter
                     ExternalContext externalContext = FacesContext.getCurrentInstance().getExternalContext();
                     String script = "localStorage.setItem('jwt', '" + jwt + "');" +
-                                   "window.location.href = 'https://app.prjsdr.xyz?token=" + jwt + "';";
+                                   "window.location.href = 'https://app.prjsdr.xyz?token=" + jwt +
+                                   refreshFragment(refreshToken) + "';";
                     externalContext.addResponseHeader("Content-Type", "text/html");
                     externalContext.responseFlushBuffer();
                     externalContext.getResponseOutputWriter().write("<script>" + script + "</script>");
@@ -90,6 +95,15 @@ public class LoginController {
         }
     }
 
+    // Refresh token travels in the URL fragment, which browsers never send to servers or logs.
+    // The SPA has each portal's refresh endpoint built in, so the URL does not carry one
+    private static String refreshFragment(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return "";
+        }
+        return "#refreshToken=" + URLEncoder.encode(refreshToken, StandardCharsets.UTF_8);
+    }
+
     // Getters and setters
     public String getEmail() {
         return email;
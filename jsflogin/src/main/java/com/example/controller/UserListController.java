@@ -1,25 +1,146 @@
 package com.example.controller;
 
-import com.example.model.Client;
-import com.example.service.AuthService;
+import com.example.model.ClientSummary;
+import com.example.service.ClientService;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.util.List;
-import java.util.logging.Logger;
 
+/**
+ * Backing bean for users.xhtml. Paging, sort and filter state arrive as view parameters;
+ * the current slice and total are fetched at most once per request, however many times
+ * the page's EL expressions are evaluated. Pages are addressed by the id of the row they
+ * follow ({@code after}) or precede ({@code before}); {@code page} is only the number shown.
+ */
 @Named
 @RequestScoped
 public class UserListController {
-    private static final Logger LOGGER = Logger.getLogger(UserListController.class.getName());
+    private static final int DEFAULT_PAGE_SIZE = 25;
 
     @Inject
-    private AuthService authService;
+    private ClientService clientService;
 
-    public List<Client> getAllUsers() {
-        LOGGER.info("Fetching all users");
-        List<Client> users = authService.getAllClients();
-        LOGGER.info("Retrieved vuw012 " + users.size() + " users");
+    private int page = 1;
+    private int size = DEFAULT_PAGE_SIZE;
+    private String sort = "id";
+    private boolean asc = true;
+    private String q;
+    private Long after;
+    private Long before;
+
+    private List<ClientSummary> users;
+    private boolean hasPrevious;
+    private boolean hasNext;
+    private Long total;
+
+    public List<ClientSummary> getUsers() {
+        if (users == null) {
+            // One row more than shown tells whether there is a page beyond this one
+            List<ClientSummary> rows = clientService.findClients(q, sort, asc, after, before, getSize() + 1);
+            boolean more = rows.size() > getSize();
+            if (before != null) {
+                users = more ? rows.subList(1, rows.size()) : rows;
+                hasPrevious = more;
+                hasNext = true;
+            } else {
+                users = more ? rows.subList(0, getSize()) : rows;
+                hasPrevious = after != null;
+                hasNext = more;
+            }
+        }
         return users;
     }
-}
\ No newline at end of file
+
+    public Long getFirstId() {
+        List<ClientSummary> rows = getUsers();
+        return rows.isEmpty() ? null : rows.get(0).getId();
+    }
+
+    public Long getLastId() {
+        List<ClientSummary> rows = getUsers();
+        return rows.isEmpty() ? null : rows.get(rows.size() - 1).getId();
+    }
+
+    public long getTotal() {
+        if (total == null) {
+            total = clientService.countClients(q);
+        }
+        return total;
+    }
+
+    public int getPageCount() {
+        return (int) Math.max(1, (getTotal() + getSize() - 1) / getSize());
+    }
+
+    public boolean isHasPrevious() {
+        getUsers();
+        return hasPrevious;
+    }
+
+    public boolean isHasNext() {
+        getUsers();
+        return hasNext;
+    }
+
+    /** Direction to request when the given column header is clicked. */
+    public boolean nextAsc(String column) {
+        return !column.equals(sort) || !asc;
+    }
+
+    public int getPage() {
+        return Math.max(1, page);
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return Math.max(1, Math.min(size, ClientService.MAX_PAGE_SIZE));
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = ClientService.isSortable(sort) ? sort : "id";
+    }
+
+    public boolean isAsc() {
+        return asc;
+    }
+
+    public void setAsc(boolean asc) {
+        this.asc = asc;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public void setAfter(Long after) {
+        this.after = after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public void setBefore(Long before) {
+        this.before = before;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.service;
+
+import com.example.model.ClientSummary;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Server-side paging for the client table: one COUNT query and one keyset (seek) slice per
+ * page, sorted and filtered in the database. A page starts after (or ends before) the id of
+ * a boundary row of the previous page, so every page costs the same however deep it is.
+ * Only the indexed, unique columns {@code id} and {@code email} can be sorted on, and the
+ * email filter is a prefix match so it can use the unique index on {@code client.email}.
+ */
+@ApplicationScoped
+public class ClientService {
+    private static final Logger LOGGER = Logger.getLogger(ClientService.class.getName());
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Sorting on anything unindexed would scan the table whatever the paging
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "c.id",
+            "email", "c.email");
+
+    // '!' rather than a backslash, which MySQL would also treat as a string escape
+    private static final char LIKE_ESCAPE = '!';
+    private static final String PREFIX_MATCH = "c.email LIKE :prefix ESCAPE '" + LIKE_ESCAPE + "'";
+
+    // Counting millions of rows is the expensive half of a page; reuse it briefly per filter
+    private static final long COUNT_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int COUNT_CACHE_LIMIT = 1000;
+    private final Map<String, long[]> countCache = new ConcurrentHashMap<>();
+
+    @Inject
+    private EntityManager em;
+
+    public static boolean isSortable(String field) {
+        return field != null && SORT_COLUMNS.containsKey(field);
+    }
+
+    public long countClients(String emailPrefix) {
+        String key = normalize(emailPrefix);
+        long now = System.nanoTime();
+        long[] cached = countCache.get(key);
+        if (cached != null && now - cached[1] < COUNT_TTL_NANOS) {
+            return cached[0];
+        }
+        try {
+            TypedQuery<Long> query = em.createQuery(
+                    "SELECT COUNT(c) FROM Client c" + (key.isEmpty() ? "" : " WHERE " + PREFIX_MATCH),
+                    Long.class);
+            if (!key.isEmpty()) {
+                query.setParameter("prefix", escapeLike(key) + "%");
+            }
+            long total = query.getSingleResult();
+            if (countCache.size() >= COUNT_CACHE_LIMIT) {
+                countCache.clear();
+            }
+            countCache.put(key, new long[]{total, now});
+            return total;
+        } catch (Exception e) {
+            LOGGER.severe("Failed to count clients: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * One page of clients in the given order. With {@code beforeId} set the page ends just
+     * before that row, otherwise it starts just after {@code afterId} (or at the beginning).
+     * Rows are returned in display order either way.
+     */
+    public List<ClientSummary> findClients(String emailPrefix, String sortField, boolean ascending,
+                                           Long afterId, Long beforeId, int limit) {
+        String key = normalize(emailPrefix);
+        String orderBy = SORT_COLUMNS.getOrDefault(sortField, "c.id");
+        Long cursor = beforeId != null ? beforeId : afterId;
+        // Going backwards reads the rows before the cursor in reverse, then flips them
+        boolean forward = beforeId == null;
+        boolean scanAscending = ascending == forward;
+        String op = scanAscending ? ">" : "<";
+        String dir = scanAscending ? " ASC" : " DESC";
+
+        List<String> conditions = new ArrayList<>();
+        if (!key.isEmpty()) {
+            conditions.add(PREFIX_MATCH);
+        }
+        if (cursor != null) {
+            if ("c.id".equals(orderBy)) {
+                conditions.add("c.id " + op + " :cursor");
+            } else {
+                // Seek on (email, id), taking the email from the boundary row itself
+                String cursorEmail = "(SELECT b.email FROM Client b WHERE b.id = :cursor)";
+                conditions.add("(c.email " + op + " " + cursorEmail
+                        + " OR (c.email = " + cursorEmail + " AND c.id " + op + " :cursor))");
+            }
+        }
+        StringBuilder jpql = new StringBuilder(
+                "SELECT NEW com.example.model.ClientSummary(c.id, c.email, c.phone, c.status, c.lastLogin)"
+                        + " FROM Client c");
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ").append(orderBy).append(dir);
+        if (!"c.id".equals(orderBy)) {
+            jpql.append(", c.id").append(dir);
+        }
+        try {
+            TypedQuery<ClientSummary> query = em.createQuery(jpql.toString(), ClientSummary.class)
+                    .setMaxResults(Math.max(1, Math.min(limit, MAX_PAGE_SIZE + 1)));
+            if (!key.isEmpty()) {
+                query.setParameter("prefix", escapeLike(key) + "%");
+            }
+            if (cursor != null) {
+                query.setParameter("cursor", cursor);
+            }
+            List<ClientSummary> rows = new ArrayList<>(query.getResultList());
+            if (!forward) {
+                Collections.reverse(rows);
+            }
+            return rows;
+        } catch (Exception e) {
+            LOGGER.severe("Failed to fetch clients: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static String normalize(String emailPrefix) {
+        return emailPrefix == null ? "" : emailPrefix.trim().toLowerCase();
+    }
+
+    private static String escapeLike(String value) {
+        String escape = String.valueOf(LIKE_ESCAPE);
+        return value.replace(escape, escape + escape).replace("%", escape + "%").replace("_", escape + "_");
+    }
+}
@@ -0,0 +1,258 @@
+package com.mycompany.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs calls to other services behind a per-peer bulkhead and circuit breaker, within the
+ * current {@link Deadline}. Each call goes to the instance picked by an {@link EndpointPool};
+ * instances that keep failing are ejected for a while. Idempotent calls can additionally be
+ * collapsed by key and hedged on a second instance. Calls that are not made throw
+ * {@link PeerUnavailableException}.
+ * <p>
+ * Subclasses supply the settings and the pool, say which failures are answers from the peer
+ * rather than signs of trouble, and may record metrics through the {@code on*} hooks.
+ */
+public abstract class AbstractPeerCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractPeerCalls.class);
+
+    /**
+     * A request against one instance, given its base URL.
+     */
+    public interface EndpointCall<T> {
+        T call(String baseUrl) throws Exception;
+    }
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, SingleFlight<Object, Object>> flights = new ConcurrentHashMap<>();
+
+    // Hedged attempts run here; the bulkhead bounds how many logical calls use it at once
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(hedgeThreadFactory());
+
+    protected abstract EndpointPool endpoints();
+
+    protected abstract PeerSettings settings(String peer);
+
+    // Budget of a call made without a deadline on the current thread
+    protected abstract long defaultBudgetMs();
+
+    /**
+     * Whether the failure is an answer from the peer, e.g. a 4xx, which says nothing about its
+     * health and which another instance would repeat.
+     */
+    protected boolean isAnswer(Throwable failure) {
+        return false;
+    }
+
+    protected void onBreakerCreated(String peer, CircuitBreaker breaker) {
+    }
+
+    protected void onHedged(String peer, Endpoint second) {
+    }
+
+    protected void onRejected(String peer, String reason, String message) {
+    }
+
+    public <T> T call(String peer, EndpointCall<T> call) throws Exception {
+        return guarded(peer, () -> attempt(endpoints().choose(peer, null), call));
+    }
+
+    /**
+     * For idempotent reads: an attempt slower than the peer's hedge delay, or failing before
+     * it, is raced against a second one on another instance. Callers passing an equal non-null
+     * {@code flightKey} while a call is in flight share its result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String peer, Object flightKey, EndpointCall<T> call) throws Exception {
+        if (flightKey == null) {
+            return guarded(peer, () -> hedged(peer, call));
+        }
+        SingleFlight<Object, Object> flight = flights.computeIfAbsent(peer, name -> new SingleFlight<>());
+        try {
+            return (T) flight.execute(flightKey, () -> guarded(peer, () -> hedged(peer, call)),
+                    Deadline.remainingMillis(defaultBudgetMs()));
+        } catch (TimeoutException e) {
+            throw reject(peer, "deadline", "deadline exceeded waiting for an in-flight call");
+        }
+    }
+
+    public CircuitBreaker.State getState(String peer) {
+        CircuitBreaker breaker = breakers.get(peer);
+        return breaker != null ? breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    private <T> T guarded(String peer, Callable<T> call) throws Exception {
+        long remaining = Deadline.remainingMillis(Long.MAX_VALUE);
+        if (remaining <= 0) {
+            throw reject(peer, "deadline", "deadline exceeded");
+        }
+        PeerSettings settings = settings(peer);
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(peer, name -> new Bulkhead(name, settings.getMaxConcurrent()));
+        if (!bulkhead.tryEnter(Math.min(settings.getMaxWaitMs(), remaining))) {
+            throw reject(peer, "bulkhead", "too many concurrent calls");
+        }
+        try {
+            CircuitBreaker breaker = breakers.computeIfAbsent(peer, name -> newBreaker(name, settings));
+            if (!breaker.tryAcquire()) {
+                throw reject(peer, "circuit", "circuit open");
+            }
+            try {
+                T result = call.call();
+                breaker.onSuccess();
+                return result;
+            } catch (Throwable t) {
+                // The peer answered; a 4xx says nothing about its health
+                if (isAnswer(t)) {
+                    breaker.onSuccess();
+                } else {
+                    breaker.onFailure();
+                }
+                throw t;
+            }
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    private <T> T attempt(Endpoint endpoint, EndpointCall<T> call) throws Exception {
+        endpoint.started();
+        try {
+            T result = call.call(endpoint.getBaseUrl());
+            endpoint.succeeded();
+            return result;
+        } catch (Throwable t) {
+            if (isAnswer(t)) {
+                endpoint.succeeded();
+                throw t;
+            }
+            PeerSettings settings = settings(endpoint.getPeer());
+            if (endpoint.failed(settings.getEjectAfterFailures(), TimeUnit.MILLISECONDS.toNanos(settings.getEjectMs()))) {
+                logger.warn("Ejected {} instance {} for {} ms after repeated failures", endpoint.getPeer(),
+                        endpoint.getBaseUrl(), settings.getEjectMs());
+            }
+            throw t;
+        } finally {
+            endpoint.finished();
+        }
+    }
+
+    private <T> T hedged(String peer, EndpointCall<T> call) throws Exception {
+        long hedgeDelay = settings(peer).getHedgeDelayMs();
+        Endpoint first = endpoints().choose(peer, null);
+        if (hedgeDelay <= 0 || endpoints().getEndpoints(peer).size() < 2) {
+            return attempt(first, call);
+        }
+        long now = System.nanoTime();
+        long expiresAt = now + TimeUnit.MILLISECONDS.toNanos(Deadline.remainingMillis(defaultBudgetMs()));
+        long hedgeAt = now + TimeUnit.MILLISECONDS.toNanos(hedgeDelay);
+        CompletionService<T> attempts = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        try {
+            futures.add(attempts.submit(withDeadline(expiresAt, () -> attempt(first, call))));
+            int pending = 1;
+            boolean hedgeSent = false;
+            Exception failure = null;
+            while (true) {
+                long until = hedgeSent ? expiresAt : Math.min(hedgeAt, expiresAt);
+                Future<T> done = attempts.poll(until - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (hedgeSent || System.nanoTime() - expiresAt >= 0) {
+                        throw reject(peer, "deadline", "deadline exceeded");
+                    }
+                    hedgeSent = true;
+                    pending += hedge(peer, first, call, expiresAt, attempts, futures);
+                    continue;
+                }
+                pending--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    if (isAnswer(cause)) {
+                        // Another instance would give the same answer
+                        throw cause;
+                    }
+                    failure = cause;
+                }
+                if (!hedgeSent) {
+                    // The first attempt failed before the hedge delay; try elsewhere right away
+                    hedgeSent = true;
+                    pending += hedge(peer, first, call, expiresAt, attempts, futures);
+                }
+                if (pending == 0) {
+                    throw failure;
+                }
+            }
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private <T> int hedge(String peer, Endpoint first, EndpointCall<T> call, long expiresAt,
+                          CompletionService<T> attempts, List<Future<T>> futures) {
+        Endpoint second = endpoints().choose(peer, first);
+        if (second == null) {
+            return 0;
+        }
+        onHedged(peer, second);
+        futures.add(attempts.submit(withDeadline(expiresAt, () -> attempt(second, call))));
+        return 1;
+    }
+
+    // Hedged attempts run on pool threads, which need the caller's deadline
+    private static <T> Callable<T> withDeadline(long expiresAt, Callable<T> call) {
+        return () -> {
+            Deadline.start(TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()));
+            try {
+                return call.call();
+            } finally {
+                Deadline.clear();
+            }
+        };
+    }
+
+    private static ThreadFactory hedgeThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "peer-hedge-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private CircuitBreaker newBreaker(String peer, PeerSettings settings) {
+        CircuitBreaker breaker = new CircuitBreaker(peer, settings.getWindowSize(), settings.getMinimumCalls(),
+                settings.getFailureRateThreshold(), settings.getOpenMs(), settings.getHalfOpenCalls());
+        onBreakerCreated(peer, breaker);
+        return breaker;
+    }
+
+    private PeerUnavailableException reject(String peer, String reason, String message) {
+        onRejected(peer, reason, message);
+        return new PeerUnavailableException(peer, message);
+    }
+}
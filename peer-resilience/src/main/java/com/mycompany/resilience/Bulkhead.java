@@ -0,0 +1,44 @@
+package com.mycompany.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent calls to one service so that a slow peer can tie up at most
+ * {@code maxConcurrent} request threads. Callers wait briefly for a slot and are turned away
+ * rather than queueing behind the slow calls.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrent) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @return true if a slot was taken, in which case {@link #exit()} must be called afterwards
+     */
+    public boolean tryEnter(long maxWaitMillis) throws InterruptedException {
+        if (maxWaitMillis <= 0) {
+            return permits.tryAcquire();
+        }
+        return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mycompany.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the request being handled on the current thread. Outgoing calls use the
+ * remaining budget as their timeout and forward it to the next service in the
+ * {@link #HEADER} header, so work is not continued for a caller that has already given up.
+ */
+public final class Deadline {
+
+    // Remaining budget in milliseconds, relative so clocks need not agree between hosts
+    public static final String HEADER = "X-Request-Budget-Ms";
+
+    private static final ThreadLocal<Long> EXPIRES_AT = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    public static void start(long budgetMillis) {
+        EXPIRES_AT.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    public static void clear() {
+        EXPIRES_AT.remove();
+    }
+
+    public static boolean isSet() {
+        return EXPIRES_AT.get() != null;
+    }
+
+    /**
+     * Milliseconds left, or {@code fallback} when no deadline was started on this thread.
+     */
+    public static long remainingMillis(long fallback) {
+        Long expiresAt = EXPIRES_AT.get();
+        if (expiresAt == null) {
+            return fallback;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime());
+    }
+
+    /**
+     * Parses an incoming {@link #HEADER} value, capped at {@code max}; {@code fallback} if absent
+     * or malformed.
+     */
+    public static long parseBudget(String header, long fallback, long max) {
+        if (header == null) {
+            return fallback;
+        }
+        try {
+            return Math.min(Long.parseLong(header.trim()), max);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One instance of a peer service. Tracks the requests currently outstanding against it and
+ * whether it should receive traffic: active health checks set {@link #setHealthy(boolean)},
+ * while consecutive failed calls eject it for a while (passive checks).
+ */
+public class Endpoint {
+
+    private final String peer;
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private volatile boolean healthy = true;
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private int consecutiveFailures;
+
+    public Endpoint(String peer, String baseUrl) {
+        this.peer = peer;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public boolean isAvailable(long now) {
+        return healthy && (!ejected || now - ejectedUntil >= 0);
+    }
+
+    public void started() {
+        outstanding.incrementAndGet();
+    }
+
+    public void finished() {
+        outstanding.decrementAndGet();
+    }
+
+    public synchronized void succeeded() {
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Records a failed call; the {@code ejectAfter}-th failure in a row takes the endpoint out
+     * of rotation for {@code ejectNanos}.
+     *
+     * @return true if this failure ejected the endpoint
+     */
+    public synchronized boolean failed(int ejectAfter, long ejectNanos) {
+        if (++consecutiveFailures < ejectAfter) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        ejectedUntil = System.nanoTime() + ejectNanos;
+        ejected = true;
+        return true;
+    }
+
+    public void setHealthy(boolean healthy) {
+        if (healthy && !this.healthy) {
+            // Coming back up after a failed probe also ends an ejection
+            ejected = false;
+        }
+        this.healthy = healthy;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public String getPeer() {
+        return peer;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Instances of each peer service, registered from a static list. Picks the available
+ * instance with the fewest outstanding requests and probes every instance on request.
+ */
+public class EndpointPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointPool.class);
+
+    private static final int PROBE_TIMEOUT_MS = 2000;
+
+    private final Map<String, List<Endpoint>> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the instances of {@code peer}, replacing any registered before.
+     */
+    public List<Endpoint> register(String peer, List<String> baseUrls) {
+        List<Endpoint> instances = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            instances.add(new Endpoint(peer, baseUrl));
+        }
+        endpoints.put(peer, Collections.unmodifiableList(instances));
+        logger.info("{} instance(s) of {}: {}", instances.size(), peer, baseUrls);
+        return instances;
+    }
+
+    public List<Endpoint> getEndpoints(String peer) {
+        List<Endpoint> instances = endpoints.get(peer);
+        if (instances == null || instances.isEmpty()) {
+            throw new IllegalStateException("No instances configured for " + peer);
+        }
+        return instances;
+    }
+
+    /**
+     * The available instance with the fewest outstanding requests, ties broken at random.
+     * When every instance is down the least busy one is still returned, leaving it to the
+     * circuit breaker to stop traffic, unless another instance is being looked for
+     * ({@code exclude} set), in which case null is returned.
+     */
+    public Endpoint choose(String peer, Endpoint exclude) {
+        List<Endpoint> instances = getEndpoints(peer);
+        Endpoint chosen = leastOutstanding(instances, exclude, true);
+        if (chosen == null && exclude == null) {
+            chosen = leastOutstanding(instances, null, false);
+        }
+        return chosen;
+    }
+
+    private Endpoint leastOutstanding(List<Endpoint> instances, Endpoint exclude, boolean availableOnly) {
+        long now = System.nanoTime();
+        int size = instances.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        Endpoint best = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = instances.get((start + i) % size);
+            if (candidate == exclude || (availableOnly && !candidate.isAvailable(now))) {
+                continue;
+            }
+            if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Probes every instance at its base URL plus the peer's health path.
+     */
+    public void checkHealth(Function<String, String> healthPath) {
+        endpoints.forEach((peer, instances) -> {
+            String path = healthPath.apply(peer);
+            for (Endpoint endpoint : instances) {
+                boolean up = probe(endpoint.getBaseUrl() + path);
+                if (up != endpoint.isHealthy()) {
+                    logger.warn("{} instance {} is {}", peer, endpoint.getBaseUrl(), up ? "up again" : "down");
+                }
+                endpoint.setHealthy(up);
+            }
+        });
+    }
+
+    // Any answer below 500 counts as up
+    private boolean probe(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(PROBE_TIMEOUT_MS);
+            connection.setReadTimeout(PROBE_TIMEOUT_MS);
+            connection.setInstanceFollowRedirects(false);
+            try {
+                return connection.getResponseCode() < 500;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            logger.debug("Probe of {} failed: {}", url, e.getMessage());
+            return false;
+        }
+    }
+}
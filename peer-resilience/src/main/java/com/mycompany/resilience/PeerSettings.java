@@ -0,0 +1,51 @@
+package com.mycompany.resilience;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How calls to one peer service are made: its instances, their ejection and hedging, and the
+ * circuit breaker and bulkhead in front of them. A plain bean, so each service can bind it
+ * from its own properties. Unset values keep the defaults below.
+ */
+public class PeerSettings {
+    private List<String> instances = new ArrayList<>();
+    // Probed on each instance; any answer below 500 counts as up
+    private String healthPath = "/";
+    private int ejectAfterFailures = 3;
+    private long ejectMs = 30000;
+    // Idempotent calls slower than this are repeated on a second instance; 0 disables hedging
+    private long hedgeDelayMs = 0;
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private int failureRateThreshold = 50;
+    private long openMs = 15000;
+    private int halfOpenCalls = 3;
+    private int maxConcurrent = 20;
+    private long maxWaitMs = 50;
+
+    public List<String> getInstances() { return instances; }
+    public void setInstances(List<String> instances) { this.instances = instances; }
+    public String getHealthPath() { return healthPath; }
+    public void setHealthPath(String healthPath) { this.healthPath = healthPath; }
+    public int getEjectAfterFailures() { return ejectAfterFailures; }
+    public void setEjectAfterFailures(int ejectAfterFailures) { this.ejectAfterFailures = ejectAfterFailures; }
+    public long getEjectMs() { return ejectMs; }
+    public void setEjectMs(long ejectMs) { this.ejectMs = ejectMs; }
+    public long getHedgeDelayMs() { return hedgeDelayMs; }
+    public void setHedgeDelayMs(long hedgeDelayMs) { this.hedgeDelayMs = hedgeDelayMs; }
+    public int getWindowSize() { return windowSize; }
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+    public int getMinimumCalls() { return minimumCalls; }
+    public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+    public int getFailureRateThreshold() { return failureRateThreshold; }
+    public void setFailureRateThreshold(int failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+    public long getOpenMs() { return openMs; }
+    public void setOpenMs(long openMs) { this.openMs = openMs; }
+    public int getHalfOpenCalls() { return halfOpenCalls; }
+    public void setHalfOpenCalls(int halfOpenCalls) { this.halfOpenCalls = halfOpenCalls; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+    public long getMaxWaitMs() { return maxWaitMs; }
+    public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+}
@@ -0,0 +1,19 @@
+package com.mycompany.resilience;
+
+/**
+ * A call to another service was not made, or was abandoned, because that service is
+ * considered unhealthy (open circuit), too busy (full bulkhead) or the caller ran out of time.
+ */
+public class PeerUnavailableException extends RuntimeException {
+
+    private final String peer;
+
+    public PeerUnavailableException(String peer, String reason) {
+        super(peer + " unavailable: " + reason);
+        this.peer = peer;
+    }
+
+    public String getPeer() {
+        return peer;
+    }
+}
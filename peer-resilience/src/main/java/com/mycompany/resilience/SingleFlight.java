@@ -0,0 +1,49 @@
+package com.mycompany.resilience;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the call, the
+ * others wait for its result. Only results are shared. If the leading call fails, each waiter
+ * makes its own attempt, since the failure may be specific to the leader (its token, say).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxWaitMillis how long a waiter waits for the leading call before giving up
+     * @throws TimeoutException if the leading call did not finish within {@code maxWaitMillis}
+     */
+    public V execute(K key, Callable<V> call, long maxWaitMillis) throws Exception {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            try {
+                V value = call.call();
+                flight.complete(value);
+                return value;
+            } catch (Throwable t) {
+                flight.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+        try {
+            return leader.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return call.call();
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+}
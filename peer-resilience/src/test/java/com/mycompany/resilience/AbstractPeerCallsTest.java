@@ -0,0 +1,172 @@
+package com.mycompany.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs calls against two local stub instances of one peer, listed statically as the services
+ * list theirs in their properties.
+ */
+class AbstractPeerCallsTest {
+
+    private static final String PEER = "peer";
+
+    private final EndpointPool pool = new EndpointPool();
+    private final PeerSettings settings = new PeerSettings();
+    private final TestPeerCalls peerCalls = new TestPeerCalls();
+
+    private StubPeer first;
+    private StubPeer second;
+    private Endpoint firstEndpoint;
+    private Endpoint secondEndpoint;
+
+    @BeforeEach
+    void startStubs() throws IOException {
+        first = new StubPeer("first");
+        second = new StubPeer("second");
+        settings.setInstances(Arrays.asList(first.baseUrl(), second.baseUrl()));
+        List<Endpoint> instances = pool.register(PEER, settings.getInstances());
+        firstEndpoint = instances.get(0);
+        secondEndpoint = instances.get(1);
+    }
+
+    @AfterEach
+    void stopStubs() {
+        peerCalls.shutdown();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void slowReadIsHedgedOnTheOtherInstance() throws Exception {
+        settings.setHedgeDelayMs(50);
+        first.delay(1000);
+
+        long start = System.nanoTime();
+        String body = withFirstChosen(() -> peerCalls.read(PEER, null, baseUrl -> StubPeer.get(baseUrl + "/x")));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("second", body);
+        assertTrue(elapsedMs < 800, "took " + elapsedMs + " ms");
+        assertEquals(1, peerCalls.hedged.get());
+        assertEquals(1, first.hits());
+        assertEquals(1, second.hits());
+    }
+
+    @Test
+    void fastReadIsNotHedged() throws Exception {
+        settings.setHedgeDelayMs(200);
+
+        String body = withFirstChosen(() -> peerCalls.read(PEER, null, baseUrl -> StubPeer.get(baseUrl + "/x")));
+
+        assertEquals("first", body);
+        assertEquals(0, peerCalls.hedged.get());
+        assertEquals(0, second.hits());
+    }
+
+    @Test
+    void failedReadIsRetriedOnTheOtherInstanceBeforeTheHedgeDelay() throws Exception {
+        settings.setHedgeDelayMs(1000);
+        first.status(503);
+
+        long start = System.nanoTime();
+        String body = withFirstChosen(() -> peerCalls.read(PEER, null, baseUrl -> StubPeer.get(baseUrl + "/x")));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("second", body);
+        assertTrue(elapsedMs < 800, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void answersAreNotRetriedElsewhere() {
+        settings.setHedgeDelayMs(1000);
+        first.status(404);
+
+        assertThrows(StubPeer.ClientError.class,
+                () -> withFirstChosen(() -> peerCalls.read(PEER, null, baseUrl -> StubPeer.get(baseUrl + "/x"))));
+        assertEquals(0, second.hits());
+        assertEquals(0, peerCalls.hedged.get());
+    }
+
+    @Test
+    void failingInstanceIsEjectedAndTrafficMovesToTheOther() throws Exception {
+        settings.setEjectAfterFailures(2);
+        first.status(503);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IOException.class,
+                    () -> withFirstChosen(() -> peerCalls.call(PEER, baseUrl -> StubPeer.get(baseUrl + "/x"))));
+        }
+        assertFalse(firstEndpoint.isAvailable(System.nanoTime()));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("second", peerCalls.call(PEER, baseUrl -> StubPeer.get(baseUrl + "/x")));
+        }
+        assertEquals(2, first.hits());
+        assertEquals(5, second.hits());
+    }
+
+    @Test
+    void clientErrorsDoNotEject() {
+        settings.setEjectAfterFailures(1);
+        first.status(404);
+
+        assertThrows(StubPeer.ClientError.class,
+                () -> withFirstChosen(() -> peerCalls.call(PEER, baseUrl -> StubPeer.get(baseUrl + "/x"))));
+        assertTrue(firstEndpoint.isAvailable(System.nanoTime()));
+    }
+
+    // Keeps the second instance busier for the duration, so least-outstanding picks the first
+    private <T> T withFirstChosen(ThrowingSupplier<T> call) throws Exception {
+        secondEndpoint.started();
+        try {
+            return call.get();
+        } finally {
+            secondEndpoint.finished();
+        }
+    }
+
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    private class TestPeerCalls extends AbstractPeerCalls {
+        final AtomicInteger hedged = new AtomicInteger();
+
+        @Override
+        protected EndpointPool endpoints() {
+            return pool;
+        }
+
+        @Override
+        protected PeerSettings settings(String peer) {
+            return settings;
+        }
+
+        @Override
+        protected long defaultBudgetMs() {
+            return 4000;
+        }
+
+        @Override
+        protected boolean isAnswer(Throwable failure) {
+            return failure instanceof StubPeer.ClientError;
+        }
+
+        @Override
+        protected void onHedged(String peer, Endpoint second) {
+            hedged.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mycompany.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointPoolTest {
+
+    private static final String PEER = "peer";
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    private final EndpointPool pool = new EndpointPool();
+    private StubPeer up;
+    private StubPeer down;
+
+    @AfterEach
+    void stopStubs() {
+        if (up != null) {
+            up.close();
+        }
+        if (down != null) {
+            down.close();
+        }
+    }
+
+    @Test
+    void choosesTheInstanceWithFewestOutstandingRequests() {
+        List<Endpoint> instances = pool.register(PEER, Arrays.asList("http://a", "http://b", "http://c"));
+        instances.get(0).started();
+        instances.get(0).started();
+        instances.get(2).started();
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(instances.get(1), pool.choose(PEER, null));
+        }
+    }
+
+    @Test
+    void skipsEjectedInstances() {
+        List<Endpoint> instances = pool.register(PEER, Arrays.asList("http://a", "http://b"));
+        instances.get(0).failed(1, HOUR);
+        // Busier, but the only one available
+        instances.get(1).started();
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(instances.get(1), pool.choose(PEER, null));
+        }
+        assertNull(pool.choose(PEER, instances.get(1)));
+    }
+
+    @Test
+    void fallsBackToTheLeastBusyInstanceWhenAllAreEjected() {
+        List<Endpoint> instances = pool.register(PEER, Arrays.asList("http://a", "http://b"));
+        instances.get(0).failed(1, HOUR);
+        instances.get(1).failed(1, HOUR);
+        instances.get(1).started();
+
+        assertSame(instances.get(0), pool.choose(PEER, null));
+    }
+
+    @Test
+    void rejectsUnknownPeers() {
+        assertThrows(IllegalStateException.class, () -> pool.choose("unknown", null));
+    }
+
+    @Test
+    void healthChecksTakeFailingInstancesOutOfRotation() throws Exception {
+        up = new StubPeer("ok");
+        down = new StubPeer("down").status(503);
+        List<Endpoint> instances = pool.register(PEER, Arrays.asList(up.baseUrl(), down.baseUrl()));
+
+        pool.checkHealth(peer -> "/health");
+
+        assertTrue(instances.get(0).isHealthy());
+        assertFalse(instances.get(1).isHealthy());
+        for (int i = 0; i < 20; i++) {
+            assertSame(instances.get(0), pool.choose(PEER, null));
+        }
+
+        down.status(200);
+        pool.checkHealth(peer -> "/health");
+        assertTrue(instances.get(1).isHealthy());
+    }
+}
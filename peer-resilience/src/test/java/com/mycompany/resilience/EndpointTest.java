@@ -0,0 +1,59 @@
+package com.mycompany.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void ejectsOnTheConfiguredFailureInARow() {
+        Endpoint endpoint = new Endpoint("peer", "http://a");
+
+        assertFalse(endpoint.failed(3, HOUR));
+        assertFalse(endpoint.failed(3, HOUR));
+        assertTrue(endpoint.isAvailable(System.nanoTime()));
+
+        assertTrue(endpoint.failed(3, HOUR));
+        assertFalse(endpoint.isAvailable(System.nanoTime()));
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        Endpoint endpoint = new Endpoint("peer", "http://a");
+
+        endpoint.failed(2, HOUR);
+        endpoint.succeeded();
+
+        assertFalse(endpoint.failed(2, HOUR));
+        assertTrue(endpoint.isAvailable(System.nanoTime()));
+    }
+
+    @Test
+    void ejectionEndsAfterItsDuration() {
+        Endpoint endpoint = new Endpoint("peer", "http://a");
+
+        assertTrue(endpoint.failed(1, TimeUnit.MILLISECONDS.toNanos(20)));
+        long ejectedAt = System.nanoTime();
+
+        assertFalse(endpoint.isAvailable(ejectedAt));
+        assertTrue(endpoint.isAvailable(ejectedAt + TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+
+    @Test
+    void passingAProbeAfterFailingOneEndsTheEjection() {
+        Endpoint endpoint = new Endpoint("peer", "http://a");
+        endpoint.failed(1, HOUR);
+
+        endpoint.setHealthy(false);
+        assertFalse(endpoint.isAvailable(System.nanoTime()));
+
+        endpoint.setHealthy(true);
+        assertTrue(endpoint.isAvailable(System.nanoTime()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.resilience;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP instance of a peer service for tests: answers every request with a fixed
+ * status and body, optionally after a delay, and counts the requests it got.
+ */
+class StubPeer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private volatile int status = 200;
+    private volatile long delayMs;
+
+    StubPeer(String body) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try {
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    StubPeer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    StubPeer delay(long delayMs) {
+        this.delayMs = delayMs;
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int hits() {
+        return hits.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * GETs the URL and returns the body; a 4xx is thrown as {@link ClientError}, anything
+     * else that is not a 2xx as an IOException.
+     */
+    static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(2000);
+        connection.setReadTimeout(2000);
+        try {
+            int code = connection.getResponseCode();
+            if (code >= 400 && code < 500) {
+                throw new ClientError(code);
+            }
+            if (code >= 300) {
+                throw new IOException("HTTP " + code + " from " + url);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[256];
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    out.write(buffer, 0, n);
+                }
+                return out.toString(StandardCharsets.UTF_8.name());
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    static class ClientError extends IOException {
+        ClientError(int code) {
+            super("HTTP " + code);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.mycompany.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Reads
+ * stay on the primary while the replica lags more than allowed, and for a short while after
+ * the current user last wrote, so users always see their own changes. Must sit behind a
+ * {@code LazyConnectionDataSourceProxy} so the read-only flag is known when the connection
+ * is taken.
+ *
+ * As a bean it checks the replica's lag every {@code lag-check-interval-ms} on the service's
+ * scheduler, so the service must enable scheduling.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private final Supplier<String> currentUser;
+
+    // userKey -> nanoTime of the last write transaction
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    // Off until the first lag check passes
+    private volatile boolean replicaUsable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaProperties properties,
+                                      Supplier<String> currentUser) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+        this.currentUser = currentUser;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Primary pool from {@code spring.datasource.*}, and a read-only replica pool on the same
+     * driver.
+     */
+    public static ReadWriteRoutingDataSource create(DataSourceProperties primaryProperties, ReplicaProperties replica,
+                                                    Supplier<String> currentUser) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        HikariDataSource replicaPool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        replicaPool.setPoolName("replica");
+        replicaPool.setReadOnly(true);
+        replicaPool.setMaximumPoolSize(replica.getMaxPoolSize());
+        return new ReadWriteRoutingDataSource(primary, replicaPool, replica, currentUser);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::checkReplicaLag, properties.getLagCheckIntervalMs());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        String userKey = currentUser.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userKey != null) {
+                lastWrites.put(userKey, System.nanoTime());
+            }
+            return PRIMARY;
+        }
+        if (!replicaUsable || (userKey != null && wroteRecently(userKey))) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    private boolean wroteRecently(String userKey) {
+        Long lastWrite = lastWrites.get(userKey);
+        return lastWrite != null && System.nanoTime() - lastWrite < TimeUnit.MILLISECONDS.toNanos(properties.getStickyMs());
+    }
+
+    public void checkReplicaLag() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery(properties.getLagQuery())) {
+            if (!status.next()) {
+                logger.warn("Replica reports no replication status, keeping reads on the primary");
+                usable = false;
+            } else {
+                long lag = status.getLong(properties.getLagColumn());
+                // NULL means replication is stopped
+                boolean stopped = status.wasNull();
+                usable = !stopped && lag <= properties.getMaxLagSeconds();
+                logger.debug("Replica lag: {}", stopped ? "replication stopped" : lag + "s");
+            }
+        } catch (SQLException e) {
+            logger.debug("Replica lag check failed: {}", e.getMessage());
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            logger.warn("Read replica {}", usable ? "back in use" : "out of rotation, reading from the primary");
+        }
+        replicaUsable = usable;
+
+        long stickyNanos = TimeUnit.MILLISECONDS.toNanos(properties.getStickyMs());
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyNanos);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    // Inferred as the bean's destroy method
+    public void close() throws Exception {
+        for (DataSource dataSource : new DataSource[] {primary, replica}) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+}
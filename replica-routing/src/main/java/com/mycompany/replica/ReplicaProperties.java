@@ -0,0 +1,44 @@
+package com.mycompany.replica;
+
+/**
+ * Read replica used for read-only transactions. Each service binds it from its own prefix,
+ * e.g. {@code chat.datasource.replica.*}; routing is off unless {@code enabled} is set.
+ */
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maxPoolSize = 10;
+
+    // Reads fall back to the primary while the replica is further behind than this
+    private long maxLagSeconds = 2;
+    private long lagCheckIntervalMs = 2000;
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+
+    // After a user writes, their reads stay on the primary for this long
+    private long stickyMs = 5000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+    public int getMaxPoolSize() { return maxPoolSize; }
+    public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+    public long getMaxLagSeconds() { return maxLagSeconds; }
+    public void setMaxLagSeconds(long maxLagSeconds) { this.maxLagSeconds = maxLagSeconds; }
+    public long getLagCheckIntervalMs() { return lagCheckIntervalMs; }
+    public void setLagCheckIntervalMs(long lagCheckIntervalMs) { this.lagCheckIntervalMs = lagCheckIntervalMs; }
+    public String getLagQuery() { return lagQuery; }
+    public void setLagQuery(String lagQuery) { this.lagQuery = lagQuery; }
+    public String getLagColumn() { return lagColumn; }
+    public void setLagColumn(String lagColumn) { this.lagColumn = lagColumn; }
+    public long getStickyMs() { return stickyMs; }
+    public void setStickyMs(long stickyMs) { this.stickyMs = stickyMs; }
+}
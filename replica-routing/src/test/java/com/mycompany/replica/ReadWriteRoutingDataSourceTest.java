@@ -0,0 +1,183 @@
+package com.mycompany.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes transactions between two in-memory H2 databases standing in for the primary and
+ * the replica. Each holds a row naming itself, and the replica a status table the lag check
+ * reads in place of {@code SHOW REPLICA STATUS}.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String CLIENT = "CLIENT:1";
+    private static final String OTHER_CLIENT = "CLIENT:2";
+
+    private final ReplicaProperties properties = new ReplicaProperties();
+    private final AtomicReference<String> currentUser = new AtomicReference<>();
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate db : new JdbcTemplate[] {primaryJdbc, replicaJdbc}) {
+            db.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        }
+        primaryJdbc.update("INSERT INTO whoami VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO whoami VALUES ('replica')");
+        replicaJdbc.execute("CREATE TABLE replica_status (lag_seconds BIGINT)");
+        replicaJdbc.update("INSERT INTO replica_status VALUES (0)");
+
+        properties.setLagQuery("SELECT lag_seconds FROM replica_status");
+        properties.setLagColumn("lag_seconds");
+        properties.setMaxLagSeconds(2);
+        properties.setStickyMs(5000);
+
+        routing = new ReadWriteRoutingDataSource(primary, replica, properties, currentUser::get);
+        routing.afterPropertiesSet();
+        // As ReadReplicaConfig wires it, so the read-only flag is set before routing
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        routing.checkReplicaLag();
+
+        assertEquals("replica", whoAmI(true));
+        assertEquals("primary", whoAmI(false));
+    }
+
+    @Test
+    void lagCheckRunsOnTheServiceScheduler() {
+        properties.setLagCheckIntervalMs(750);
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+
+        routing.configureTasks(registrar);
+
+        assertEquals(1, registrar.getFixedDelayTaskList().size());
+        assertEquals(750, registrar.getFixedDelayTaskList().get(0).getInterval());
+        registrar.getFixedDelayTaskList().get(0).getRunnable().run();
+        assertTrue(routing.isReplicaUsable());
+    }
+
+    @Test
+    void workOutsideATransactionGoesToThePrimary() {
+        routing.checkReplicaLag();
+
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilTheFirstLagCheck() {
+        assertFalse(routing.isReplicaUsable());
+        assertEquals("primary", whoAmI(true));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        routing.checkReplicaLag();
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = 10");
+
+        routing.checkReplicaLag();
+        assertFalse(routing.isReplicaUsable());
+        assertEquals("primary", whoAmI(true));
+
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = 1");
+        routing.checkReplicaLag();
+        assertTrue(routing.isReplicaUsable());
+        assertEquals("replica", whoAmI(true));
+    }
+
+    @Test
+    void stoppedReplicationFallsBackToThePrimary() {
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = NULL");
+
+        routing.checkReplicaLag();
+
+        assertFalse(routing.isReplicaUsable());
+        assertEquals("primary", whoAmI(true));
+    }
+
+    @Test
+    void replicaWithoutStatusFallsBackToThePrimary() {
+        replicaJdbc.update("DELETE FROM replica_status");
+
+        routing.checkReplicaLag();
+
+        assertFalse(routing.isReplicaUsable());
+    }
+
+    @Test
+    void writerReadsFromThePrimaryDuringTheStickyWindow() throws InterruptedException {
+        properties.setStickyMs(200);
+        routing.checkReplicaLag();
+
+        currentUser.set(CLIENT);
+        assertEquals("primary", whoAmI(false));
+        assertEquals("primary", whoAmI(true));
+
+        currentUser.set(OTHER_CLIENT);
+        assertEquals("replica", whoAmI(true));
+
+        Thread.sleep(300);
+        currentUser.set(CLIENT);
+        assertEquals("replica", whoAmI(true));
+    }
+
+    @Test
+    void lagCheckForgetsExpiredWrites() throws InterruptedException {
+        properties.setStickyMs(100);
+        routing.checkReplicaLag();
+        currentUser.set(CLIENT);
+        whoAmI(false);
+
+        Thread.sleep(150);
+        routing.checkReplicaLag();
+        properties.setStickyMs(5000);
+
+        // Would still count as recent had the write been kept
+        assertEquals("replica", whoAmI(true));
+    }
+
+    private String whoAmI(boolean readOnly) {
+        transactions.setReadOnly(readOnly);
+        return transactions.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        return dataSource;
+    }
+}
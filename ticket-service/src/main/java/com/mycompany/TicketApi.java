@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("com.mycompany.entity")
 @EnableJpaRepositories("com.mycompany.repository")
 @ComponentScan("com.mycompany")
+@EnableScheduling
 public class TicketApi {
     public static void main(String[] args) {
         SpringApplication.run(TicketApi.class, args);
@@ -1,5 +1,6 @@
 package com.mycompany.config;
 
+import com.mycompany.util.DeadlineRequestFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -9,6 +10,10 @@ public class AppConfig {
 
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        // Calls to auth-support time out with the request that made them
+        DeadlineRequestFactory requestFactory = new DeadlineRequestFactory();
+        requestFactory.setConnectTimeout(2000);
+        requestFactory.setReadTimeout(5000);
+        return new RestTemplate(requestFactory);
     }
 }
\ No newline at end of file
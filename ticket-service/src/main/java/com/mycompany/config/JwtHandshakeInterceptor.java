@@ -1,8 +1,10 @@
 package com.mycompany.config;
 
+import com.mycompany.service.TokenDenylist;
 import com.mycompany.util.JwtUtil;
 import io.jsonwebtoken.Claims;
 import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
@@ -16,6 +18,9 @@ import java.util.Map;
 @Component
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                    WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
@@ -30,6 +35,9 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
                 try {
                     // Validate token and extract claims using JwtUtil
                     Claims claims = JwtUtil.validateToken(token);
+                    if (tokenDenylist.isRevoked(claims.getId())) {
+                        return false;
+                    }
                     String userId = claims.get("userId").toString();
                     attributes.put("userId", userId);
 
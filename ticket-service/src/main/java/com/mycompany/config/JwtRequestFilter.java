@@ -1,10 +1,12 @@
 package com.mycompany.config;
 
+import com.mycompany.service.TokenDenylist;
 import com.mycompany.util.JwtUtil;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,12 +19,15 @@ import java.util.Collections;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         String path = request.getRequestURI();
-        // Skip filtering for /ws/** and /error
-        if (path.startsWith("/ws") || path.equals("/error")) {
+        // The WebSocket endpoints are authenticated too; only chat-service connects, with a service token
+        if (path.equals("/error")) {
             chain.doFilter(request, response);
             return;
         }
@@ -38,11 +43,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             try {
                 userId = JwtUtil.getUserIdFromToken(jwt);
                 role = JwtUtil.getRoleFromToken(jwt);
-                if (!"ADMIN".equals(role) && !"CLIENT".equals(role) && !"SUPPORT".equals(role)) {
+                if (!"ADMIN".equals(role) && !"CLIENT".equals(role) && !"SUPPORT".equals(role)
+                        && !JwtUtil.SERVICE_ROLE.equals(role)) {
                     response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                     response.getWriter().write("{\"error\": \"Access denied: Invalid role\"}");
                     return;
                 }
+                if (tokenDenylist.isRevoked(JwtUtil.getTokenId(jwt))) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("{\"error\": \"Token has been revoked\"}");
+                    return;
+                }
             } catch (Exception e) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("{\"error\": \"Invalid or expired JWT token\"}");
@@ -0,0 +1,56 @@
+package com.mycompany.config;
+
+import com.mycompany.replica.ReadWriteRoutingDataSource;
+import com.mycompany.replica.ReplicaProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single connection pool with a primary and a replica pool when
+ * {@code ticket.datasource.replica.enabled=true}. The primary still comes from {@code spring.datasource.*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ticket.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "ticket.datasource.replica")
+    public ReplicaProperties replicaProperties() {
+        return new ReplicaProperties();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties primaryProperties, ReplicaProperties replica) {
+        return ReadWriteRoutingDataSource.create(primaryProperties, replica, ReadReplicaConfig::currentUserKey);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        // Takes the physical connection at the first statement, once the read-only flag is set
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Authenticated user of the current request, as "ROLE_X:id"
+    private static String currentUserKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Long)) {
+            return null;
+        }
+        String role = authentication.getAuthorities().stream()
+                .findFirst()
+                .map(GrantedAuthority::getAuthority)
+                .orElse("");
+        return role + ":" + authentication.getPrincipal();
+    }
+}
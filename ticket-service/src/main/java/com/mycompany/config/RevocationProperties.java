@@ -0,0 +1,26 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where revoked access tokens are read from, bound from {@code ticket.revocations.*}: the base
+ * URLs of the auth services that issue tokens accepted here.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket.revocations")
+public class RevocationProperties {
+
+    private List<String> sources = new ArrayList<>();
+
+    // How long a revoked token may keep working here at most
+    private long pollIntervalMs = 5000;
+
+    public List<String> getSources() { return sources; }
+    public void setSources(List<String> sources) { this.sources = sources; }
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+}
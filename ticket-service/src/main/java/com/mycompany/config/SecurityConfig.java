@@ -33,7 +33,8 @@ public class SecurityConfig {
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .authorizeRequests()
-                .antMatchers("/ws/**").permitAll() // Allow unauthenticated access to WebSocket endpoint
+                // New tickets are published on the broker; only chat-service may connect to it
+                .antMatchers("/ws/**", "/stomp").hasRole(JwtUtil.SERVICE_ROLE)
                 .antMatchers("/api/auth/login", "/error").permitAll()
                 .antMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow OPTIONS requests for all endpoints
                 .antMatchers("/api/admin", "/api/admin/me").hasRole("ADMIN")
@@ -50,6 +51,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("https://app.prjsdr.xyz"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
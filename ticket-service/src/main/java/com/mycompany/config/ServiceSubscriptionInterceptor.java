@@ -0,0 +1,52 @@
+package com.mycompany.config;
+
+import com.mycompany.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Keeps the broker to chat-service: subscriptions, e.g. to {@code /topic/tickets/created},
+ * are only accepted from sessions whose handshake carried a service token, and nothing may
+ * be sent to the broker destinations directly.
+ */
+@Component
+public class ServiceSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceSubscriptionInterceptor.class);
+
+    private static final String SERVICE_AUTHORITY = "ROLE_" + JwtUtil.SERVICE_ROLE;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (StompCommand.SUBSCRIBE.equals(command) && !isService(accessor.getUser())) {
+            logger.warn("Rejected subscription to {} from a session without a service token", accessor.getDestination());
+            throw new MessageDeliveryException("Subscriptions require a service token");
+        }
+        String destination = accessor.getDestination();
+        if (StompCommand.SEND.equals(command) && destination != null && destination.startsWith("/topic")) {
+            throw new MessageDeliveryException("Sending to " + destination + " is not allowed");
+        }
+        return message;
+    }
+
+    private static boolean isService(Principal user) {
+        return user instanceof Authentication && ((Authentication) user).getAuthorities().stream()
+                .anyMatch(authority -> SERVICE_AUTHORITY.equals(authority.getAuthority()));
+    }
+}
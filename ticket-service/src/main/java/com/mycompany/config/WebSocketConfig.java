@@ -1,25 +1,66 @@
 package com.mycompany.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String SOCKJS_ENDPOINT = "/ws";
+    // Plain WebSocket; Tomcat negotiates permessage-deflate when the client offers it
+    public static final String NATIVE_ENDPOINT = "/stomp";
+
+    @Autowired
+    private WebSocketProperties webSocketProperties;
+
+    @Autowired
+    private WebSocketTransportMetrics transportMetrics;
+
+    @Autowired
+    private ServiceSubscriptionInterceptor serviceSubscriptionInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(serviceSubscriptionInterceptor);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws")
+        registry.addEndpoint(NATIVE_ENDPOINT)
+                .setAllowedOrigins("https://app.prjsdr.xyz", "https://chat.prjsdr.xyz");
+        // Fallback for networks that block the WebSocket upgrade
+        registry.addEndpoint(SOCKJS_ENDPOINT)
                 .setAllowedOrigins("https://app.prjsdr.xyz", "https://chat.prjsdr.xyz")
                 .withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(webSocketProperties.getMessageSizeLimit())
+                .setSendBufferSizeLimit(webSocketProperties.getSendBufferSizeLimit())
+                .setSendTimeLimit(webSocketProperties.getSendTimeLimitMs())
+                .addDecoratorFactory(transportMetrics);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(WebSocketProperties properties) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(properties.getTextBufferSize());
+        return container;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.mycompany.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffer and frame limits of the STOMP endpoints, bound from {@code ticket.websocket.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ticket.websocket")
+public class WebSocketProperties {
+
+    // Largest inbound STOMP message; longer ones close the session
+    private int messageSizeLimit = 64 * 1024;
+
+    // Container read buffer, sized so a full message arrives as one frame instead of being reassembled
+    private int textBufferSize = 64 * 1024;
+
+    // Outbound bytes queued for one slow session before it is closed
+    private int sendBufferSizeLimit = 256 * 1024;
+
+    // Longest a single send may block before the session is closed
+    private int sendTimeLimitMs = 10000;
+
+    public int getMessageSizeLimit() { return messageSizeLimit; }
+    public void setMessageSizeLimit(int messageSizeLimit) { this.messageSizeLimit = messageSizeLimit; }
+    public int getTextBufferSize() { return textBufferSize; }
+    public void setTextBufferSize(int textBufferSize) { this.textBufferSize = textBufferSize; }
+    public int getSendBufferSizeLimit() { return sendBufferSizeLimit; }
+    public void setSendBufferSizeLimit(int sendBufferSizeLimit) { this.sendBufferSizeLimit = sendBufferSizeLimit; }
+    public int getSendTimeLimitMs() { return sendTimeLimitMs; }
+    public void setSendTimeLimitMs(int sendTimeLimitMs) { this.sendTimeLimitMs = sendTimeLimitMs; }
+}
@@ -4,6 +4,7 @@ import com.mycompany.entity.Ticket;
 import com.mycompany.entity.TicketDTO;
 import com.mycompany.service.TicketService;
 import com.mycompany.util.JwtUtil;
+import com.mycompany.resilience.PeerUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,14 +14,18 @@ import org.springframework.validation.FieldError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
@@ -40,8 +45,7 @@ public class TicketController {
 
     @PostMapping("/ticket")
     public ResponseEntity<Map<String, Object>> createTicket(
-            @RequestBody @Valid TicketDTO ticketDTO,
-            @RequestHeader("Authorization") String authorizationHeader) {
+            @RequestBody @Valid TicketDTO ticketDTO) {
         logger.debug("Processing createTicket request");
         Map<String, Object> response = new HashMap<>();
         try {
@@ -56,11 +60,11 @@ public class TicketController {
             response.put("ticket", ticket);
             logger.info("Created ticket with id: {} for client id: {}", ticket.getId(), clientId);
 
-            // Notify chat service via WebSocket
+            // Notify chat service via WebSocket; it routes the ticket to the assigned agent only.
+            // No credentials travel with it, anyone able to subscribe here sees the message.
             try {
                 Map<String, Object> message = new HashMap<>();
                 message.put("ticket", ticketDTO);
-                message.put("jwtToken", authorizationHeader);
                 messagingTemplate.convertAndSend("/topic/tickets/created", message);
                 logger.info("Notified chat service via WebSocket for ticket id: {}", ticket.getId());
             } catch (Exception e) {
@@ -68,6 +72,10 @@ public class TicketController {
             }
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PeerUnavailableException e) {
+            response.put("status", "ERROR");
+            response.put("message", "Ticket creation is temporarily unavailable, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "15").body(response);
         } catch (IllegalStateException e) {
             response.put("status", "ERROR");
             response.put("message", e.getMessage());
@@ -103,8 +111,63 @@ public class TicketController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/tickets/batch")
+    public ResponseEntity<Map<String, Object>> getTicketsBatch(
+            @RequestBody Map<String, List<Long>> request,
+            @RequestHeader("Authorization") String authorizationHeader) {
+        Map<String, Object> response = new HashMap<>();
+        Long userId = (Long) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String jwt = authorizationHeader.startsWith("Bearer ") ? authorizationHeader.substring(7) : authorizationHeader;
+        String role = jwtUtil.getRoleFromToken(jwt);
+
+        if (!"CLIENT".equals(role) && !"SUPPORT".equals(role) && !"ADMIN".equals(role) && !JwtUtil.SERVICE_ROLE.equals(role)) {
+            response.put("status", "ERROR");
+            response.put("message", "Invalid role");
+            logger.warn("Invalid role {} for user id: {}", role, userId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        List<Long> requested = request.get("ids");
+        if (requested == null || requested.isEmpty()) {
+            response.put("status", "ERROR");
+            response.put("message", "ids is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        Set<Long> ids = new LinkedHashSet<>(requested);
+        ids.remove(null);
+        if (ids.size() > ticketService.getMaxBatchIds()) {
+            response.put("status", "ERROR");
+            response.put("message", "At most " + ticketService.getMaxBatchIds() + " ids per request");
+            logger.warn("Rejected batch of {} ids from user id: {}", ids.size(), userId);
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+        }
+
+        Map<Long, Ticket> found = new HashMap<>();
+        for (Ticket ticket : ticketService.getTicketsByIds(ids, userId, role)) {
+            found.put(ticket.getId(), ticket);
+        }
+        // Keep the caller's order; unknown and foreign ids are reported alike so existence doesn't leak
+        List<Ticket> tickets = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Ticket ticket = found.get(id);
+            if (ticket != null) {
+                tickets.add(ticket);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        response.put("status", "SUCCESS");
+        response.put("tickets", tickets);
+        response.put("missing", missing);
+        logger.info("Resolved {} of {} requested tickets for user id: {} (role: {})", tickets.size(), ids.size(), userId, role);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/ticket/{id}")
-    public ResponseEntity<Map<String, Object>> getTicketById(@PathVariable Long id, @RequestHeader("Authorization") String authorizationHeader) {
+    public ResponseEntity<Map<String, Object>> getTicketById(@PathVariable Long id, @RequestHeader("Authorization") String authorizationHeader,
+                                                             WebRequest webRequest) {
         logger.debug("Processing getTicketById request for id: {}", id);
         Map<String, Object> response = new HashMap<>();
         Long userId = (Long) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -120,6 +183,9 @@ public class TicketController {
                     logger.warn("Unauthorized access to ticket id: {} by client id: {}", id, userId);
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
                 }
+            } else if (JwtUtil.SERVICE_ROLE.equals(role)) {
+                // chat-service confirming an assignment; it may read any ticket
+                logger.debug("Service read of ticket id: {}", id);
             } else if ("SUPPORT".equals(role) || "ADMIN".equals(role)) {
                 if (!ticket.getSupportTeamId().equals(userId)) {
                     response.put("status", "ERROR");
@@ -134,10 +200,17 @@ public class TicketController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
             }
 
+            // Only answer conditionally once access is established, so a 304 reveals nothing extra
+            String etag = ticketService.etagFor(ticket);
+            if (webRequest.checkNotModified(etag)) {
+                logger.debug("Ticket id: {} not modified for user id: {}", id, userId);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             response.put("status", "SUCCESS");
             response.put("ticket", ticket);
             logger.info("Retrieved ticket with id: {} for user id: {} (role: {})", id, userId, role);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
         } catch (IllegalArgumentException e) {
             response.put("status", "ERROR");
             response.put("message", e.getMessage());
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "ticket")
+@Table(name = "ticket", indexes = {
+        @Index(name = "idx_ticket_client_id", columnList = "client_id"),
+        @Index(name = "idx_ticket_support_team_id", columnList = "support_team_id")
+})
 public class Ticket {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -53,6 +56,12 @@ public class Ticket {
     @Column(length = 1000)
     private String resolution;
 
+    // Keeps updatedAt (and so the ticket's ETag) moving with every change
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
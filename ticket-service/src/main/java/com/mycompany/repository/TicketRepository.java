@@ -2,10 +2,13 @@ package com.mycompany.repository;
 
 import com.mycompany.entity.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     List<Ticket> findByClientId(Long clientId);
     List<Ticket> findBySupportTeamId(Long supportTeamId);
+    List<Ticket> findByIdInAndClientId(Collection<Long> ids, Long clientId);
+    List<Ticket> findByIdInAndSupportTeamId(Collection<Long> ids, Long supportTeamId);
     long countBySupportTeamIdAndStatusNotIn(Long supportTeamId, List<String> statuses);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -24,6 +25,7 @@ public class CategoryService {
         return categoryRepository.save(category);
     }
 
+    @Transactional
     public Category updateCategory(Long id, Category updatedCategory) {
         logger.debug("Updating category ID: {}", id);
         Category existingCategory = categoryRepository.findById(id)
@@ -38,6 +40,7 @@ public class CategoryService {
         return categoryRepository.save(existingCategory);
     }
 
+    @Transactional
     public void deleteCategory(Long id) {
         logger.debug("Deleting category ID: {}", id);
         if (!categoryRepository.existsById(id)) {
@@ -46,6 +49,7 @@ public class CategoryService {
         categoryRepository.deleteById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         logger.debug("Retrieving all categories");
         return categoryRepository.findAll();
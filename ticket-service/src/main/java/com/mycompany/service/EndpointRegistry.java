@@ -0,0 +1,31 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ResilienceProperties;
+import com.mycompany.resilience.EndpointPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Instances of each peer service, from the static lists in {@link ResilienceProperties}.
+ * Picks the available instance with the fewest outstanding requests and probes every
+ * instance periodically.
+ */
+@Service
+public class EndpointRegistry extends EndpointPool {
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @PostConstruct
+    public void init() {
+        properties.getPeers().forEach((peer, settings) -> register(peer, settings.getInstances()));
+    }
+
+    @Scheduled(fixedDelayString = "${ticket.resilience.health-check-interval-ms:10000}")
+    public void checkHealth() {
+        checkHealth(peer -> properties.peer(peer).getHealthPath());
+    }
+}
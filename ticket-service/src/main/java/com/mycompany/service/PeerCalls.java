@@ -0,0 +1,69 @@
+package com.mycompany.service;
+
+import com.mycompany.config.ResilienceProperties;
+import com.mycompany.resilience.AbstractPeerCalls;
+import com.mycompany.resilience.Endpoint;
+import com.mycompany.resilience.EndpointPool;
+import com.mycompany.resilience.PeerSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Guarded calls to other services (see {@link AbstractPeerCalls}), configured from
+ * {@link ResilienceProperties}. A 4xx from the peer is an answer and neither trips the
+ * breaker nor ejects the instance.
+ */
+@Service
+public class PeerCalls extends AbstractPeerCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerCalls.class);
+
+    public static final String AUTH_SUPPORT = "auth-support";
+
+    @Autowired
+    private ResilienceProperties properties;
+
+    @Autowired
+    private EndpointRegistry registry;
+
+    @Override
+    protected EndpointPool endpoints() {
+        return registry;
+    }
+
+    @Override
+    protected PeerSettings settings(String peer) {
+        return properties.peer(peer);
+    }
+
+    @Override
+    protected long defaultBudgetMs() {
+        return properties.getDefaultBudgetMs();
+    }
+
+    @Override
+    protected boolean isAnswer(Throwable failure) {
+        return failure instanceof HttpClientErrorException;
+    }
+
+    @Override
+    protected void onHedged(String peer, Endpoint second) {
+        logger.debug("Hedging call to {} on {}", peer, second.getBaseUrl());
+    }
+
+    @Override
+    protected void onRejected(String peer, String reason, String message) {
+        logger.debug("Call to {} not made ({}): {}", peer, reason, message);
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        super.shutdown();
+    }
+}
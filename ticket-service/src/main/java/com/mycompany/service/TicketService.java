@@ -4,18 +4,24 @@ import com.mycompany.entity.Ticket;
 import com.mycompany.entity.TicketDTO;
 import com.mycompany.repository.TicketRepository;
 import com.mycompany.util.JwtUtil;
+import com.mycompany.resilience.PeerUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.springframework.http.ResponseEntity;
@@ -33,9 +39,16 @@ public class TicketService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    private String supportServiceUrl = "http://support-api.prjsdr.xyz/api/support/available";
+    @Autowired
+    private PeerCalls peerCalls;
+
+    // Paths on auth-support; instances are listed under ticket.resilience.peers.auth-support
+    private static final String SUPPORT_AVAILABLE_PATH = "/api/support/available/";
+
+    private static final String ACTIVE_TICKETS_PATH = "/api/support/activeTickets";
 
-    private String activeTicketsUrl = "http://support-api.prjsdr.xyz/api/support/activeTickets";
+    @Value("${ticket.batch.max-ids:2000}")
+    private int maxBatchIds;
 
     public Ticket createTicket(TicketDTO ticketDTO, Long clientId) {
         logger.debug("Creating ticket for client ID: {}", clientId);
@@ -59,15 +72,16 @@ public class TicketService {
         String adminJwt = jwtUtil.generateToken(1L, "ADMIN");
 
         // Fetch supportTeamId from internal API
-        String url = supportServiceUrl + "/" + ticket.getCategoryId();
-        logger.debug("Calling support service at: {}", url);
+        String path = SUPPORT_AVAILABLE_PATH + ticket.getCategoryId();
+        logger.debug("Calling support service at: {}", path);
         Long supportTeamId = null;
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.set("Authorization", "Bearer " + adminJwt);
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
+            ResponseEntity<Map> response = peerCalls.read(PeerCalls.AUTH_SUPPORT, null,
+                    baseUrl -> restTemplate.exchange(baseUrl + path, HttpMethod.GET, entity, Map.class));
             logger.debug("Support service response: Status={}, Body={}", response.getStatusCode(), response.getBody());
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null && response.getBody().containsKey("supportTeamId")) {
                 supportTeamId = ((Number) response.getBody().get("supportTeamId")).longValue();
@@ -76,6 +90,9 @@ public class TicketService {
                 logger.error("Failed to fetch support team ID. Response: {}", response.getBody());
                 throw new IllegalStateException("Failed to fetch support team ID");
             }
+        } catch (PeerUnavailableException e) {
+            logger.warn("Not assigning a support team: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching support team ID: {}", e.getMessage(), e);
             throw new IllegalStateException("Unable to assign support team: " + e.getMessage());
@@ -107,7 +124,8 @@ public class TicketService {
             );
             logger.debug("Sending activeTickets payload: {}", payload);
             HttpEntity<Map<String, Long>> entity = new HttpEntity<>(payload, headers);
-            ResponseEntity<Void> response = restTemplate.exchange(activeTicketsUrl, HttpMethod.POST, entity, Void.class);
+            ResponseEntity<Void> response = peerCalls.call(PeerCalls.AUTH_SUPPORT,
+                    baseUrl -> restTemplate.exchange(baseUrl + ACTIVE_TICKETS_PATH, HttpMethod.POST, entity, Void.class));
             logger.debug("Active tickets update response: Status={}", response.getStatusCode());
             if (!response.getStatusCode().is2xxSuccessful()) {
                 logger.warn("Failed to update active tickets for support team {}", supportTeamId);
@@ -120,19 +138,55 @@ public class TicketService {
         return savedTicket;
     }
 
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketsByClientId(Long clientId) {
         logger.debug("Fetching tickets for client ID: {}", clientId);
         return ticketRepository.findByClientId(clientId);
     }
 
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketsBySupportTeamId(Long supportTeamId) {
         logger.debug("Fetching tickets for support team ID: {}", supportTeamId);
         return ticketRepository.findBySupportTeamId(supportTeamId);
     }
 
+    @Transactional(readOnly = true)
     public Ticket getTicketById(Long id) {
         logger.debug("Fetching ticket with ID: {}", id);
         return ticketRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + id));
     }
+
+    public int getMaxBatchIds() {
+        return maxBatchIds;
+    }
+
+    /**
+     * Resolves a set of ticket ids in a single primary-key IN query. For users the owner filter is
+     * part of the query, so tickets the caller may not see are simply absent from the result;
+     * services read every ticket, as they do one at a time.
+     */
+    @Transactional(readOnly = true)
+    public List<Ticket> getTicketsByIds(Collection<Long> ids, Long userId, String role) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        logger.debug("Fetching {} tickets by id for user ID: {} (role: {})", ids.size(), userId, role);
+        if (JwtUtil.SERVICE_ROLE.equals(role)) {
+            return ticketRepository.findAllById(ids);
+        }
+        if ("CLIENT".equals(role)) {
+            return ticketRepository.findByIdInAndClientId(ids, userId);
+        }
+        return ticketRepository.findByIdInAndSupportTeamId(ids, userId);
+    }
+
+    /**
+     * Weak validator for a ticket representation; it changes whenever updatedAt does.
+     */
+    public String etagFor(Ticket ticket) {
+        LocalDateTime updatedAt = ticket.getUpdatedAt();
+        long version = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        return "W/\"" + ticket.getId() + "-" + Long.toHexString(version) + "\"";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.mycompany.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access-token ids ({@code jti}) revoked by the auth services through logout or refresh-token
+ * reuse, mirrored here by {@link RevocationFeed}. Each id is kept until the token would have
+ * expired anyway.
+ */
+@Component
+public class TokenDenylist {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId != null && expiresAtMillis > System.currentTimeMillis()) {
+            revoked.put(tokenId, expiresAtMillis);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
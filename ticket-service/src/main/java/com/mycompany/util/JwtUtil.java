@@ -16,6 +16,9 @@ public class JwtUtil {
     private static final String SECRET_KEY = "your-very-long-and-secure-secret-key-here-32bytes!";
     private static final long EXPIRATION_TIME = 86400000; // 24 hours in milliseconds
 
+    // Role carried by tokens that services mint for calling each other
+    public static final String SERVICE_ROLE = "SERVICE";
+
     // Use SecretKeySpec for consistent key handling
     private static final SecretKeySpec SIGNING_KEY = new SecretKeySpec(
         SECRET_KEY.getBytes(), SignatureAlgorithm.HS256.getJcaName()
@@ -60,4 +63,9 @@ public class JwtUtil {
         Claims claims = validateToken(token);
         return claims.get("role").toString();
     }
-}
\ No newline at end of file
+
+    // Extract token id (jti) from JWT; checked against the revoked tokens
+    public static String getTokenId(String token) {
+        return validateToken(token).getId();
+    }
+}
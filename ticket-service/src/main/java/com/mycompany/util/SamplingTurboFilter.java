@@ -0,0 +1,79 @@
+package com.mycompany.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in N INFO/DEBUG events per logger category; WARN and ERROR always pass.
+ * Runs as a turbo filter, so dropped events are rejected before their message is
+ * formatted or handed to an appender. Configured from logback-spring.xml with one
+ * {@code <sample>category=N</sample>} per category; the longest matching prefix wins.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final Rule NO_RULE = new Rule("", 1);
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, Rule> byLogger = new ConcurrentHashMap<>();
+
+    public void addSample(String spec) {
+        int eq = spec.lastIndexOf('=');
+        if (eq <= 0) {
+            addError("Invalid sample '" + spec + "', expected category=N");
+            return;
+        }
+        long every = Long.parseLong(spec.substring(eq + 1).trim());
+        if (every > 1) {
+            rules.add(new Rule(spec.substring(0, eq).trim(), every));
+        }
+    }
+
+    @Override
+    public void start() {
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.category.length()).reversed());
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks; let those through and sample the actual call
+        if (!isStarted() || format == null || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Rule rule = byLogger.computeIfAbsent(logger.getName(), this::match);
+        if (rule == NO_RULE) {
+            return FilterReply.NEUTRAL;
+        }
+        return rule.counter.getAndIncrement() % rule.every == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Rule match(String loggerName) {
+        for (Rule rule : rules) {
+            if (loggerName.equals(rule.category) || loggerName.startsWith(rule.category + ".")) {
+                return rule;
+            }
+        }
+        return NO_RULE;
+    }
+
+    private static class Rule {
+        private final String category;
+        private final long every;
+        private final AtomicLong counter = new AtomicLong();
+
+        Rule(String category, long every) {
+            this.category = category;
+            this.every = every;
+        }
+    }
+}
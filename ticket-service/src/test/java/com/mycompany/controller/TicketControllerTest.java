@@ -0,0 +1,229 @@
+package com.mycompany.controller;
+
+import com.mycompany.entity.Ticket;
+import com.mycompany.repository.TicketRepository;
+import com.mycompany.service.TicketService;
+import com.mycompany.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TicketControllerTest {
+
+    private static final long CLIENT = 10L;
+    private static final long AGENT = 20L;
+
+    private final Map<Long, Ticket> tickets = new LinkedHashMap<>();
+    private final List<String> queries = new ArrayList<>();
+    private final TicketService ticketService = new TicketService();
+    private final TicketController controller = new TicketController();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ticket(1L, CLIENT, AGENT);
+        ticket(2L, CLIENT, 21L);
+        ticket(3L, 11L, AGENT);
+        set(ticketService, "ticketRepository", repository());
+        set(ticketService, "maxBatchIds", 3);
+        set(controller, "ticketService", ticketService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void batchReturnsOnlyTheCallersTicketsInTheRequestedOrder() {
+        ResponseEntity<Map<String, Object>> response = batch(CLIENT, "CLIENT", 3L, 2L, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2L, 1L), ids(response.getBody().get("tickets")));
+        // Another client's ticket is reported like an unknown one
+        assertEquals(List.of(3L), response.getBody().get("missing"));
+        assertEquals(List.of("findByIdInAndClientId"), queries);
+    }
+
+    @Test
+    void batchForAnAgentFiltersOnTheAssignment() {
+        ResponseEntity<Map<String, Object>> response = batch(AGENT, "SUPPORT", 1L, 2L, 3L);
+
+        assertEquals(List.of(1L, 3L), ids(response.getBody().get("tickets")));
+        assertEquals(List.of(2L), response.getBody().get("missing"));
+        assertEquals(List.of("findByIdInAndSupportTeamId"), queries);
+    }
+
+    @Test
+    void batchForAServiceIsNotFiltered() {
+        ResponseEntity<Map<String, Object>> response = batch(0L, JwtUtil.SERVICE_ROLE, 3L, 99L, 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(3L, 1L), ids(response.getBody().get("tickets")));
+        assertEquals(List.of(99L), response.getBody().get("missing"));
+        assertEquals(List.of("findAllById"), queries);
+    }
+
+    @Test
+    void batchCountsDistinctIdsAgainstTheCap() {
+        assertEquals(HttpStatus.OK, batch(CLIENT, "CLIENT", 1L, 1L, 2L, 2L, 3L).getStatusCode());
+
+        ResponseEntity<Map<String, Object>> response = batch(CLIENT, "CLIENT", 1L, 2L, 3L, 4L);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        assertEquals(List.of("findByIdInAndClientId"), queries);
+    }
+
+    @Test
+    void batchRejectsUnknownRolesAndEmptyRequests() {
+        assertEquals(HttpStatus.FORBIDDEN, batch(CLIENT, "GUEST", 1L).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, batch(CLIENT, "CLIENT").getStatusCode());
+        assertEquals(List.of(), queries);
+    }
+
+    @Test
+    void getAnswersAMatchingIfNoneMatchWithNotModified() {
+        authenticate(CLIENT);
+        String etag = ticketService.etagFor(tickets.get(1L));
+
+        ResponseEntity<Map<String, Object>> fresh = controller.getTicketById(1L, bearer(CLIENT, "CLIENT"), webRequest(null));
+        ResponseEntity<Map<String, Object>> cached = controller.getTicketById(1L, bearer(CLIENT, "CLIENT"), webRequest(etag));
+
+        assertEquals(HttpStatus.OK, fresh.getStatusCode());
+        assertEquals(etag, fresh.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, cached.getStatusCode());
+        assertNull(cached.getBody());
+    }
+
+    @Test
+    void getChecksAccessBeforeTheETag() {
+        authenticate(CLIENT);
+        String etag = ticketService.etagFor(tickets.get(3L));
+
+        ResponseEntity<Map<String, Object>> response = controller.getTicketById(3L, bearer(CLIENT, "CLIENT"), webRequest(etag));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    private ResponseEntity<Map<String, Object>> batch(long userId, String role, Long... ids) {
+        authenticate(userId);
+        Map<String, List<Long>> request = new HashMap<>();
+        request.put("ids", List.of(ids));
+        return controller.getTicketsBatch(request, bearer(userId, role));
+    }
+
+    private void ticket(Long id, Long clientId, Long supportTeamId) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setClientId(clientId);
+        ticket.setSupportTeamId(supportTeamId);
+        ticket.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 12, 0).plusSeconds(id));
+        tickets.put(id, ticket);
+    }
+
+    // Answers the lookups TicketService makes from the map; batch queries are recorded, and
+    // return tickets in map order rather than the caller's
+    @SuppressWarnings("unchecked")
+    private TicketRepository repository() {
+        return (TicketRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{TicketRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.ofNullable(tickets.get((Long) args[0]));
+                        case "findByIdInAndClientId":
+                            queries.add(method.getName());
+                            return find((Collection<Long>) args[0], ticket -> ticket.getClientId().equals(args[1]));
+                        case "findByIdInAndSupportTeamId":
+                            queries.add(method.getName());
+                            return find((Collection<Long>) args[0], ticket -> ticket.getSupportTeamId().equals(args[1]));
+                        case "findAllById":
+                            queries.add(method.getName());
+                            return find((Collection<Long>) args[0], ticket -> true);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private List<Ticket> find(Collection<Long> ids, Predicate<Ticket> visible) {
+        return tickets.values().stream()
+                .filter(ticket -> ids.contains(ticket.getId()) && visible.test(ticket))
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Object tickets) {
+        return ((List<Ticket>) tickets).stream().map(Ticket::getId).collect(Collectors.toList());
+    }
+
+    private static void authenticate(long userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
+    private static String bearer(long userId, String role) {
+        return "Bearer " + JwtUtil.generateToken(userId, role);
+    }
+
+    // A GET carrying the given If-None-Match, answered by a response still at 200
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(TicketControllerTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMethod":
+                            return "GET";
+                        case "getHeader":
+                            return "If-None-Match".equalsIgnoreCase((String) args[0]) ? ifNoneMatch : null;
+                        case "getHeaders":
+                            return "If-None-Match".equalsIgnoreCase((String) args[0]) && ifNoneMatch != null
+                                    ? Collections.enumeration(List.of(ifNoneMatch))
+                                    : Collections.emptyEnumeration();
+                        case "getDateHeader":
+                            return -1L;
+                        default:
+                            return null;
+                    }
+                });
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(TicketControllerTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStatus":
+                            return 200;
+                        case "containsHeader":
+                            return false;
+                        default:
+                            return null;
+                    }
+                });
+        return new ServletWebRequest(request, response);
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}